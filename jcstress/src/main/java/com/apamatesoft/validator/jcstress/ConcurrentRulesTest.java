@@ -0,0 +1,42 @@
+package com.apamatesoft.validator.jcstress;
+
+import com.apamatesoft.validator.Validator;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.II_Result;
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+/**
+ * Reglas agregadas al mismo tiempo desde dos hilos sobre un Validator compartido: ninguna se pierde, en cualquier
+ * orden.
+ */
+@JCStressTest
+@Outcome(id = "1, 1", expect = ACCEPTABLE, desc = "Both rules kept")
+@Outcome(expect = FORBIDDEN, desc = "A rule was lost")
+@State
+public class ConcurrentRulesTest {
+
+    private final Validator validator = new Validator();
+
+    @Actor
+    public void required() {
+        validator.required("Required");
+    }
+
+    @Actor
+    public void maxLength() {
+        validator.maxLength(1, "Long");
+    }
+
+    @Arbiter
+    public void arbiter(II_Result result) {
+        // "" solo incumple required, y "ab" solo incumple maxLength, sin importar el orden de las reglas.
+        result.r1 = "Required".equals(validator.failMessage("")) ? 1 : 0;
+        result.r2 = "Long".equals(validator.failMessage("ab")) ? 1 : 0;
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.apamatesoft.validator.jcstress;
+
+import com.apamatesoft.validator.Validator;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.I_Result;
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE_INTERESTING;
+
+/**
+ * Publicación de un Validator en un campo sin sincronizar. El estado de las reglas es volatile, pero el modelo de
+ * memoria no garantiza que el hilo lector vea las escrituras del constructor; documenta por qué los Validators
+ * compartidos deben publicarse de forma segura.
+ */
+@JCStressTest
+@Outcome(id = "-1", expect = ACCEPTABLE, desc = "Validator not published yet")
+@Outcome(id = "1", expect = ACCEPTABLE, desc = "Published Validator evaluates all its rules")
+@Outcome(id = "0", expect = ACCEPTABLE_INTERESTING, desc = "Racy publication exposed a Validator without its rules")
+@Outcome(id = "2", expect = ACCEPTABLE_INTERESTING, desc = "Racy publication exposed a partially built Validator")
+@State
+public class RacyPublicationTest {
+
+    private Validator validator;
+
+    @Actor
+    public void publish() {
+        validator = new Validator.Builder().required("Required").minLength(3, "Short").build();
+    }
+
+    @Actor
+    public void evaluate(I_Result result) {
+        final Validator validator = this.validator;
+        try {
+            result.r1 = validator==null ? -1 : "Short".equals(validator.failMessage("ab")) ? 1 : 0;
+        } catch (NullPointerException e) {
+            result.r1 = 2;
+        }
+    }
+
+}
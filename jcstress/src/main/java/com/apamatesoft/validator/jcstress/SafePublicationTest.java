@@ -0,0 +1,36 @@
+package com.apamatesoft.validator.jcstress;
+
+import com.apamatesoft.validator.Validator;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.I_Result;
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+/**
+ * Un Validator construido con el Builder y publicado en un campo volatile se ve completo: el hilo que lo lee evalúa
+ * todas sus reglas.
+ */
+@JCStressTest
+@Outcome(id = "-1", expect = ACCEPTABLE, desc = "Validator not published yet")
+@Outcome(id = "1", expect = ACCEPTABLE, desc = "Published Validator evaluates all its rules")
+@Outcome(expect = FORBIDDEN, desc = "Published Validator is missing rules")
+@State
+public class SafePublicationTest {
+
+    private volatile Validator validator;
+
+    @Actor
+    public void publish() {
+        validator = new Validator.Builder().required("Required").minLength(3, "Short").build();
+    }
+
+    @Actor
+    public void evaluate(I_Result result) {
+        final Validator validator = this.validator;
+        result.r1 = validator==null ? -1 : "Short".equals(validator.failMessage("ab")) ? 1 : 0;
+    }
+
+}
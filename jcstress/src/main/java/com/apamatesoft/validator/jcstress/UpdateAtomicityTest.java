@@ -0,0 +1,42 @@
+package com.apamatesoft.validator.jcstress;
+
+import com.apamatesoft.validator.Validator;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.II_Result;
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE_INTERESTING;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+/**
+ * {@link Validator#update(java.util.function.Consumer)} publica las reglas nuevas con un único reemplazo: cada
+ * evaluación concurrente usa todas las reglas anteriores o todas las nuevas, y tras ver las nuevas no vuelve a las
+ * anteriores.
+ */
+@JCStressTest
+@Outcome(id = "1, 1", expect = ACCEPTABLE, desc = "Both evaluations use the previous rules")
+@Outcome(id = "2, 2", expect = ACCEPTABLE, desc = "Both evaluations use the new rules")
+@Outcome(id = "1, 2", expect = ACCEPTABLE_INTERESTING, desc = "Update published between both evaluations")
+@Outcome(id = "2, 1", expect = FORBIDDEN, desc = "Previous rules seen after the new ones")
+@Outcome(expect = FORBIDDEN, desc = "Evaluation mixed previous and new rules")
+@State
+public class UpdateAtomicityTest {
+
+    private final Validator validator = new Validator.Builder().required("Required").maxLength(1, "Long").build();
+
+    @Actor
+    public void update() {
+        validator.update(rules -> rules.required("Required").minLength(3, "Short"));
+    }
+
+    @Actor
+    public void evaluate(II_Result result) {
+        final String first = validator.failMessage("ab");
+        final String second = validator.failMessage("abcd");
+        result.r1 = "Long".equals(first) ? 1 : "Short".equals(first) ? 2 : 0;
+        result.r2 = "Long".equals(second) ? 1 : second==null ? 2 : 0;
+    }
+
+}
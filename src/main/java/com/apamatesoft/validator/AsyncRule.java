@@ -0,0 +1,126 @@
+package com.apamatesoft.validator;
+
+import com.apamatesoft.validator.functions.AsyncValidate;
+import java.lang.reflect.Method;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Regla de validación asíncrona. Cada evaluación se agenda en un {@link Executor} y, opcionalmente, se limita la
+ * cantidad de evaluaciones de la regla que pueden ejecutarse al mismo tiempo.
+ */
+public class AsyncRule {
+
+    private final String message;
+    private final AsyncValidate validate;
+    private final int maxConcurrency;
+    private final AtomicInteger running = new AtomicInteger();
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param message Mensaje de error.
+     * @param maxConcurrency Cantidad máxima de evaluaciones simultáneas, 0 o menos para no limitarlas.
+     * @param validate Función asíncrona que completa con true cuando el String a evaluar cumple las condiciones.
+     */
+    public AsyncRule(String message, int maxConcurrency, AsyncValidate validate) {
+        this.message = message;
+        this.maxConcurrency = maxConcurrency;
+        this.validate = validate;
+    }
+
+    public AsyncRule(String message, AsyncValidate validate) {
+        this(message, 0, validate);
+    }
+
+    /**
+     * Agenda la evaluación de la regla en el executor. Si el futuro retornado se cancela antes de que la evaluación
+     * comience, esta se descarta; si ya comenzó, se cancela el futuro retornado por {@link AsyncValidate}.
+     * @param evaluate String a evaluar.
+     * @param executor Executor donde se invoca la función de validación.
+     * @return Futuro que completa con true si pasa la validación.
+     */
+    public CompletableFuture<Boolean> validate(String evaluate, Executor executor) {
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        final Runnable task = () -> {
+            if (result.isDone()) {
+                release(executor);
+                return;
+            }
+            CompletableFuture<Boolean> future;
+            try {
+                future = validate.invoke(evaluate);
+            } catch (Throwable e) {
+                future = new CompletableFuture<>();
+                future.completeExceptionally(e);
+            }
+            final CompletableFuture<Boolean> inner = future;
+            result.whenComplete((valid, error) -> inner.cancel(true));
+            inner.whenComplete((valid, error) -> {
+                release(executor);
+                if (error!=null) result.completeExceptionally(error);
+                else result.complete(valid!=null && valid);
+            });
+        };
+        if (maxConcurrency<=0) {
+            executor.execute(task);
+        } else {
+            waiting.add(task);
+            drain(executor);
+        }
+        return result;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    private void release(Executor executor) {
+        if (maxConcurrency<=0) return;
+        running.decrementAndGet();
+        drain(executor);
+    }
+
+    private void drain(Executor executor) {
+        while (!waiting.isEmpty()) {
+            final int current = running.get();
+            if (current>=maxConcurrency) return;
+            if (!running.compareAndSet(current, current+1)) continue;
+            final Runnable task = waiting.poll();
+            if (task==null) {
+                running.decrementAndGet();
+                continue;
+            }
+            executor.execute(task);
+        }
+    }
+
+    /**
+     * Executor usado por defecto para las reglas asíncronas: hilos virtuales cuando la JVM los ofrece (JDK 21+), y el
+     * {@link ForkJoinPool#commonPool()} en caso contrario.
+     * @return Executor predeterminado.
+     */
+    static Executor defaultExecutor() {
+        return DefaultExecutor.INSTANCE;
+    }
+
+    private static class DefaultExecutor {
+
+        private static final Executor INSTANCE = create();
+
+        private static Executor create() {
+            try {
+                final Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (Executor) method.invoke(null);
+            } catch (Exception e) {
+                return ForkJoinPool.commonPool();
+            }
+        }
+
+    }
+
+}
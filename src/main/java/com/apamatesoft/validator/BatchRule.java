@@ -0,0 +1,120 @@
+package com.apamatesoft.validator;
+
+import com.apamatesoft.validator.functions.BatchValidate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Regla de validación por lotes. Las evaluaciones individuales que llegan de forma concurrente se agrupan en un mismo
+ * lote hasta alcanzar {@code maxBatchSize} Strings o hasta que pasen {@code maxDelayMillis} milisegundos desde el primer
+ * String pendiente, lo que ocurra primero.
+ */
+public class BatchRule extends AsyncRule {
+
+    private final BatchValidate validate;
+    private final int maxBatchSize;
+    private final long maxDelayMillis;
+
+    private List<String> values = new ArrayList<>();
+    private List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+    private ScheduledFuture<?> timer;
+
+    /**
+     * @param message Mensaje de error.
+     * @param maxBatchSize Cantidad máxima de Strings por lote.
+     * @param maxDelayMillis Tiempo máximo de espera para completar un lote, 0 para evaluar de inmediato.
+     * @param validate Función que retorna, para cada String del lote y en el mismo orden, true si cumple las
+     *                 condiciones.
+     */
+    public BatchRule(String message, int maxBatchSize, long maxDelayMillis, BatchValidate validate) {
+        super(message, null);
+        if (maxBatchSize<1) throw new IllegalArgumentException("maxBatchSize must be greater than 0");
+        this.validate = validate;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    /**
+     * Agrega el String al lote pendiente. El lote se evalúa en el executor al llenarse o al vencer su tiempo de espera.
+     * @param evaluate String a evaluar.
+     * @param executor Executor donde se invoca la función de validación.
+     * @return Futuro que completa con true si pasa la validación.
+     */
+    @Override
+    public CompletableFuture<Boolean> validate(String evaluate, Executor executor) {
+        final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        List<String> batchValues = null;
+        List<CompletableFuture<Boolean>> batchFutures = null;
+        synchronized (this) {
+            values.add(evaluate);
+            futures.add(future);
+            if (values.size()>=maxBatchSize || maxDelayMillis<=0) {
+                if (timer!=null) timer.cancel(false);
+                timer = null;
+                batchValues = values;
+                batchFutures = futures;
+                values = new ArrayList<>();
+                futures = new ArrayList<>();
+            } else if (values.size()==1) {
+                timer = Scheduler.INSTANCE.schedule(() -> flush(executor), maxDelayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (batchValues!=null) {
+            final List<String> readyValues = batchValues;
+            final List<CompletableFuture<Boolean>> readyFutures = batchFutures;
+            executor.execute(() -> complete(readyValues, readyFutures));
+        }
+        return future;
+    }
+
+    /**
+     * Evalúa la regla sobre una lista de Strings, dividiéndola en lotes de a lo sumo {@code maxBatchSize} elementos.
+     * @param evaluates Strings a evaluar.
+     * @return Resultado de la validación de cada String, en el mismo orden.
+     */
+    public boolean[] validate(List<String> evaluates) {
+        final boolean[] result = new boolean[evaluates.size()];
+        for (int from = 0; from<evaluates.size(); from += maxBatchSize) {
+            final List<String> batch = evaluates.subList(from, Math.min(from+maxBatchSize, evaluates.size()));
+            final boolean[] partial = invoke(batch);
+            System.arraycopy(partial, 0, result, from, partial.length);
+        }
+        return result;
+    }
+
+    private void flush(Executor executor) {
+        final List<String> batchValues;
+        final List<CompletableFuture<Boolean>> batchFutures;
+        synchronized (this) {
+            timer = null;
+            if (values.isEmpty()) return;
+            batchValues = values;
+            batchFutures = futures;
+            values = new ArrayList<>();
+            futures = new ArrayList<>();
+        }
+        executor.execute(() -> complete(batchValues, batchFutures));
+    }
+
+    private void complete(List<String> batchValues, List<CompletableFuture<Boolean>> batchFutures) {
+        try {
+            final boolean[] result = invoke(batchValues);
+            for (int i = 0; i<result.length; i++) batchFutures.get(i).complete(result[i]);
+        } catch (Throwable e) {
+            for (CompletableFuture<Boolean> future: batchFutures) future.completeExceptionally(e);
+        }
+    }
+
+    private boolean[] invoke(List<String> batch) {
+        final boolean[] result = validate.invoke(batch);
+        if (result==null || result.length!=batch.size())
+            throw new IllegalStateException("Batch rule returned "+(result==null ? "null" : result.length+" results")
+                    +" for "+batch.size()+" values");
+        return result;
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.apamatesoft.validator;
+
+import java.util.Arrays;
+
+/**
+ * Conjunto de caracteres de las reglas de contenido. Los caracteres ASCII se representan con un mapa de bits de 128
+ * posiciones y el resto con un arreglo ordenado, lo que evita crear Strings por cada carácter evaluado.<br>
+ * Los conjuntos formados por pocos rangos de caracteres (como {@code NUMBER} o {@code ALPHA_NUMERIC}) evalúan los
+ * Strings largos con un {@link CharKernel} vectorizado cuando la JVM lo admite.
+ */
+final class CharClass {
+
+    private static final CharKernel KERNEL = CharKernel.load();
+    // Longitud a partir de la cual conviene el recorrido vectorizado.
+    private static final int VECTOR_THRESHOLD = 64;
+    private static final int MAX_RANGES = 8;
+
+    private final String chars;
+    private final long low;
+    private final long high;
+    private final char[] others;
+    private final char[] ranges;
+
+    private CharClass(String chars, long low, long high, char[] others) {
+        this.chars = chars;
+        this.low = low;
+        this.high = high;
+        this.others = others;
+        this.ranges = ranges();
+    }
+
+    private CharClass(String chars) {
+        this.chars = chars;
+        long low = 0, high = 0;
+        final StringBuilder others = new StringBuilder();
+        for (int i = 0; i<chars.length(); i++) {
+            final char c = chars.charAt(i);
+            if (c<64) low |= 1L<<c;
+            else if (c<128) high |= 1L<<(c-64);
+            else others.append(c);
+        }
+        this.low = low;
+        this.high = high;
+        this.others = others.toString().toCharArray();
+        Arrays.sort(this.others);
+        this.ranges = ranges();
+    }
+
+    /**
+     * Reúne en rangos los caracteres del mapa de bits y del arreglo ordenado, sin recorrer los caracteres ausentes.
+     * @return Pares {@code [desde, hasta]} de los rangos consecutivos del conjunto, o null si son demasiados o incluyen
+     * caracteres desde 0x8000.
+     */
+    private char[] ranges() {
+        final char[] ranges = new char[MAX_RANGES*2];
+        int count = 0;
+        for (int i = 0, n = 128+others.length; i<n; i++) {
+            final char c = i<128 ? (char) i : others[i-128];
+            if (i<128 && !contains(c)) continue;
+            if (c>=0x8000) return null;
+            if (count>0 && c<=ranges[count*2-1]+1) {
+                ranges[count*2-1] = (char) Math.max(ranges[count*2-1], c);
+                continue;
+            }
+            if (count==MAX_RANGES) return null;
+            ranges[count*2] = c;
+            ranges[count*2+1] = c;
+            count++;
+        }
+        return Arrays.copyOf(ranges, count*2);
+    }
+
+    static CharClass of(String chars) {
+        return new CharClass(chars);
+    }
+
+    /**
+     * Crea el conjunto a partir de su representación ya construida, sin recorrer los caracteres.
+     * @param others Caracteres no ASCII, ordenados.
+     */
+    static CharClass of(String chars, long low, long high, char[] others) {
+        return new CharClass(chars, low, high, others);
+    }
+
+    boolean contains(char c) {
+        if (c<64) return (low & 1L<<c)!=0;
+        if (c<128) return (high & 1L<<(c-64))!=0;
+        return others.length>0 && Arrays.binarySearch(others, c)>=0;
+    }
+
+    /**
+     * @param evaluate String a evaluar.
+     * @return true si el String no es vacío y todos sus caracteres pertenecen al conjunto.
+     */
+    boolean containsOnly(String evaluate) {
+        final int length = evaluate.length();
+        if (length==0) return false;
+        if (length>=VECTOR_THRESHOLD && ranges!=null && KERNEL!=null) return KERNEL.containsOnly(evaluate, ranges);
+        for (int i = 0; i<length; i++) {
+            if (!contains(evaluate.charAt(i))) return false;
+            if ((i & Deadline.CHECK_MASK)==Deadline.CHECK_MASK) Deadline.check();
+        }
+        return true;
+    }
+
+    /**
+     * @param evaluate String a evaluar.
+     * @return true si alguno de los caracteres del String pertenece al conjunto.
+     */
+    boolean containsAny(String evaluate) {
+        final int length = evaluate.length();
+        if (length>=VECTOR_THRESHOLD && ranges!=null && KERNEL!=null) return KERNEL.containsAny(evaluate, ranges);
+        for (int i = 0; i<length; i++) {
+            if (contains(evaluate.charAt(i))) return true;
+            if ((i & Deadline.CHECK_MASK)==Deadline.CHECK_MASK) Deadline.check();
+        }
+        return false;
+    }
+
+    String getChars() {
+        return chars;
+    }
+
+    long getLow() {
+        return low;
+    }
+
+    long getHigh() {
+        return high;
+    }
+
+    char[] getOthers() {
+        return others;
+    }
+
+    char[] getRanges() {
+        return ranges;
+    }
+
+    static boolean isVectorized() {
+        return KERNEL!=null;
+    }
+
+}
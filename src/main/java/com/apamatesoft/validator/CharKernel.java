@@ -0,0 +1,41 @@
+package com.apamatesoft.validator;
+
+/**
+ * Recorrido de un String comparando sus caracteres con un conjunto de rangos. La implementación vectorizada
+ * ({@code VectorCharKernel}) se distribuye en la capa de Java 17 del jar multi-release y usa el módulo
+ * {@code jdk.incubator.vector}; si no está disponible, {@link CharClass} usa su recorrido escalar.
+ */
+interface CharKernel {
+
+    /**
+     * @param evaluate String a evaluar.
+     * @param ranges Pares de caracteres {@code [desde, hasta]} ordenados, todos menores a 0x8000.
+     * @return true si todos los caracteres del String pertenecen a alguno de los rangos.
+     */
+    boolean containsOnly(String evaluate, char[] ranges);
+
+    /**
+     * @param evaluate String a evaluar.
+     * @param ranges Pares de caracteres {@code [desde, hasta]} ordenados, todos menores a 0x8000.
+     * @return true si alguno de los caracteres del String pertenece a alguno de los rangos.
+     */
+    boolean containsAny(String evaluate, char[] ranges);
+
+    /**
+     * Carga la implementación vectorizada, salvo que se desactive con la propiedad {@code -Dvalidator.vector=false}.
+     * @return Implementación vectorizada, o null si la JVM no la admite.
+     */
+    static CharKernel load() {
+        if (!Boolean.parseBoolean(System.getProperty("validator.vector", "true"))) return null;
+        try {
+            final Class<?> type = Class.forName("com.apamatesoft.validator.VectorCharKernel");
+            final CharKernel kernel = (CharKernel) type.getDeclaredConstructor().newInstance();
+            // Fuerza el enlace con jdk.incubator.vector, que falla si el módulo no se agregó al iniciar la JVM.
+            return kernel.containsOnly("0123456789012345678901234567890123456789", new char[] { '0', '9' })
+                    ? kernel : null;
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            return null;
+        }
+    }
+
+}
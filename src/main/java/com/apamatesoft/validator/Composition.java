@@ -0,0 +1,153 @@
+package com.apamatesoft.validator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plan de evaluación de las reglas compuestas {@link Validator#anyOf(Validator...)} y {@link Validator#not(String)}.
+ * <br>
+ * Las reglas de todas las ramas se reúnen en una tabla sin duplicados, y el resultado de cada regla se recuerda durante
+ * una evaluación, por lo que una regla compartida por varias ramas se evalúa una sola vez. Las reglas de contenido
+ * ({@code shouldOnlyContain}, {@code notContain}, {@code mustContainOne}) pendientes se evalúan juntas en un único
+ * recorrido del String.
+ */
+final class Composition {
+
+    // Cantidad de reglas cuyos resultados se recuerdan, una por bit.
+    private static final int MEMO_SIZE = 64;
+
+    private final Rule[] rules;
+    private final int[][] branches;
+    private final Rule[][] branchRules;
+    private final long scans;
+
+    private Composition(List<List<Rule>> branches) {
+        final List<Rule> rules = new ArrayList<>();
+        this.branches = new int[branches.size()][];
+        this.branchRules = new Rule[branches.size()][];
+        for (int i = 0; i<branches.size(); i++) {
+            final List<Rule> branch = branches.get(i);
+            this.branches[i] = new int[branch.size()];
+            this.branchRules[i] = branch.toArray(new Rule[0]);
+            for (int j = 0; j<branch.size(); j++) this.branches[i][j] = indexOf(rules, branch.get(j));
+        }
+        this.rules = rules.toArray(new Rule[0]);
+        long scans = 0;
+        for (int i = 0; i<Math.min(this.rules.length, MEMO_SIZE); i++) {
+            if (isScan(this.rules[i])) scans |= 1L<<i;
+        }
+        this.scans = scans;
+    }
+
+    /**
+     * @param branches Reglas de cada rama, en orden de evaluación.
+     * @return Plan que se cumple si se cumplen todas las reglas de alguna rama.
+     */
+    static Composition of(List<List<Rule>> branches) {
+        return new Composition(branches);
+    }
+
+    private static int indexOf(List<Rule> rules, Rule rule) {
+        for (int i = 0; i<rules.size(); i++) {
+            if (rules.get(i).sameTest(rule)) return i;
+        }
+        rules.add(rule);
+        return rules.size()-1;
+    }
+
+    private static boolean isScan(Rule rule) {
+        return rule.getOp()==Rule.SHOULD_ONLY_CONTAIN || rule.getOp()==Rule.NOT_CONTAIN
+                || rule.getOp()==Rule.MUST_CONTAIN_ONE;
+    }
+
+    /**
+     * @param evaluate String a evaluar.
+     * @return true si se cumplen todas las reglas de alguna rama. Las ramas se evalúan en orden y la evaluación se
+     * detiene en la primera rama que se cumple.
+     */
+    boolean anyOf(String evaluate) {
+        long known = 0, passed = 0;
+        for (int[] branch: branches) {
+            boolean valid = true;
+            for (int index: branch) {
+                final long bit = index<MEMO_SIZE ? 1L<<index : 0;
+                if ((known & bit)==0) {
+                    if ((scans & bit)!=0) {
+                        final long pending = scans & ~known;
+                        passed |= scan(evaluate, pending);
+                        known |= pending;
+                    } else {
+                        if (rules[index].validate(evaluate)) passed |= bit;
+                        else if (bit==0) {
+                            valid = false;
+                            break;
+                        }
+                        known |= bit;
+                    }
+                }
+                if (bit!=0 && (passed & bit)==0) {
+                    valid = false;
+                    break;
+                }
+            }
+            if (valid) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param evaluate String a evaluar.
+     * @return Mensaje de error de la primera regla de la primera rama que no se cumple.
+     */
+    String firstBranchFailMessage(String evaluate) {
+        for (Rule rule: branchRules[0]) {
+            if (!rule.validate(evaluate)) return rule.failMessage(evaluate);
+        }
+        return null;
+    }
+
+    /**
+     * @return Mensaje de la primera regla de la primera rama, reportado al evaluar null.
+     */
+    String firstMessage() {
+        return branchRules.length==0 || branchRules[0].length==0 ? null : branchRules[0][0].getMessage();
+    }
+
+    /**
+     * Evalúa en un único recorrido del String todas las reglas de contenido indicadas.
+     * @param pending Máscara con las reglas a evaluar.
+     * @return Máscara con las reglas que se cumplen.
+     */
+    private long scan(String evaluate, long pending) {
+        long all = pending;
+        long any = 0;
+        final int length = evaluate.length();
+        for (int i = 0; i<length; i++) {
+            final char c = evaluate.charAt(i);
+            if ((i & Deadline.CHECK_MASK)==Deadline.CHECK_MASK) Deadline.check();
+            for (long bits = pending; bits!=0; bits &= bits-1) {
+                final int index = Long.numberOfTrailingZeros(bits);
+                if (rules[index].getChars().contains(c)) any |= 1L<<index;
+                else all &= ~(1L<<index);
+            }
+        }
+        long passed = 0;
+        for (long bits = pending; bits!=0; bits &= bits-1) {
+            final int index = Long.numberOfTrailingZeros(bits);
+            final long bit = 1L<<index;
+            switch (rules[index].getOp()) {
+                case Rule.SHOULD_ONLY_CONTAIN:
+                    if (length>0 && (all & bit)!=0) passed |= bit;
+                    break;
+                case Rule.NOT_CONTAIN:
+                    if (length>0 && (any & bit)==0) passed |= bit;
+                    break;
+                default:
+                    if ((any & bit)!=0) passed |= bit;
+                    break;
+            }
+        }
+        return passed;
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.apamatesoft.validator;
+
+/**
+ * Tiempo límite de la evaluación en curso en cada hilo (ver {@link Validator.Builder#timeBudget(long,
+ * java.util.concurrent.TimeUnit)}).<br>
+ * Los recorridos largos de las reglas predefinidas invocan {@link #check()} cada {@link #CHECK_INTERVAL} caracteres, y
+ * las reglas personalizadas pueden hacerlo con {@link Validator#checkDeadline()}. Si el tiempo límite ya pasó, se
+ * arroja {@link Exceeded}, que el Validator convierte en el resultado de tiempo agotado.
+ */
+final class Deadline {
+
+    static final int CHECK_INTERVAL = 4096;
+    static final int CHECK_MASK = CHECK_INTERVAL-1;
+
+    private static final ThreadLocal<Deadline> CURRENT = ThreadLocal.withInitial(Deadline::new);
+
+    private boolean active;
+    private long deadline;
+
+    private Deadline() { }
+
+    /**
+     * @return Tiempo límite del hilo actual.
+     */
+    static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @throws Exceeded Si hay una evaluación en curso con un tiempo límite que ya pasó.
+     */
+    static void check() {
+        final Deadline current = CURRENT.get();
+        if (current.active && System.nanoTime()-current.deadline>0) throw Exceeded.INSTANCE;
+    }
+
+    /**
+     * @param deadline Tiempo límite, según {@link System#nanoTime()}.
+     * @return El tiempo límite indicado o, si en el hilo actual hay uno activo más cercano, ese.
+     */
+    static long nearest(long deadline) {
+        final Deadline current = CURRENT.get();
+        return current.active && current.deadline-deadline<0 ? current.deadline : deadline;
+    }
+
+    boolean isActive() {
+        return active;
+    }
+
+    long get() {
+        return deadline;
+    }
+
+    /**
+     * Establece el tiempo límite. Si ya hay uno activo (un Validator evaluado dentro de una regla de otro), se conserva
+     * el más cercano.
+     * @param deadline Tiempo límite, según {@link System#nanoTime()}.
+     */
+    void set(long deadline) {
+        this.deadline = active && this.deadline-deadline<0 ? this.deadline : deadline;
+        active = true;
+    }
+
+    void restore(boolean active, long deadline) {
+        this.active = active;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Señal de tiempo agotado. Se reutiliza una única instancia sin traza, ya que solo se usa para abandonar la
+     * evaluación.
+     */
+    static final class Exceeded extends RuntimeException {
+
+        private static final Exceeded INSTANCE = new Exceeded();
+
+        private Exceeded() {
+            super("Validation time budget exceeded", null, false, false);
+        }
+
+    }
+
+}
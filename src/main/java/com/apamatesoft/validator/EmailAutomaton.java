@@ -0,0 +1,93 @@
+package com.apamatesoft.validator;
+
+/**
+ * Autómata finito determinista equivalente a la expresión regular
+ * {@link com.apamatesoft.validator.constants.Constants#EMAIL_RE}, para evaluar un email carácter a carácter.<br>
+ * Estados:
+ * <pre>
+ * 0  inicio                           6  punto del dominio
+ * 1  parte local                      7  etiqueta final del dominio (acepta)
+ * 2  punto de la parte local          8  guion en una etiqueta final
+ * 3  arroba                           9  terminador de línea final (acepta)
+ * 4  primera etiqueta del dominio     10 retorno de carro final (acepta)
+ * 5  guion en la primera etiqueta
+ * </pre>
+ * Al igual que {@code $} en la expresión regular, se acepta un único terminador de línea al final.
+ */
+final class EmailAutomaton {
+
+    static final int START = 0;
+    static final int DEAD = -1;
+
+    private EmailAutomaton() { }
+
+    /**
+     * @param state Estado actual.
+     * @param c Carácter leído.
+     * @return Estado siguiente, o {@link #DEAD} si ninguna continuación puede ser un email.
+     */
+    static int next(int state, char c) {
+        switch (state) {
+            case 0:
+            case 2:
+                return isLocal(c) ? 1 : DEAD;
+            case 1:
+                if (isLocal(c)) return 1;
+                if (c=='.') return 2;
+                return c=='@' ? 3 : DEAD;
+            case 3:
+            case 6:
+                return isAlphanumeric(c) ? state+1 : DEAD;
+            case 4:
+            case 7:
+                if (isAlphanumeric(c)) return state;
+                if (c=='-') return state+1;
+                if (c=='.') return 6;
+                if (state==4) return DEAD;
+                if (c=='\r') return 10;
+                return isLineTerminator(c) ? 9 : DEAD;
+            case 5:
+            case 8:
+                if (isAlphanumeric(c)) return state-1;
+                return c=='-' ? state : DEAD;
+            case 10:
+                return c=='\n' ? 9 : DEAD;
+            default:
+                return DEAD;
+        }
+    }
+
+    static boolean isAccepting(int state) {
+        return state==7 || state==9 || state==10;
+    }
+
+    /**
+     * @param evaluate Texto a evaluar.
+     * @return true si el texto tiene formato de email.
+     */
+    static boolean matches(CharSequence evaluate) {
+        int state = START;
+        for (int i = 0; i<evaluate.length() && state!=DEAD; i++) state = next(state, evaluate.charAt(i));
+        return isAccepting(state);
+    }
+
+    private static boolean isAlphanumeric(char c) {
+        return c>='a' && c<='z' || c>='0' && c<='9';
+    }
+
+    private static boolean isLocal(char c) {
+        if (isAlphanumeric(c)) return true;
+        switch (c) {
+            case '!': case '#': case '$': case '%': case '&': case '\'': case '*': case '+': case '/': case '=':
+            case '?': case '^': case '_': case '`': case '{': case '|': case '}': case '~': case '-':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c=='\n' || c=='\u0085' || c=='\u2028' || c=='\u2029';
+    }
+
+}
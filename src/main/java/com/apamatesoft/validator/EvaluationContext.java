@@ -0,0 +1,188 @@
+package com.apamatesoft.validator;
+
+import java.lang.ref.WeakReference;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * <h1>EvaluationContext</h1>
+ *
+ * Propiedades derivadas del String a evaluar, compartidas por las reglas declaradas con
+ * {@link Validator#contextRule(String, com.apamatesoft.validator.functions.ContextValidate)}. Cada propiedad se calcula
+ * la primera vez que se consulta y se reutiliza en las reglas siguientes.<br>
+ * Cada hilo reutiliza un contexto por nivel de anidamiento: un Validator evaluado dentro de una regla de contexto usa
+ * un contexto propio y no altera el de la regla que lo invoca. Entre evaluaciones el hilo conserva el contexto solo con
+ * una referencia débil, por lo que el último String evaluado no queda retenido. El contexto no debe conservarse ni
+ * compartirse fuera de la regla que lo recibe.
+ */
+public final class EvaluationContext {
+
+    private static final ThreadLocal<Levels> LEVELS = ThreadLocal.withInitial(Levels::new);
+
+    // Cantidad de categorías de Character.getType, de 0 a 30.
+    private static final int CATEGORIES = 31;
+
+    private final int[] categories = new int[CATEGORIES];
+    private String value;
+    private int codePointCount;
+    private int whitespaceCount;
+    private boolean scanned;
+    private String trimmed;
+    private String lowerCase;
+    private String normalized;
+
+    private EvaluationContext() { }
+
+    /**
+     * Inicia la invocación de una regla de contexto; debe terminarse con {@link #exit()}.
+     * @param value String a evaluar.
+     * @return Contexto del hilo actual para el String, en el nivel de anidamiento actual. Como los Strings son
+     * inmutables, las propiedades ya calculadas se conservan mientras se evalúe el mismo String.
+     */
+    static EvaluationContext enter(String value) {
+        final EvaluationContext context = LEVELS.get().enter();
+        if (context.value!=value) context.reset(value);
+        return context;
+    }
+
+    /**
+     * Termina la invocación de una regla de contexto iniciada con {@link #enter(String)}.
+     */
+    static void exit() {
+        LEVELS.get().depth--;
+    }
+
+    private void reset(String value) {
+        this.value = value;
+        scanned = false;
+        trimmed = null;
+        lowerCase = null;
+        normalized = null;
+    }
+
+    /**
+     * @return String a evaluar.
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * @return Cantidad de caracteres UTF-16 del String.
+     */
+    public int length() {
+        return value.length();
+    }
+
+    /**
+     * @return Cantidad de caracteres Unicode (code points) del String.
+     */
+    public int codePointCount() {
+        scan();
+        return codePointCount;
+    }
+
+    /**
+     * @param category Categoría Unicode, según las constantes de {@link Character#getType(int)} (por ejemplo,
+     *                 {@link Character#UPPERCASE_LETTER}).
+     * @return Cantidad de caracteres de la categoría.
+     */
+    public int count(int category) {
+        if (category<0 || category>=CATEGORIES) return 0;
+        scan();
+        return categories[category];
+    }
+
+    /**
+     * @return Cantidad de letras.
+     */
+    public int letterCount() {
+        return count(Character.UPPERCASE_LETTER)+count(Character.LOWERCASE_LETTER)+count(Character.TITLECASE_LETTER)
+                +count(Character.MODIFIER_LETTER)+count(Character.OTHER_LETTER);
+    }
+
+    /**
+     * @return Cantidad de dígitos decimales.
+     */
+    public int digitCount() {
+        return count(Character.DECIMAL_DIGIT_NUMBER);
+    }
+
+    /**
+     * @return Cantidad de espacios en blanco, según {@link Character#isWhitespace(int)}.
+     */
+    public int whitespaceCount() {
+        scan();
+        return whitespaceCount;
+    }
+
+    /**
+     * @return String sin espacios al inicio ni al final.
+     */
+    public String trimmed() {
+        if (trimmed==null) trimmed = value.trim();
+        return trimmed;
+    }
+
+    /**
+     * @return String en minúsculas, independiente de la configuración regional.
+     */
+    public String lowerCase() {
+        if (lowerCase==null) lowerCase = value.toLowerCase(Locale.ROOT);
+        return lowerCase;
+    }
+
+    /**
+     * @return String en forma normalizada NFC, en la que los caracteres acentuados se representan con un único code
+     * point.
+     */
+    public String normalized() {
+        if (normalized==null) normalized = Normalizer.normalize(value, Normalizer.Form.NFC);
+        return normalized;
+    }
+
+    /**
+     * Recorre el String una sola vez para calcular la cantidad de code points y el histograma de categorías.
+     */
+    private void scan() {
+        if (scanned) return;
+        for (int i = 0; i<CATEGORIES; i++) categories[i] = 0;
+        int codePoints = 0, whitespaces = 0;
+        for (int i = 0; i<value.length(); ) {
+            final int codePoint = value.codePointAt(i);
+            categories[Character.getType(codePoint)]++;
+            if (Character.isWhitespace(codePoint)) whitespaces++;
+            codePoints++;
+            i += Character.charCount(codePoint);
+        }
+        codePointCount = codePoints;
+        whitespaceCount = whitespaces;
+        scanned = true;
+    }
+
+    /**
+     * Contextos de un hilo, uno por nivel de anidamiento. Solo la regla en ejecución mantiene una referencia fuerte a
+     * su contexto.
+     */
+    private static final class Levels {
+
+        @SuppressWarnings("unchecked")
+        private WeakReference<EvaluationContext>[] contexts = new WeakReference[2];
+        private int depth;
+
+        private EvaluationContext enter() {
+            if (depth==contexts.length) contexts = Arrays.copyOf(contexts, depth*2);
+            final WeakReference<EvaluationContext> reference = contexts[depth];
+            EvaluationContext context = reference==null ? null : reference.get();
+            if (context==null) {
+                context = new EvaluationContext();
+                contexts[depth] = new WeakReference<>(context);
+            }
+            depth++;
+            return context;
+        }
+
+    }
+
+}
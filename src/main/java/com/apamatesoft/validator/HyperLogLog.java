@@ -0,0 +1,80 @@
+package com.apamatesoft.validator;
+
+/**
+ * Estimador HyperLogLog de la cantidad de Strings distintos, con memoria fija de {@code 2^precision} bytes.<br>
+ * Cada String se reduce a un hash de 64 bits: los primeros {@code precision} bits eligen un registro, y el registro
+ * guarda la mayor posición del primer bit en 1 del resto. El error relativo típico es {@code 1.04/sqrt(2^precision)}
+ * (alrededor de 1.6 % con la precisión 12). Dos estimadores con la misma precisión se combinan tomando el máximo de
+ * cada registro.
+ */
+final class HyperLogLog {
+
+    static final int MIN_PRECISION = 4;
+    static final int MAX_PRECISION = 18;
+
+    private final int precision;
+    private final byte[] registers;
+
+    HyperLogLog(int precision) {
+        if (precision<MIN_PRECISION || precision>MAX_PRECISION)
+            throw new IllegalArgumentException("precision must be between "+MIN_PRECISION+" and "+MAX_PRECISION);
+        this.precision = precision;
+        this.registers = new byte[1<<precision];
+    }
+
+    void add(String value) {
+        final long hash = hash(value);
+        final int index = (int) (hash>>>(64-precision));
+        // Bit centinela para que el resto nunca sea 0.
+        final long rest = hash<<precision | 1L<<(precision-1);
+        final byte rank = (byte) (Long.numberOfLeadingZeros(rest)+1);
+        if (rank>registers[index]) registers[index] = rank;
+    }
+
+    void merge(HyperLogLog other) {
+        if (other.precision!=precision) throw new IllegalArgumentException("Different precision");
+        for (int i = 0; i<registers.length; i++) {
+            if (other.registers[i]>registers[i]) registers[i] = other.registers[i];
+        }
+    }
+
+    int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * @return Cantidad estimada de Strings distintos. Con pocos valores se usa el conteo lineal de registros vacíos,
+     * que es más preciso en ese rango.
+     */
+    long estimate() {
+        final int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register: registers) {
+            sum += 1.0/(1L<<register);
+            if (register==0) zeros++;
+        }
+        final double alpha = m==16 ? 0.673 : m==32 ? 0.697 : m==64 ? 0.709 : 0.7213/(1+1.079/m);
+        final double estimate = alpha*m*m/sum;
+        if (estimate<=2.5*m && zeros>0) return Math.round(m*Math.log((double) m/zeros));
+        return Math.round(estimate);
+    }
+
+    /**
+     * FNV-1a de 64 bits sobre las unidades UTF-16, con la mezcla final de MurmurHash3 para distribuir los bits altos.
+     */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i<value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash>>>33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash>>>33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash>>>33;
+        return hash;
+    }
+
+}
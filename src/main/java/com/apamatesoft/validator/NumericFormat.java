@@ -0,0 +1,100 @@
+package com.apamatesoft.validator;
+
+/**
+ * Reconocedor del formato numérico de {@link Double#parseDouble(String)}, sin convertir el texto ni crear excepciones.
+ * <br>
+ * Acepta los mismos textos que {@code parseDouble} salvo {@code NaN}: espacios y caracteres de control al inicio y al
+ * final, un signo opcional, y luego {@code Infinity}, un número decimal ({@code 1}, {@code .5}, {@code 1.}, con
+ * exponente {@code e}/{@code E} opcional) o un número hexadecimal ({@code 0x1.8p3}, con exponente binario obligatorio),
+ * seguidos de un sufijo {@code f}, {@code F}, {@code d} o {@code D} opcional.
+ */
+final class NumericFormat {
+
+    private static final String INFINITY = "Infinity";
+
+    private NumericFormat() { }
+
+    /**
+     * @param evaluate Texto a evaluar.
+     * @return true si {@link Double#parseDouble(String)} lo convierte en un número distinto de {@code NaN}.
+     */
+    static boolean matches(CharSequence evaluate) {
+        int start = 0;
+        int end = evaluate.length();
+        while (start<end && evaluate.charAt(start)<=' ') start++;
+        while (end>start && evaluate.charAt(end-1)<=' ') end--;
+        if (start<end && (evaluate.charAt(start)=='+' || evaluate.charAt(start)=='-')) start++;
+        if (start==end) return false;
+        final char first = evaluate.charAt(start);
+        if (first=='I') return isInfinity(evaluate, start, end);
+        if (first=='0' && start+1<end && (evaluate.charAt(start+1) | 0x20)=='x') return isHex(evaluate, start+2, end);
+        return isDecimal(evaluate, start, end);
+    }
+
+    private static boolean isInfinity(CharSequence evaluate, int start, int end) {
+        if (end-start!=INFINITY.length()) return false;
+        for (int i = 0; i<INFINITY.length(); i++) {
+            if (evaluate.charAt(start+i)!=INFINITY.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isDecimal(CharSequence evaluate, int start, int end) {
+        int i = mantissa(evaluate, start, end, false);
+        if (i<0) return false;
+        if (i<end && (evaluate.charAt(i) | 0x20)=='e') {
+            i = exponent(evaluate, i+1, end);
+            if (i<0) return false;
+        }
+        return isSuffix(evaluate, i, end);
+    }
+
+    private static boolean isHex(CharSequence evaluate, int start, int end) {
+        int i = mantissa(evaluate, start, end, true);
+        if (i<0 || i==end || (evaluate.charAt(i) | 0x20)!='p') return false;
+        i = exponent(evaluate, i+1, end);
+        return i>=0 && isSuffix(evaluate, i, end);
+    }
+
+    /**
+     * @return Posición siguiente a la mantisa (dígitos con a lo sumo un punto), o -1 si no tiene dígitos.
+     */
+    private static int mantissa(CharSequence evaluate, int start, int end, boolean hex) {
+        boolean digits = false;
+        boolean point = false;
+        int i = start;
+        for (; i<end; i++) {
+            final char c = evaluate.charAt(i);
+            if (isDigit(c) || hex && isHexLetter(c)) digits = true;
+            else if (c=='.' && !point) point = true;
+            else break;
+        }
+        return digits ? i : -1;
+    }
+
+    /**
+     * @return Posición siguiente al exponente (signo opcional y dígitos decimales), o -1 si no tiene dígitos.
+     */
+    private static int exponent(CharSequence evaluate, int start, int end) {
+        int i = start;
+        if (i<end && (evaluate.charAt(i)=='+' || evaluate.charAt(i)=='-')) i++;
+        final int digits = i;
+        while (i<end && isDigit(evaluate.charAt(i))) i++;
+        return i==digits ? -1 : i;
+    }
+
+    private static boolean isSuffix(CharSequence evaluate, int index, int end) {
+        if (index==end) return true;
+        final int c = evaluate.charAt(index) | 0x20;
+        return index==end-1 && (c=='f' || c=='d');
+    }
+
+    private static boolean isDigit(char c) {
+        return c>='0' && c<='9';
+    }
+
+    private static boolean isHexLetter(char c) {
+        return c>='a' && c<='f' || c>='A' && c<='F';
+    }
+
+}
@@ -0,0 +1,373 @@
+package com.apamatesoft.validator;
+
+import com.apamatesoft.validator.exceptions.InvalidEvaluationException;
+import com.apamatesoft.validator.functions.FieldNotPass;
+import com.apamatesoft.validator.functions.ObjectValidate;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * <h1>ObjectValidator</h1>
+ *
+ * Valida los campos de un objeto, asignando un {@link Validator} a cada campo, junto con reglas que involucran varios
+ * campos, como la confirmación de una contraseña.<br>
+ * Los getters se resuelven una sola vez al construir el ObjectValidator, generando funciones con
+ * {@link LambdaMetafactory}, por lo que la validación no usa reflexión.
+ *
+ * @param <T> Tipo del objeto a validar.
+ */
+public class ObjectValidator<T> {
+
+    private static final int DEFAULT_PARALLEL_THRESHOLD = 32;
+
+    private final List<FieldRule<T>> fields;
+    private final List<CrossRule<T>> crossRules;
+    private final int parallelThreshold;
+    private final Executor executor;
+    private FieldNotPass notPass;
+
+    private ObjectValidator(Builder<T> builder) {
+        fields = new ArrayList<>(builder.fields);
+        crossRules = new ArrayList<>(builder.crossRules);
+        parallelThreshold = builder.parallelThreshold;
+        executor = builder.executor;
+        notPass = builder.notPass;
+    }
+
+    /**
+     * Valida que cada campo del objeto cumpla las reglas de su Validator y que el objeto cumpla las reglas entre
+     * campos.<br>
+     * <b>Nota:</b> Por cada campo que no cumpla alguna regla, se invocara al evento {@link #onNotPass(FieldNotPass)}
+     * con el nombre del campo y el mensaje del error correspondiente.
+     * @param evaluate Objeto a evaluar.
+     * @return true: si pasa la validación.
+     */
+    public boolean isValid(T evaluate) {
+        final String[] messages = failMessages(evaluate);
+        boolean valid = true;
+        for (int i = 0; i<messages.length; i++) {
+            if (messages[i]==null) continue;
+            valid = false;
+            if (notPass!=null) notPass.invoke(fieldName(i), messages[i]);
+        }
+        return valid;
+    }
+
+    /**
+     * Valida que cada campo del objeto cumpla las reglas de su Validator y que el objeto cumpla las reglas entre
+     * campos.
+     * @param evaluate Objeto a evaluar.
+     * @throws InvalidEvaluationException Excepción arrojada con el primer campo, en orden de declaración, que no
+     * cumple alguna regla.
+     */
+    public void isValidOrFail(T evaluate) throws InvalidEvaluationException {
+        final String[] messages = failMessages(evaluate);
+        for (int i = 0; i<messages.length; i++) {
+            if (messages[i]!=null)
+                throw new InvalidEvaluationException(messages[i], i<fields.size() ? fields.get(i).get(evaluate) : null);
+        }
+    }
+
+    /**
+     * Evento que se invoca al no cumplirse alguna regla.
+     * @param notPass Función con el nombre del campo y el mensaje de error.
+     */
+    public void onNotPass(FieldNotPass notPass) {
+        this.notPass = notPass;
+    }
+
+    private String[] failMessages(T evaluate) {
+        Objects.requireNonNull(evaluate, "evaluate");
+        final String[] messages = new String[fields.size()+crossRules.size()];
+        if (fields.size()>=parallelThreshold) {
+            final CompletableFuture<?>[] futures = new CompletableFuture[fields.size()];
+            for (int i = 0; i<fields.size(); i++) {
+                final int index = i;
+                futures[i] = CompletableFuture.runAsync(
+                        () -> messages[index] = fields.get(index).failMessage(evaluate), executor);
+            }
+            CompletableFuture.allOf(futures).join();
+        } else {
+            for (int i = 0; i<fields.size(); i++) messages[i] = fields.get(i).failMessage(evaluate);
+        }
+        for (int i = 0; i<crossRules.size(); i++) {
+            final CrossRule<T> rule = crossRules.get(i);
+            if (!rule.validate.invoke(evaluate)) messages[fields.size()+i] = rule.message;
+        }
+        return messages;
+    }
+
+    private String fieldName(int index) {
+        return index<fields.size() ? fields.get(index).name : crossRules.get(index-fields.size()).field;
+    }
+
+    private static class FieldRule<T> {
+
+        private final String name;
+        private final Function<T, String> getter;
+        private final Validator validator;
+
+        private FieldRule(String name, Function<T, String> getter, Validator validator) {
+            this.name = name;
+            this.getter = getter;
+            this.validator = validator;
+        }
+
+        private String get(T evaluate) {
+            return getter.apply(evaluate);
+        }
+
+        private String failMessage(T evaluate) {
+            return validator.failMessage(get(evaluate));
+        }
+
+    }
+
+    private static class CrossRule<T> {
+
+        private final String field;
+        private final String message;
+        private final ObjectValidate<T> validate;
+
+        private CrossRule(String field, String message, ObjectValidate<T> validate) {
+            this.field = field;
+            this.message = message;
+            this.validate = validate;
+        }
+
+    }
+
+    /**
+     * Clase que permite construir un ObjectValidator de forma secuencial y centralizada.
+     *
+     * @param <T> Tipo del objeto a validar.
+     */
+    public static class Builder<T> {
+
+        private final Class<T> type;
+        private final List<FieldRule<T>> fields = new ArrayList<>();
+        private final List<CrossRule<T>> crossRules = new ArrayList<>();
+        private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+        private Executor executor = ForkJoinPool.commonPool();
+        private FieldNotPass notPass;
+
+        /**
+         * @param type Clase del objeto a validar.
+         */
+        public Builder(Class<T> type) {
+            this.type = type;
+        }
+
+        /**
+         * Asigna un Validator al campo. El valor del campo se obtiene de su getter público ({@code getName()},
+         * {@code isName()} o {@code name()}) o, en su defecto, del campo público con ese nombre. Los valores que no son
+         * String se convierten con {@code toString()}.
+         * @param name Nombre del campo.
+         * @param validator Validator del campo.
+         * @return Builder
+         */
+        public Builder<T> field(String name, Validator validator) {
+            return field(name, accessor(type, name), validator);
+        }
+
+        /**
+         * Asigna un Validator al campo, obteniendo su valor con la función indicada.
+         * <br><br>
+         * <b>Ejemplo:<b/><br>
+         * <code>
+         * <pre>
+         * new ObjectValidator.Builder&lt;&gt;(SignUp.class).field("email", SignUp::getEmail, Validators.email);
+         * </pre>
+         * </code>
+         *
+         * @param name Nombre del campo.
+         * @param getter Función que retorna el valor del campo.
+         * @param validator Validator del campo.
+         * @return Builder
+         */
+        public Builder<T> field(String name, Function<T, String> getter, Validator validator) {
+            fields.add(new FieldRule<>(name, getter, validator));
+            return this;
+        }
+
+        /**
+         * Crea una regla que involucra varios campos del objeto.
+         * @param field Nombre del campo al cual se asocia el error.
+         * @param message Mensaje de error.
+         * @param validate Función que retorna true cuando el objeto a evaluar cumpla las condiciones.
+         * @return Builder
+         */
+        public Builder<T> rule(String field, String message, ObjectValidate<T> validate) {
+            crossRules.add(new CrossRule<>(field, message, validate));
+            return this;
+        }
+
+        /**
+         * Valida que ambos campos coincidan, como en {@link Validator#compare(String, String)}. El error se asocia al
+         * campo de confirmación, con el mensaje establecido en el Validator del campo a comparar.
+         * @param field Nombre del campo, previamente declarado con {@link #field(String, Validator)}.
+         * @param confirmation Nombre del campo de confirmación.
+         * @return Builder
+         */
+        public Builder<T> compare(String field, String confirmation) {
+            final FieldRule<T> rule = fieldRule(field);
+            return compare(field, confirmation, rule.validator.getNotMatchMessage());
+        }
+
+        /**
+         * Valida que ambos campos coincidan, como en {@link Validator#compare(String, String)}.
+         * @param field Nombre del campo, previamente declarado con {@link #field(String, Validator)}.
+         * @param confirmation Nombre del campo de confirmación.
+         * @param message Mensaje de error.
+         * @return Builder
+         */
+        public Builder<T> compare(String field, String confirmation, String message) {
+            final Function<T, String> first = fieldRule(field).getter;
+            final Function<T, String> second = accessor(type, confirmation);
+            return rule(confirmation, message, it -> {
+                final String value = first.apply(it);
+                return value!=null && value.equals(second.apply(it));
+            });
+        }
+
+        /**
+         * Establece la cantidad mínima de campos a partir de la cual se evalúan en paralelo.
+         * @param parallelThreshold Cantidad mínima de campos.
+         * @return Builder
+         */
+        public Builder<T> parallelThreshold(int parallelThreshold) {
+            this.parallelThreshold = parallelThreshold;
+            return this;
+        }
+
+        /**
+         * Establece el executor donde se evalúan los campos en paralelo. Por defecto
+         * {@link ForkJoinPool#commonPool()}.
+         * @param executor Executor.
+         * @return Builder
+         */
+        public Builder<T> executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Evento que se invoca al no cumplirse alguna regla.
+         * @param notPass Función con el nombre del campo y el mensaje de error.
+         * @return Builder
+         */
+        public Builder<T> notPass(FieldNotPass notPass) {
+            this.notPass = notPass;
+            return this;
+        }
+
+        /**
+         * Construye el ObjectValidator
+         * @return ObjectValidator
+         */
+        public ObjectValidator<T> build() {
+            return new ObjectValidator<>(this);
+        }
+
+        private FieldRule<T> fieldRule(String name) {
+            for (FieldRule<T> rule: fields) {
+                if (rule.name.equals(name)) return rule;
+            }
+            throw new IllegalArgumentException("Field not declared: "+name);
+        }
+
+    }
+
+    /**
+     * Genera una función que retorna el valor del campo como String.
+     * @param type Clase del objeto.
+     * @param name Nombre del campo.
+     * @return Función de acceso al campo.
+     */
+    static <T> Function<T, String> accessor(Class<T> type, String name) {
+        final Method getter = getter(type, name);
+        if (getter!=null) {
+            final Function<T, Object> function = lambda(getter);
+            if (function!=null && getter.getReturnType()==String.class) return cast(function);
+            if (function!=null) return asString(function);
+        }
+        try {
+            final MethodHandle handle;
+            if (getter!=null) {
+                getter.setAccessible(true);
+                handle = MethodHandles.lookup().unreflect(getter);
+            } else {
+                final Field field = type.getField(name);
+                if (Modifier.isStatic(field.getModifiers())) throw new NoSuchFieldException(name);
+                handle = MethodHandles.lookup().unreflectGetter(field);
+            }
+            final MethodHandle generic = handle.asType(MethodType.methodType(Object.class, Object.class));
+            return asString(it -> {
+                try {
+                    return generic.invokeExact((Object) it);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } catch (ReflectiveOperationException | SecurityException e) {
+            throw new IllegalArgumentException("No accessible getter or field '"+name+"' in "+type.getName(), e);
+        }
+    }
+
+    private static Method getter(Class<?> type, String name) {
+        final String capitalized = Character.toUpperCase(name.charAt(0))+name.substring(1);
+        for (String candidate: new String[] { "get"+capitalized, "is"+capitalized, name }) {
+            try {
+                final Method method = type.getMethod(candidate);
+                if (!Modifier.isStatic(method.getModifiers()) && method.getReturnType()!=void.class) return method;
+            } catch (NoSuchMethodException ignored) { }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Function<T, Object> lambda(Method getter) {
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            final MethodHandle handle = lookup.unreflect(getter);
+            final CallSite site = LambdaMetafactory.metafactory(
+                    lookup,
+                    "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    handle,
+                    handle.type().wrap().changeParameterType(0, getter.getDeclaringClass()));
+            return (Function<T, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Function<T, String> cast(Function<T, Object> function) {
+        return (Function<T, String>) (Function<T, ?>) function;
+    }
+
+    private static <T> Function<T, String> asString(Function<T, Object> function) {
+        return it -> {
+            final Object value = function.apply(it);
+            return value==null || value instanceof String ? (String) value : value.toString();
+        };
+    }
+
+}
@@ -1,23 +1,294 @@
 package com.apamatesoft.validator;
 
+import com.apamatesoft.validator.functions.ContextValidate;
 import com.apamatesoft.validator.functions.Validate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Regla de validación. Las reglas predefinidas se describen con un código de operación y sus operandos (longitud o
+ * conjunto de caracteres), y se evalúan en {@link #validate(String)} con un único {@code switch}; solo las reglas
+ * declaradas con {@link Validator#rule(String, Validate)} invocan una función {@link Validate}.<br>
+ * Las reglas predefinidas son inmutables y se comparten entre los Validators que las declaran con el mismo mensaje.
+ */
 public class Rule {
 
+    static final int CUSTOM = 0;
+    static final int REQUIRED = 1;
+    static final int LENGTH = 2;
+    static final int MIN_LENGTH = 3;
+    static final int MAX_LENGTH = 4;
+    static final int EMAIL = 5;
+    static final int NUMERIC_FORMAT = 6;
+    static final int SHOULD_ONLY_CONTAIN = 7;
+    static final int NOT_CONTAIN = 8;
+    static final int MUST_CONTAIN_ONE = 9;
+    static final int ANY_OF = 10;
+    static final int NOT = 11;
+
+    // Límite de reglas compartidas, para que condiciones o mensajes generados dinámicamente no crezcan sin control.
+    private static final int MAX_INTERNED = 4096;
+    private static final Map<Key, Rule> INTERNED = new ConcurrentHashMap<>();
+
     private final String message;
+    private final int op;
+    private final int length;
+    private final CharClass chars;
     private final Validate validate;
+    private final Composition composition;
 
     public Rule(String message, Validate validate) {
-        this.validate = validate;
+        this(message, CUSTOM, 0, null, validate);
+    }
+
+    private Rule(String message, int op, int length, CharClass chars, Validate validate) {
+        this(message, op, length, chars, validate, null);
+    }
+
+    private Rule(String message, int op, int length, CharClass chars, Validate validate, Composition composition) {
         this.message = message;
+        this.op = op;
+        this.length = length;
+        this.chars = chars;
+        this.validate = validate;
+        this.composition = composition;
+    }
+
+    /**
+     * Crea una regla predefinida a partir de su código de operación y sus operandos ya construidos.
+     */
+    static Rule of(String message, int op, int length, CharClass chars) {
+        if (op<=CUSTOM || op>MUST_CONTAIN_ONE) throw new IllegalArgumentException("Unknown rule op: "+op);
+        if (op>=SHOULD_ONLY_CONTAIN && chars==null) throw new IllegalArgumentException("Missing chars for op: "+op);
+        return new Rule(message, op, length, chars, null);
+    }
+
+    //<editor-fold desc="BUILT-IN RULES">
+    // Las reglas con condición reciben la plantilla del mensaje y la formatean con String.format.
+    static Rule required(String message) {
+        return intern(REQUIRED, 0, null, message);
+    }
+
+    static Rule length(String message, int condition) {
+        return intern(LENGTH, condition, null, message);
+    }
+
+    static Rule minLength(String message, int condition) {
+        return intern(MIN_LENGTH, condition, null, message);
+    }
+
+    static Rule maxLength(String message, int condition) {
+        return intern(MAX_LENGTH, condition, null, message);
     }
 
+    static Rule email(String message) {
+        return intern(EMAIL, 0, null, message);
+    }
+
+    static Rule numericFormat(String message) {
+        return intern(NUMERIC_FORMAT, 0, null, message);
+    }
+
+    static Rule shouldOnlyContain(String message, String condition) {
+        return intern(SHOULD_ONLY_CONTAIN, 0, condition, message);
+    }
+
+    static Rule notContain(String message, String condition) {
+        return intern(NOT_CONTAIN, 0, condition, message);
+    }
+
+    static Rule mustContainOne(String message, String condition) {
+        return intern(MUST_CONTAIN_ONE, 0, condition, message);
+    }
+
+    /**
+     * Retorna la instancia compartida de la regla predefinida, creándola si no existe. Como las reglas predefinidas son
+     * inmutables, los Validators que declaran la misma regla con el mismo mensaje comparten una sola instancia, con su
+     * mensaje ya formateado y su conjunto de caracteres.
+     */
+    private static Rule intern(int op, int length, String condition, String template) {
+        final Key key = new Key(op, length, condition, template);
+        final Rule rule = INTERNED.get(key);
+        if (rule!=null) return rule;
+        final Rule created = create(key);
+        if (INTERNED.size()>=MAX_INTERNED) return created;
+        final Rule previous = INTERNED.putIfAbsent(key, created);
+        return previous!=null ? previous : created;
+    }
+
+    private static Rule create(Key key) {
+        switch (key.op) {
+            case LENGTH:
+            case MIN_LENGTH:
+            case MAX_LENGTH:
+                return new Rule(String.format(key.template, key.length), key.op, key.length, null, null);
+            case SHOULD_ONLY_CONTAIN:
+            case NOT_CONTAIN:
+            case MUST_CONTAIN_ONE:
+                return new Rule(String.format(key.template, key.condition), key.op, 0, CharClass.of(key.condition),
+                        null);
+            default:
+                return new Rule(key.template, key.op, 0, null, null);
+        }
+    }
+
+    /**
+     * @param message Mensaje de error.
+     * @param validate Función que recibe el contexto de la evaluación (ver {@link EvaluationContext}).
+     * @return Regla personalizada.
+     */
+    static Rule context(String message, ContextValidate validate) {
+        return new Rule(message, evaluate -> {
+            final EvaluationContext context = EvaluationContext.enter(evaluate);
+            try {
+                return validate.invoke(context);
+            } finally {
+                EvaluationContext.exit();
+            }
+        });
+    }
+
+    /**
+     * @param branches Reglas de cada rama.
+     * @return Regla que se cumple si se cumplen todas las reglas de alguna rama.
+     */
+    static Rule anyOf(List<List<Rule>> branches) {
+        final Composition composition = Composition.of(branches);
+        return new Rule(composition.firstMessage(), ANY_OF, 0, null, null, composition);
+    }
+
+    /**
+     * @param message Mensaje de error.
+     * @param rules Reglas a negar.
+     * @return Regla que se cumple si no se cumple alguna de las reglas.
+     */
+    static Rule not(String message, List<Rule> rules) {
+        return new Rule(message, NOT, 0, null, null, Composition.of(Collections.singletonList(rules)));
+    }
+
+    static int internedCount() {
+        return INTERNED.size();
+    }
+    //</editor-fold>
+
     public boolean validate(String evaluate) {
-        return validate.invoke(evaluate);
+        switch (op) {
+            case REQUIRED: return isRequired(evaluate);
+            case LENGTH: return evaluate.length()==length;
+            case MIN_LENGTH: return evaluate.length()>=length;
+            case MAX_LENGTH: return evaluate.length()<=length;
+            case EMAIL: return isEmail(evaluate);
+            case NUMERIC_FORMAT: return isNumeric(evaluate);
+            case SHOULD_ONLY_CONTAIN: return chars.containsOnly(evaluate);
+            case NOT_CONTAIN: return !evaluate.isEmpty() && !chars.containsAny(evaluate);
+            case MUST_CONTAIN_ONE: return chars.containsAny(evaluate);
+            case ANY_OF: return composition.anyOf(evaluate);
+            case NOT: return !composition.anyOf(evaluate);
+            default: return validate.invoke(evaluate);
+        }
     }
 
     public String getMessage() {
         return message;
     }
 
-}
\ No newline at end of file
+    /**
+     * @param evaluate String que no cumple la regla.
+     * @return Mensaje de error de la regla. En {@link #ANY_OF} es el mensaje de la primera rama.
+     */
+    String failMessage(String evaluate) {
+        return op==ANY_OF ? composition.firstBranchFailMessage(evaluate) : message;
+    }
+
+    /**
+     * @param other Otra regla.
+     * @return true si ambas reglas evalúan la misma condición, sin importar su mensaje.
+     */
+    boolean sameTest(Rule other) {
+        if (this==other) return true;
+        if (op!=other.op || op==ANY_OF || op==NOT) return false;
+        if (op==CUSTOM) return validate==other.validate;
+        return length==other.length && (chars==null ? other.chars==null
+                : other.chars!=null && chars.getChars().equals(other.chars.getChars()));
+    }
+
+    int getOp() {
+        return op;
+    }
+
+    int getLength() {
+        return length;
+    }
+
+    CharClass getChars() {
+        return chars;
+    }
+
+    Validate getValidate() {
+        return validate;
+    }
+
+    static boolean isRequired(String evaluate) {
+        return evaluate!=null && !evaluate.isEmpty();
+    }
+
+    /**
+     * Evalúa {@link com.apamatesoft.validator.constants.Constants#EMAIL_RE} con un autómata, sin crear un
+     * {@link java.util.regex.Matcher} por evaluación.
+     */
+    static boolean isEmail(String evaluate) {
+        return EmailAutomaton.matches(evaluate);
+    }
+
+    static boolean isEmail(CharSequence evaluate) {
+        return EmailAutomaton.matches(evaluate);
+    }
+
+    /**
+     * Reconoce el formato de {@link Double#parseDouble(String)} sin convertir el texto ni crear excepciones.
+     */
+    static boolean isNumeric(String evaluate) {
+        return NumericFormat.matches(evaluate);
+    }
+
+    static boolean isNumeric(CharSequence evaluate) {
+        return NumericFormat.matches(evaluate);
+    }
+
+    /**
+     * Identifica una regla predefinida por su código de operación, sus operandos y la plantilla de su mensaje.
+     */
+    private static final class Key {
+
+        private final int op;
+        private final int length;
+        private final String condition;
+        private final String template;
+
+        private Key(int op, int length, String condition, String template) {
+            this.op = op;
+            this.length = length;
+            this.condition = condition;
+            this.template = template;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this==o) return true;
+            if (!(o instanceof Key)) return false;
+            final Key key = (Key) o;
+            return op==key.op && length==key.length && Objects.equals(condition, key.condition)
+                    && Objects.equals(template, key.template);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(op, length, condition, template);
+        }
+
+    }
+
+}
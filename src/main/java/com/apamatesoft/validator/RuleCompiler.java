@@ -0,0 +1,135 @@
+package com.apamatesoft.validator;
+
+import com.apamatesoft.validator.functions.Validate;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+
+/**
+ * Compila una cadena de reglas en un único {@link MethodHandle} de tipo {@code (String)int}, que retorna el índice de
+ * la primera regla que no se cumple, o -1 si se cumplen todas.<br>
+ * La cadena se desenrolla en una serie de {@link MethodHandles#guardWithTest} anidados. Las reglas predefinidas se
+ * especializan según su código de operación, con sus operandos (longitud, conjunto de caracteres) ligados como
+ * constantes, y las reglas personalizadas se ligan a su función {@link Validate}; así cada regla tiene su propio punto
+ * de invocación en lugar de compartir el bucle de {@link Validator#isValid(String)}. A partir del JDK 9, la JVM
+ * especializa el árbol del MethodHandle tras las primeras invocaciones, lo que permite al JIT incorporar (inline) el
+ * cuerpo de cada regla.
+ */
+final class RuleCompiler {
+
+    static final MethodType TYPE = MethodType.methodType(int.class, String.class);
+
+    private static final MethodType TEST = MethodType.methodType(boolean.class, String.class);
+    private static final MethodType COMPARE = MethodType.methodType(boolean.class, int.class, int.class);
+
+    private static final MethodHandle INVOKE;
+    private static final MethodHandle VALIDATE;
+    private static final MethodHandle LENGTH;
+    private static final MethodHandle EQ;
+    private static final MethodHandle GE;
+    private static final MethodHandle LE;
+    private static final MethodHandle REQUIRED;
+    private static final MethodHandle EMAIL;
+    private static final MethodHandle NUMERIC;
+    private static final MethodHandle CONTAINS_ONLY;
+    private static final MethodHandle CONTAINS_NONE;
+    private static final MethodHandle CONTAINS_ANY;
+
+    static {
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            INVOKE = lookup.findVirtual(Validate.class, "invoke", TEST);
+            VALIDATE = lookup.findVirtual(Rule.class, "validate", TEST);
+            LENGTH = lookup.findVirtual(String.class, "length", MethodType.methodType(int.class));
+            EQ = lookup.findStatic(RuleCompiler.class, "eq", COMPARE);
+            GE = lookup.findStatic(RuleCompiler.class, "ge", COMPARE);
+            LE = lookup.findStatic(RuleCompiler.class, "le", COMPARE);
+            REQUIRED = lookup.findStatic(Rule.class, "isRequired", TEST);
+            EMAIL = lookup.findStatic(Rule.class, "isEmail", TEST);
+            NUMERIC = lookup.findStatic(Rule.class, "isNumeric", TEST);
+            CONTAINS_ONLY = lookup.findVirtual(CharClass.class, "containsOnly", TEST);
+            CONTAINS_NONE = lookup.findStatic(RuleCompiler.class, "containsNone",
+                    MethodType.methodType(boolean.class, CharClass.class, String.class));
+            CONTAINS_ANY = lookup.findVirtual(CharClass.class, "containsAny", TEST);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private RuleCompiler() { }
+
+    /**
+     * @param rules Reglas a compilar, en orden de evaluación.
+     * @return MethodHandle {@code (String)int} con el índice de la primera regla que no se cumple, o -1.
+     */
+    static MethodHandle compile(List<Rule> rules) {
+        MethodHandle chain = constant(-1);
+        for (int i = rules.size()-1; i>=0; i--) {
+            final MethodHandle test = test(rules.get(i));
+            chain = MethodHandles.guardWithTest(test, chain, constant(i));
+        }
+        return chain;
+    }
+
+    /**
+     * Invoca un plan compilado con {@link #compile(List)}.
+     * @param plan Plan compilado.
+     * @param evaluate String a evaluar.
+     * @return Índice de la primera regla que no se cumple, o -1.
+     */
+    static int invoke(MethodHandle plan, String evaluate) {
+        try {
+            return (int) plan.invokeExact(evaluate);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MethodHandle test(Rule rule) {
+        switch (rule.getOp()) {
+            case Rule.REQUIRED: return REQUIRED;
+            case Rule.LENGTH: return length(EQ, rule.getLength());
+            case Rule.MIN_LENGTH: return length(GE, rule.getLength());
+            case Rule.MAX_LENGTH: return length(LE, rule.getLength());
+            case Rule.EMAIL: return EMAIL;
+            case Rule.NUMERIC_FORMAT: return NUMERIC;
+            case Rule.SHOULD_ONLY_CONTAIN: return CONTAINS_ONLY.bindTo(rule.getChars());
+            case Rule.NOT_CONTAIN: return CONTAINS_NONE.bindTo(rule.getChars());
+            case Rule.MUST_CONTAIN_ONE: return CONTAINS_ANY.bindTo(rule.getChars());
+            case Rule.ANY_OF:
+            case Rule.NOT: return VALIDATE.bindTo(rule);
+            default: return INVOKE.bindTo(rule.getValidate());
+        }
+    }
+
+    /**
+     * @return {@code (String)boolean} que compara la longitud del String con la condición ligada como constante.
+     */
+    private static MethodHandle length(MethodHandle compare, int condition) {
+        return MethodHandles.filterArguments(MethodHandles.insertArguments(compare, 1, condition), 0, LENGTH);
+    }
+
+    private static boolean eq(int length, int condition) {
+        return length==condition;
+    }
+
+    private static boolean ge(int length, int condition) {
+        return length>=condition;
+    }
+
+    private static boolean le(int length, int condition) {
+        return length<=condition;
+    }
+
+    private static boolean containsNone(CharClass chars, String evaluate) {
+        return !evaluate.isEmpty() && !chars.containsAny(evaluate);
+    }
+
+    private static MethodHandle constant(int value) {
+        return MethodHandles.dropArguments(MethodHandles.constant(int.class, value), 0, String.class);
+    }
+
+}
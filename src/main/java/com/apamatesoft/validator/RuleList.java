@@ -0,0 +1,72 @@
+package com.apamatesoft.validator;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lista persistente de reglas: inmutable y con estructura compartida.<br>
+ * Cada lista es una vista de los primeros {@code size} elementos de un arreglo compartido. {@link #append(Object)}
+ * retorna una nueva lista sin modificar la original: si la lista es la más larga que comparte el arreglo y queda
+ * espacio, el elemento se escribe a continuación y ambas listas comparten el prefijo; en otro caso se copia el arreglo.
+ * Así, copiar un Validator solo copia la referencia a su lista, y agregar reglas a la copia no afecta al original.
+ * @param <T> Tipo de las reglas.
+ */
+final class RuleList<T> extends AbstractList<T> {
+
+    private static final int INITIAL_CAPACITY = 4;
+    private static final RuleList<?> EMPTY = new RuleList<>(new Object[0], new AtomicInteger(), 0);
+
+    private final Object[] elements;
+    // Cantidad de posiciones ocupadas del arreglo, compartida por todas las listas que lo usan.
+    private final AtomicInteger used;
+    private final int size;
+
+    private RuleList(Object[] elements, AtomicInteger used, int size) {
+        this.elements = elements;
+        this.used = used;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> RuleList<T> empty() {
+        return (RuleList<T>) EMPTY;
+    }
+
+    static <T> RuleList<T> of(List<? extends T> rules) {
+        if (rules instanceof RuleList) {
+            @SuppressWarnings("unchecked") final RuleList<T> list = (RuleList<T>) rules;
+            return list;
+        }
+        if (rules.isEmpty()) return empty();
+        return new RuleList<>(rules.toArray(), new AtomicInteger(rules.size()), rules.size());
+    }
+
+    /**
+     * @param rule Regla a agregar al final.
+     * @return Nueva lista con la regla; la lista actual no se modifica.
+     */
+    RuleList<T> append(T rule) {
+        if (size<elements.length && used.compareAndSet(size, size+1)) {
+            elements[size] = rule;
+            return new RuleList<>(elements, used, size+1);
+        }
+        final Object[] copy = Arrays.copyOf(elements, Math.max(INITIAL_CAPACITY, size*2));
+        copy[size] = rule;
+        return new RuleList<>(copy, new AtomicInteger(size+1), size+1);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index<0 || index>=size) throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size);
+        return (T) elements[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+}
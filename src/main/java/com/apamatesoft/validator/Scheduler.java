@@ -0,0 +1,27 @@
+package com.apamatesoft.validator;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * Temporizador compartido de la librería: cierra los lotes de {@link BatchRule} al cumplirse su espera máxima y
+ * completa las evaluaciones asíncronas que agotan su presupuesto de tiempo. Usa un único hilo daemon que se crea la
+ * primera vez que se necesita.
+ */
+final class Scheduler {
+
+    static final ScheduledExecutorService INSTANCE = create();
+
+    private Scheduler() { }
+
+    private static ScheduledExecutorService create() {
+        final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = new Thread(runnable, "validator-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+}
@@ -0,0 +1,331 @@
+package com.apamatesoft.validator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Evaluación de reglas sobre un String codificado en UTF-8, sin decodificarlo.<br>
+ * Un primer recorrido de los bytes calcula la longitud del String en unidades UTF-16 (la misma que
+ * {@link String#length()}), si todos los bytes son ASCII y si la secuencia es UTF-8 válida. Las reglas de longitud usan
+ * esa longitud, las reglas de contenido recorren los bytes decodificando cada carácter en el momento, y la regla de email
+ * se evalúa directamente sobre los bytes ASCII. Solo las reglas personalizadas o compuestas, y los textos no ASCII en las
+ * reglas de email y formato numérico, requieren decodificar el String, una sola vez por evaluación. Las secuencias UTF-8
+ * inválidas se decodifican siempre, para reemplazar los bytes inválidos igual que {@link String#String(byte[],
+ * java.nio.charset.Charset)}.
+ */
+final class Utf8Evaluation {
+
+    private static final int INITIAL_BUFFER = 256;
+
+    private final byte[] bytes;
+    private final int offset;
+    private final int length;
+    private final boolean truncated;
+    private int utf16Length;
+    private boolean ascii = true;
+    private boolean wellFormed = true;
+    private String decoded;
+
+    Utf8Evaluation(byte[] bytes, int offset, int length) {
+        this(bytes, offset, length, false);
+    }
+
+    private Utf8Evaluation(byte[] bytes, int offset, int length, boolean truncated) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+        this.truncated = truncated;
+        measure();
+    }
+
+    /**
+     * @param rules Reglas en orden de evaluación.
+     * @return Índice de la primera regla que no se cumple, o -1.
+     */
+    int failIndex(List<Rule> rules) {
+        for (int i = 0; i<rules.size(); i++) {
+            if (!validate(rules.get(i))) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @param rule Regla que no se cumple.
+     * @return Mensaje de error de la regla; solo las reglas compuestas requieren decodificar el String.
+     */
+    String failMessage(Rule rule) {
+        return rule.getOp()==Rule.ANY_OF ? rule.failMessage(decoded()) : rule.getMessage();
+    }
+
+    /**
+     * Evalúa, sobre el inicio leído de un flujo que supera la longitud máxima, las reglas anteriores a la regla de
+     * longitud que se superó. Una regla se decide solo si el inicio basta para conocer su resultado: el texto es al
+     * menos tan largo como el inicio, una regla de contenido falla si el inicio ya tiene un carácter no admitido, y la
+     * regla de email falla si el inicio no puede continuar como un email.
+     * @param rules Reglas en orden de evaluación.
+     * @param limit Índice de la regla de longitud que se superó.
+     * @return Índice de la primera regla que no se cumple, o -1 si se llega a la regla limit o a una regla que no
+     * puede decidirse con el inicio del texto.
+     */
+    int truncatedFailIndex(List<Rule> rules, int limit) {
+        for (int i = 0; i<limit; i++) {
+            final Rule rule = rules.get(i);
+            switch (rule.getOp()) {
+                case Rule.REQUIRED:
+                    break;
+                case Rule.MIN_LENGTH:
+                    if (units()<rule.getLength()) return -1;
+                    break;
+                case Rule.LENGTH:
+                case Rule.MAX_LENGTH:
+                    return units()>rule.getLength() ? i : -1;
+                case Rule.EMAIL:
+                    return canBeEmail() ? -1 : i;
+                case Rule.SHOULD_ONLY_CONTAIN:
+                    return find(rule.getChars(), false) ? i : -1;
+                case Rule.NOT_CONTAIN:
+                    return find(rule.getChars(), true) ? i : -1;
+                case Rule.MUST_CONTAIN_ONE:
+                    if (!find(rule.getChars(), true)) return -1;
+                    break;
+                default:
+                    return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return true si se dejó de leer el flujo al superar la longitud máxima, por lo que solo se tiene su inicio.
+     */
+    boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Lee un flujo UTF-8 completo, contando sus unidades UTF-16 a medida que se lee. Si se supera la longitud máxima,
+     * se deja de leer, por lo que la memoria usada es proporcional a esa longitud. Cada byte de continuación que no
+     * corresponde a un byte inicial se cuenta como un carácter, ya que se decodifica como U+FFFD.
+     * @param input Flujo a leer.
+     * @param maxLength Longitud máxima, en unidades UTF-16.
+     * @return Evaluación del contenido del flujo o, si supera la longitud máxima, de los caracteres completos leídos
+     * hasta entonces (ver {@link #isTruncated()}).
+     * @throws IOException Si no se puede leer el flujo.
+     */
+    static Utf8Evaluation read(InputStream input, int maxLength) throws IOException {
+        byte[] buffer = new byte[(int) Math.min(INITIAL_BUFFER, 3L*maxLength+4)];
+        int size = 0;
+        long units = 0;
+        int pending = 0;
+        while (true) {
+            if (size==buffer.length) buffer = Arrays.copyOf(buffer, size*2);
+            final int read = input.read(buffer, size, buffer.length-size);
+            if (read<0) break;
+            for (int i = size; i<size+read; i++) {
+                final int b = buffer[i];
+                if ((b & 0xC0)==0x80) {
+                    if (pending>0) pending--;
+                    else units++;
+                } else {
+                    units += (b & 0xF8)==0xF0 ? 2 : 1;
+                    pending = b<0 ? Math.max(size(b)-1, 0) : 0;
+                }
+            }
+            size += read;
+            if (units>maxLength) return new Utf8Evaluation(buffer, 0, boundary(buffer, size), true);
+        }
+        return new Utf8Evaluation(buffer, 0, size);
+    }
+
+    /**
+     * @return Cantidad de bytes sin la secuencia incompleta al final, si la hay.
+     */
+    private static int boundary(byte[] buffer, int size) {
+        for (int i = size-1; i>=Math.max(0, size-3); i--) {
+            final int b = buffer[i];
+            if ((b & 0xC0)!=0x80) return b<0 && size(b)>size-i ? i : size;
+        }
+        return size;
+    }
+
+    /**
+     * @return String decodificado, que se calcula una sola vez.
+     */
+    String decoded() {
+        if (decoded==null) decoded = new String(bytes, offset, length, StandardCharsets.UTF_8);
+        return decoded;
+    }
+
+    private int units() {
+        return wellFormed ? utf16Length : decoded().length();
+    }
+
+    private boolean find(CharClass chars, boolean member) {
+        if (wellFormed) return scan(chars, member);
+        final String decoded = decoded();
+        for (int i = 0; i<decoded.length(); i++) {
+            if (chars.contains(decoded.charAt(i))==member) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return true si el texto es el inicio de algún email.
+     */
+    private boolean canBeEmail() {
+        final CharSequence text = ascii ? new AsciiSequence(bytes, offset, length) : decoded();
+        int state = EmailAutomaton.START;
+        for (int i = 0; i<text.length() && state!=EmailAutomaton.DEAD; i++) {
+            state = EmailAutomaton.next(state, text.charAt(i));
+        }
+        return state!=EmailAutomaton.DEAD;
+    }
+
+    /**
+     * @param rule Regla a evaluar.
+     * @return true si el texto cumple la regla.
+     */
+    boolean validate(Rule rule) {
+        if (!wellFormed) return rule.validate(decoded());
+        switch (rule.getOp()) {
+            case Rule.REQUIRED: return length>0;
+            case Rule.LENGTH: return utf16Length==rule.getLength();
+            case Rule.MIN_LENGTH: return utf16Length>=rule.getLength();
+            case Rule.MAX_LENGTH: return utf16Length<=rule.getLength();
+            case Rule.EMAIL:
+                return ascii ? Rule.isEmail(new AsciiSequence(bytes, offset, length)) : rule.validate(decoded());
+            case Rule.NUMERIC_FORMAT:
+                return ascii ? Rule.isNumeric(new AsciiSequence(bytes, offset, length)) : Rule.isNumeric(decoded());
+            case Rule.SHOULD_ONLY_CONTAIN: return length>0 && !scan(rule.getChars(), false);
+            case Rule.NOT_CONTAIN: return length>0 && !scan(rule.getChars(), true);
+            case Rule.MUST_CONTAIN_ONE: return scan(rule.getChars(), true);
+            default: return rule.validate(decoded());
+        }
+    }
+
+    /**
+     * Recorre los caracteres buscando el primero que pertenezca (o no) al conjunto. Los caracteres fuera del plano
+     * básico se evalúan como sus dos unidades UTF-16, igual que en el recorrido de un String.
+     * @param member true para buscar un carácter del conjunto, false para buscar uno fuera del conjunto.
+     * @return true si se encontró.
+     */
+    private boolean scan(CharClass chars, boolean member) {
+        final int end = offset+length;
+        for (int i = offset, n = 1; i<end; n++) {
+            if ((n & Deadline.CHECK_MASK)==0) Deadline.check();
+            final int b = bytes[i];
+            if (b>=0) {
+                if (chars.contains((char) b)==member) return true;
+                i++;
+                continue;
+            }
+            final int size = size(b);
+            final int codePoint = decode(i, size);
+            i += size;
+            if (codePoint<0x10000) {
+                if (chars.contains((char) codePoint)==member) return true;
+            } else {
+                if (chars.contains(Character.highSurrogate(codePoint))==member) return true;
+                if (chars.contains(Character.lowSurrogate(codePoint))==member) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Calcula la longitud en unidades UTF-16 y verifica que la secuencia sea UTF-8 válida (sin secuencias
+     * sobrelargas, sustitutos ni caracteres mayores a U+10FFFF).
+     */
+    private void measure() {
+        final int end = offset+length;
+        int units = 0;
+        for (int i = offset; i<end; ) {
+            final int b = bytes[i];
+            if (b>=0) {
+                units++;
+                i++;
+                continue;
+            }
+            ascii = false;
+            final int size = size(b);
+            if (size==0 || i+size>end) {
+                wellFormed = false;
+                return;
+            }
+            for (int j = 1; j<size; j++) {
+                if ((bytes[i+j] & 0xC0)!=0x80) {
+                    wellFormed = false;
+                    return;
+                }
+            }
+            final int codePoint = decode(i, size);
+            if (size==2 && codePoint<0x80 || size==3 && (codePoint<0x800 || Character.isSurrogate((char) codePoint))
+                    || size==4 && (codePoint<0x10000 || codePoint>Character.MAX_CODE_POINT)) {
+                wellFormed = false;
+                return;
+            }
+            units += size==4 ? 2 : 1;
+            i += size;
+        }
+        utf16Length = units;
+    }
+
+    /**
+     * @return Cantidad de bytes de la secuencia que inicia con el byte, o 0 si no es un byte inicial válido.
+     */
+    private static int size(int b) {
+        if ((b & 0xE0)==0xC0) return 2;
+        if ((b & 0xF0)==0xE0) return 3;
+        if ((b & 0xF8)==0xF0) return 4;
+        return 0;
+    }
+
+    private int decode(int index, int size) {
+        int codePoint = bytes[index] & (0xFF>>(size+1));
+        for (int j = 1; j<size; j++) codePoint = codePoint<<6 | bytes[index+j] & 0x3F;
+        return codePoint;
+    }
+
+    /**
+     * Vista de bytes ASCII como {@link CharSequence}, para evaluar expresiones regulares sin decodificar.
+     */
+    private static final class AsciiSequence implements CharSequence {
+
+        private final byte[] bytes;
+        private final int offset;
+        private final int length;
+
+        private AsciiSequence(byte[] bytes, int offset, int length) {
+            this.bytes = bytes;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index<0 || index>=length) throw new IndexOutOfBoundsException("Index: "+index);
+            return (char) bytes[offset+index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start<0 || end>length || start>end) throw new IndexOutOfBoundsException();
+            return new AsciiSequence(bytes, offset+start, end-start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+        }
+
+    }
+
+}
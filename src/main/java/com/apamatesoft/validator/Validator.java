@@ -5,41 +5,96 @@
 //  - RegEgx
 package com.apamatesoft.validator;
 
+import com.apamatesoft.validator.exceptions.EvaluationTimeoutException;
 import com.apamatesoft.validator.exceptions.InvalidEvaluationException;
 import com.apamatesoft.validator.messages.Messages;
 import com.apamatesoft.validator.messages.MessagesEn;
+import com.apamatesoft.validator.functions.AsyncValidate;
+import com.apamatesoft.validator.functions.BatchValidate;
+import com.apamatesoft.validator.functions.BudgetExceeded;
+import com.apamatesoft.validator.functions.ContextValidate;
 import com.apamatesoft.validator.functions.NotPass;
 import com.apamatesoft.validator.functions.Validate;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Pattern;
-import static com.apamatesoft.validator.constants.Constants.EMAIL_RE;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
 import static com.apamatesoft.validator.constants.Constants.NUMBER;
 
 /**
  * <h1>Validator</h1>
  *
  * Validador es una librería escrita en Java, que pretende simplificar la validación de Strings declarando una series de
- * reglas.
+ * reglas.<br>
+ * Un Validator puede compartirse entre hilos una vez publicado de forma segura (en un campo final o volatile, o en una
+ * colección concurrente): las reglas y el presupuesto de tiempo se leen cada uno de una única referencia volatile a un
+ * estado inmutable, y los eventos, el executor y los mensajes son volatile, por lo que sus cambios son visibles en las
+ * evaluaciones siguientes.
  *
  * @author ApamateSoft
  * @version 1.1.0
  */
 public class Validator implements Cloneable {
 
-    private static Messages messages = new MessagesEn();
+    private static final int DEFAULT_BATCH_SIZE = 100;
 
-    private final List<Rule> rules = new ArrayList<>();
-    private NotPass notPass;
-    private String notMatchMessage = messages.getNotMatchMessage();
+    // Resultado interno de una evaluación que agotó el presupuesto de tiempo; se compara por identidad.
+    private static final String TIMEOUT = new String("timeout");
+    // Resultados de una regla evaluada con presupuesto de tiempo (ver test(long, BooleanSupplier)).
+    private static final int PASSED = 1;
+    private static final int FAILED = 0;
+    private static final int TIMED_OUT = -2;
+
+    private static volatile Messages messages = new MessagesEn();
+
+    private static final AtomicReferenceFieldUpdater<Validator, Snapshot> SNAPSHOT =
+            AtomicReferenceFieldUpdater.newUpdater(Validator.class, Snapshot.class, "snapshot");
+
+    private static final AtomicReferenceFieldUpdater<Validator, Budget> BUDGET =
+            AtomicReferenceFieldUpdater.newUpdater(Validator.class, Budget.class, "budget");
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile NotPass notPass;
+    private volatile String notMatchMessage = messages.getNotMatchMessage();
+    private volatile Executor executor = AsyncRule.defaultExecutor();
+    private volatile Budget budget = new Budget(0, messages.getTimeoutMessage(), null);
 
     // <editor-fold defaulted="collapsed" desc="CONSTRUCTORS">
     public Validator() { }
 
     private Validator(Builder builder) {
-        rules.addAll(builder.rules);
+        snapshot = Snapshot.of(builder, false);
         notPass = builder.notPass;
         notMatchMessage = builder.notMatchMessage;
+        if (builder.executor!=null) executor = builder.executor;
+        budget = new Budget(builder.timeBudget,
+                builder.timeoutMessage!=null ? builder.timeoutMessage : budget.message, builder.budgetExceeded);
+    }
+
+    /**
+     * Crea un Validator con reglas ya construidas (ver {@link ValidatorSnapshot}).
+     */
+    Validator(List<Rule> rules, String notMatchMessage, boolean compile) {
+        final Snapshot snapshot = new Snapshot(RuleList.of(rules), RuleList.<AsyncRule>empty(), null);
+        this.snapshot = compile ? snapshot.compiled() : snapshot;
+        this.notMatchMessage = notMatchMessage;
     }
     //</editor-fold>
 
@@ -61,41 +116,613 @@ public class Validator implements Cloneable {
         this.notMatchMessage = message;
     }
 
+    /**
+     * Establece el executor donde se evalúan las reglas asíncronas. Por defecto se usan hilos virtuales cuando la JVM
+     * los ofrece (JDK 21+), o el {@link java.util.concurrent.ForkJoinPool#commonPool()} en caso contrario.
+     * @param executor Executor para las reglas asíncronas.
+     */
+    public void setExecutor(Executor executor) {
+        if (executor==null) return;
+        this.executor = executor;
+    }
+
+    /**
+     * Establece el tiempo máximo de cada evaluación, en todas sus formas: Strings, textos UTF-8, evaluaciones
+     * asíncronas y, para cada String, las listas de {@link #isValidBatch(List)}. Las reglas se evalúan una a una (sin
+     * el plan compilado) y los recorridos largos de las reglas predefinidas verifican el tiempo límite cada 4096
+     * caracteres; las reglas personalizadas lo verifican invocando {@link #checkDeadline()}. La espera de las reglas
+     * asíncronas se limita al tiempo restante. Al agotarse el tiempo, la evaluación termina con el mensaje de tiempo
+     * agotado y se invoca al evento {@link #onBudgetExceeded(BudgetExceeded)}.
+     * @param budget Tiempo máximo, o 0 para no limitar la evaluación.
+     * @param unit Unidad del tiempo.
+     */
+    public void setTimeBudget(long budget, TimeUnit unit) {
+        if (budget<0) throw new IllegalArgumentException("budget must not be negative");
+        final long nanos = unit.toNanos(budget);
+        Budget current;
+        do {
+            current = this.budget;
+        } while (!BUDGET.compareAndSet(this, current, new Budget(nanos, current.message, current.exceeded)));
+    }
+
+    /**
+     * Establece el tiempo máximo de cada evaluación (ver {@link #setTimeBudget(long, TimeUnit)}).
+     * @param budget Tiempo máximo, o 0 para no limitar la evaluación.
+     * @param unit Unidad del tiempo.
+     * @param message Mensaje de error al agotarse el tiempo.
+     */
+    public void setTimeBudget(long budget, TimeUnit unit, String message) {
+        if (budget<0) throw new IllegalArgumentException("budget must not be negative");
+        final long nanos = unit.toNanos(budget);
+        Budget current;
+        do {
+            current = this.budget;
+        } while (!BUDGET.compareAndSet(this, current, new Budget(nanos, message, current.exceeded)));
+    }
+
+    /**
+     * Verifica el tiempo límite de la evaluación en curso en el hilo actual. Las reglas personalizadas costosas
+     * deberían invocarlo periódicamente para que la evaluación termine al agotarse el presupuesto de tiempo (ver
+     * {@link #setTimeBudget(long, TimeUnit)}). Fuera de una evaluación con presupuesto no tiene efecto.
+     */
+    public static void checkDeadline() {
+        Deadline.check();
+    }
+
     /**
      * Valida que el String a evaluar cumpla todas las reglas.<br>
      * <b>Nota:</b> Si el String no cumple alguna regla, se invocara al evento {@link #onNotPass(NotPass)} con el
-     * mensaje del error correspondiente.
+     * mensaje del error correspondiente. Si existen reglas asíncronas, se espera a que estas terminen.
      * @param evaluate String a evaluar.
      * @return true: si pasa la validación.
      */
     public boolean isValid(String evaluate) {
-        if (evaluate==null) {
-            if (notPass!=null) notPass.invoke(rules.get(0).getMessage());
+        final Budget budget = this.budget;
+        final String message = evaluate(budget, evaluate);
+        if (message==null) return true;
+        notifyNotPass(message==TIMEOUT ? budget.message : message);
+        return false;
+    }
+
+    /**
+     * Valida que el String a evaluar cumpla todas las reglas.<br>
+     * @param evaluate String a evaluar.
+     * @throws InvalidEvaluationException Excepción arrojada si el String a evaluar no se cumple alguna regla, o
+     * {@link EvaluationTimeoutException} si se agota el presupuesto de tiempo (ver
+     * {@link #setTimeBudget(long, TimeUnit)}).
+     */
+    public void isValidOrFail(String evaluate) throws InvalidEvaluationException {
+        final Budget budget = this.budget;
+        final String message = evaluate(budget, evaluate);
+        if (message==TIMEOUT)
+            throw new EvaluationTimeoutException(budget.message, evaluate);
+        if (message!=null)
+            throw new InvalidEvaluationException(message, evaluate);
+    }
+
+    /**
+     * Valida que el String a evaluar cumpla todas las reglas, sin invocar el evento {@link #onNotPass(NotPass)}. Útil
+     * cuando un mismo Validator se comparte entre varios campos u objetos.
+     * @param evaluate String a evaluar.
+     * @return Mensaje de error de la primera regla que no se cumple, o null si pasa la validación.
+     */
+    public String failMessage(String evaluate) {
+        final Budget budget = this.budget;
+        final String message = evaluate(budget, evaluate);
+        return message==TIMEOUT ? budget.message : message;
+    }
+
+    /**
+     * @return Mensaje de error de la primera regla que no se cumple, {@link #TIMEOUT} si se agota el presupuesto de
+     * tiempo, o null si pasa la validación.
+     */
+    private String evaluate(Budget budget, String evaluate) {
+        final Snapshot snapshot = this.snapshot;
+        if (evaluate==null) return snapshot.firstMessage();
+        if (budget.nanos>0) {
+            final Failure failure = budgetedFailure(budget, snapshot, i -> snapshot.rules.get(i).validate(evaluate),
+                    i -> snapshot.rules.get(i).failMessage(evaluate), () -> evaluate).join();
+            return failure==null ? null : failure.index<0 ? TIMEOUT : failure.message;
+        }
+        final String message = syncFailMessage(snapshot, evaluate);
+        if (message!=null || snapshot.asyncRules.isEmpty()) return message;
+        return validateAsyncRules(snapshot, evaluate).join();
+    }
+
+    /**
+     * Evaluación con presupuesto de tiempo, común a todas las formas de evaluar un Validator: las reglas síncronas se
+     * evalúan una a una (sin el plan compilado) con el tiempo límite activo en el hilo actual, y la espera de las
+     * reglas asíncronas se limita al tiempo restante.
+     * @param valid Evalúa la regla síncrona del índice indicado.
+     * @param failMessage Mensaje de error de la regla síncrona del índice indicado.
+     * @param text Texto a evaluar con las reglas asíncronas.
+     * @return Futuro con la primera regla que no se cumple, con índice -1 si se agota el tiempo, o con null si pasa la
+     * validación.
+     */
+    private CompletableFuture<Failure> budgetedFailure(Budget budget, Snapshot snapshot, IntPredicate valid,
+                                                       IntFunction<String> failMessage, Supplier<String> text) {
+        final long deadline = Deadline.nearest(System.nanoTime()+budget.nanos);
+        final RuleList<Rule> rules = snapshot.rules;
+        for (int i = 0; i<rules.size(); i++) {
+            final int index = i;
+            final long start = System.nanoTime();
+            final int result = test(deadline, () -> valid.test(index));
+            if (result==TIMED_OUT) {
+                budget.exceeded(i, rules.get(i).getMessage(), start);
+                return CompletableFuture.completedFuture(new Failure(-1, budget.message));
+            }
+            if (result==FAILED) return CompletableFuture.completedFuture(new Failure(i, failMessage.apply(i)));
+        }
+        if (snapshot.asyncRules.isEmpty()) return CompletableFuture.completedFuture(null);
+        return within(budget, deadline, snapshot, asyncFailIndex(snapshot, text.get())).thenApply(i -> {
+            if (i==TIMED_OUT) return new Failure(-1, budget.message);
+            return i<0 ? null : new Failure(rules.size()+i, snapshot.asyncRules.get(i).getMessage());
+        });
+    }
+
+    /**
+     * Evalúa una regla síncrona con el tiempo límite activo en el hilo actual. Si ya hay uno activo (un Validator
+     * evaluado dentro de una regla de otro), rige el más cercano.
+     * @param deadline Tiempo límite, según {@link System#nanoTime()}.
+     * @param rule Regla a evaluar.
+     * @return {@link #PASSED}, {@link #FAILED} o {@link #TIMED_OUT}.
+     */
+    private static int test(long deadline, BooleanSupplier rule) {
+        final Deadline current = Deadline.current();
+        final boolean outerActive = current.isActive();
+        final long outerDeadline = current.get();
+        current.set(deadline);
+        try {
+            final boolean valid = rule.getAsBoolean();
+            // Un resultado obtenido tras el tiempo límite puede deberse a él (por ejemplo, un Validator anidado).
+            if (System.nanoTime()-current.get()>0) return TIMED_OUT;
+            return valid ? PASSED : FAILED;
+        } catch (Deadline.Exceeded e) {
+            return TIMED_OUT;
+        } finally {
+            current.restore(outerActive, outerDeadline);
+        }
+    }
+
+    /**
+     * Limita la espera de las reglas asíncronas al tiempo límite. Al agotarse, se cancelan las reglas pendientes y se
+     * invoca al evento {@link #onBudgetExceeded(BudgetExceeded)} con la primera regla asíncrona.
+     * @param future Futuro con el índice de la primera regla asíncrona que no se cumple, o -1.
+     * @return Futuro con el mismo resultado, o con {@link #TIMED_OUT} si se agota el tiempo.
+     */
+    private static CompletableFuture<Integer> within(Budget budget, long deadline, Snapshot snapshot,
+                                                     CompletableFuture<Integer> future) {
+        final long start = System.nanoTime();
+        final CompletableFuture<Integer> result = new CompletableFuture<>();
+        final ScheduledFuture<?> timer = Scheduler.INSTANCE.schedule(() -> result.complete(TIMED_OUT),
+                Math.max(0, deadline-start), TimeUnit.NANOSECONDS);
+        future.whenComplete((index, error) -> {
+            timer.cancel(false);
+            if (error!=null) result.completeExceptionally(error);
+            else result.complete(index);
+        });
+        return result.thenApply(index -> {
+            if (index==TIMED_OUT) {
+                future.cancel(true);
+                budget.exceeded(snapshot.rules.size(), snapshot.asyncRules.get(0).getMessage(), start);
+            }
+            return index;
+        });
+    }
+
+    /**
+     * Valida que el texto codificado en UTF-8 cumpla todas las reglas, sin decodificarlo a un String (ver
+     * {@link #failMessageUtf8(byte[], int, int)}).<br>
+     * <b>Nota:</b> Si el texto no cumple alguna regla, se invocara al evento {@link #onNotPass(NotPass)} con el
+     * mensaje del error correspondiente.
+     * @param utf8 Bytes a evaluar.
+     * @param offset Posición del primer byte.
+     * @param length Cantidad de bytes.
+     * @return true: si pasa la validación.
+     */
+    public boolean isValidUtf8(byte[] utf8, int offset, int length) {
+        final String message = failMessageUtf8(utf8, offset, length);
+        if (message==null) return true;
+        notifyNotPass(message);
+        return false;
+    }
+
+    /**
+     * Valida que los bytes restantes del buffer, codificados en UTF-8, cumplan todas las reglas.<br>
+     * <b>Nota:</b> Si el texto no cumple alguna regla, se invocara al evento {@link #onNotPass(NotPass)} con el
+     * mensaje del error correspondiente.
+     * @param utf8 Buffer a evaluar. Su posición no se modifica.
+     * @return true: si pasa la validación.
+     */
+    public boolean isValidUtf8(ByteBuffer utf8) {
+        final String message = failMessageUtf8(utf8);
+        if (message==null) return true;
+        notifyNotPass(message);
+        return false;
+    }
+
+    /**
+     * Valida que el contenido del flujo, codificado en UTF-8, cumpla todas las reglas (ver
+     * {@link #failMessageUtf8(InputStream)}).<br>
+     * <b>Nota:</b> Si el texto no cumple alguna regla, se invocara al evento {@link #onNotPass(NotPass)} con el
+     * mensaje del error correspondiente.
+     * @param utf8 Flujo a evaluar.
+     * @return true: si pasa la validación.
+     * @throws IOException Si no se puede leer el flujo.
+     */
+    public boolean isValidUtf8(InputStream utf8) throws IOException {
+        final String message = failMessageUtf8(utf8);
+        if (message==null) return true;
+        notifyNotPass(message);
+        return false;
+    }
+
+    /**
+     * Evalúa un texto codificado en UTF-8 sin decodificarlo a un String. Las reglas de longitud cuentan los caracteres
+     * a medida que recorren los bytes (en unidades UTF-16, igual que {@link String#length()}), y las reglas de
+     * contenido y de email se evalúan directamente sobre los bytes. Solo las reglas personalizadas, compuestas y
+     * asíncronas reciben el texto decodificado.
+     * @param utf8 Bytes a evaluar.
+     * @param offset Posición del primer byte.
+     * @param length Cantidad de bytes.
+     * @return Mensaje de error de la primera regla que no se cumple, o null si pasa la validación.
+     */
+    public String failMessageUtf8(byte[] utf8, int offset, int length) {
+        final Snapshot snapshot = this.snapshot;
+        if (utf8==null) return snapshot.firstMessage();
+        if (offset<0 || length<0 || offset>utf8.length-length) throw new IndexOutOfBoundsException();
+        return failMessage(snapshot, new Utf8Evaluation(utf8, offset, length));
+    }
+
+    /**
+     * Evalúa los bytes restantes del buffer, codificados en UTF-8 (ver {@link #failMessageUtf8(byte[], int, int)}). Los
+     * buffers directos se copian a un arreglo, sin decodificarlos.
+     * @param utf8 Buffer a evaluar. Su posición no se modifica.
+     * @return Mensaje de error de la primera regla que no se cumple, o null si pasa la validación.
+     */
+    public String failMessageUtf8(ByteBuffer utf8) {
+        if (utf8==null) return snapshot.firstMessage();
+        if (utf8.hasArray())
+            return failMessageUtf8(utf8.array(), utf8.arrayOffset()+utf8.position(), utf8.remaining());
+        final byte[] bytes = new byte[utf8.remaining()];
+        utf8.duplicate().get(bytes);
+        return failMessageUtf8(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Lee y evalúa el contenido de un flujo codificado en UTF-8 (ver {@link #failMessageUtf8(byte[], int, int)}). Si el
+     * Validator tiene reglas {@link #maxLength(int)} o {@link #length(int)}, los caracteres se cuentan a medida que se
+     * leen y, al superar la menor de esas longitudes, se deja de leer; así la memoria usada es proporcional a la
+     * longitud máxima. En ese caso, las reglas declaradas antes de la regla superada se evalúan sobre el inicio leído y
+     * se reporta la primera que falla, igual que al evaluar el texto completo. Si alguna de ellas no puede decidirse
+     * sin el resto del texto (por ejemplo, una regla personalizada, o una regla de email cuyo inicio aún puede ser un
+     * email), se reporta el mensaje de la regla de longitud superada. El flujo no se cierra.
+     * @param utf8 Flujo a evaluar.
+     * @return Mensaje de error de la primera regla que no se cumple, o null si pasa la validación.
+     * @throws IOException Si no se puede leer el flujo.
+     */
+    public String failMessageUtf8(InputStream utf8) throws IOException {
+        final Snapshot snapshot = this.snapshot;
+        if (utf8==null) return snapshot.firstMessage();
+        int limit = -1;
+        for (int i = 0; i<snapshot.rules.size(); i++) {
+            final Rule rule = snapshot.rules.get(i);
+            if ((rule.getOp()==Rule.MAX_LENGTH || rule.getOp()==Rule.LENGTH)
+                    && (limit<0 || rule.getLength()<snapshot.rules.get(limit).getLength())) limit = i;
+        }
+        final int maxLength = limit<0 ? Integer.MAX_VALUE : snapshot.rules.get(limit).getLength();
+        final Utf8Evaluation evaluation = Utf8Evaluation.read(utf8, maxLength);
+        if (!evaluation.isTruncated()) return failMessage(snapshot, evaluation);
+        final int index = evaluation.truncatedFailIndex(snapshot.rules, limit);
+        return evaluation.failMessage(snapshot.rules.get(index<0 ? limit : index));
+    }
+
+    private String failMessage(Snapshot snapshot, Utf8Evaluation evaluation) {
+        final Budget budget = this.budget;
+        if (budget.nanos>0) {
+            final Failure failure = budgetedFailure(budget, snapshot, i -> evaluation.validate(snapshot.rules.get(i)),
+                    i -> evaluation.failMessage(snapshot.rules.get(i)), evaluation::decoded).join();
+            return failure==null ? null : failure.message;
+        }
+        final int index = evaluation.failIndex(snapshot.rules);
+        if (index>=0) return evaluation.failMessage(snapshot.rules.get(index));
+        if (snapshot.asyncRules.isEmpty()) return null;
+        return validateAsyncRules(snapshot, evaluation.decoded()).join();
+    }
+
+    /**
+     * Compila las reglas síncronas en una cadena desenrollada, en la cual cada regla tiene su propio punto de
+     * invocación, lo que permite al JIT optimizar cada regla por separado. Conviene usarlo en Validators de larga
+     * vida que se evalúan con frecuencia.<br>
+     * <b>Nota:</b> Al agregar una regla se descarta la compilación, por lo que debe invocarse después de declarar
+     * todas las reglas. Las reglas reemplazadas con {@link #update(Consumer)} se compilan de nuevo.
+     */
+    public void compile() {
+        Snapshot current;
+        do {
+            current = snapshot;
+        } while (!SNAPSHOT.compareAndSet(this, current, current.compiled()));
+    }
+
+    /**
+     * Reemplaza todas las reglas del Validator de forma atómica, mientras otros hilos lo siguen usando. Las nuevas
+     * reglas se declaran sobre un {@link Builder} vacío y se publican con un único reemplazo de referencia: las
+     * evaluaciones en curso terminan con las reglas anteriores y las siguientes usan las nuevas, sin bloqueos y sin
+     * ver nunca una mezcla de ambas. Si el Validator estaba compilado, las nuevas reglas también se compilan.<br>
+     * <b>Nota:</b> Solo se reemplazan las reglas; los eventos, el {@link Executor}, el tiempo máximo de evaluación y
+     * el mensaje de {@link #compare(String, String)} declarados en el Builder se ignoran, y se conservan los del
+     * Validator.
+     * <br><br>
+     * <b>Ejemplo:<b/><br>
+     * <code>
+     * <pre>
+     * validator.update(rules -> rules.required().maxLength(10));
+     * </pre>
+     * </code>
+     *
+     * @param rules Función que declara las nuevas reglas.
+     */
+    public void update(Consumer<Builder> rules) {
+        final Builder builder = new Builder();
+        rules.accept(builder);
+        final Snapshot replacement = Snapshot.of(builder, false);
+        Snapshot compiled = replacement.plan!=null ? replacement : null;
+        Snapshot current, next;
+        do {
+            current = snapshot;
+            if (current.plan==null) next = replacement;
+            else next = compiled!=null ? compiled : (compiled = replacement.compiled());
+        } while (!SNAPSHOT.compareAndSet(this, current, next));
+    }
+
+    private static String syncFailMessage(Snapshot snapshot, String evaluate) {
+        final MethodHandle plan = snapshot.plan;
+        if (plan!=null) {
+            final int index = RuleCompiler.invoke(plan, evaluate);
+            return index<0 ? null : snapshot.rules.get(index).failMessage(evaluate);
+        }
+        final RuleList<Rule> rules = snapshot.rules;
+        for (int i = 0; i<rules.size(); i++) {
+            final Rule rule = rules.get(i);
+            if (!rule.validate(evaluate)) return rule.failMessage(evaluate);
+        }
+        return null;
+    }
+
+    String getNotMatchMessage() {
+        return notMatchMessage;
+    }
+
+    List<Rule> getRules() {
+        return snapshot.rules;
+    }
+
+    NotPass getNotPass() {
+        return notPass;
+    }
+
+    List<AsyncRule> getAsyncRules() {
+        return snapshot.asyncRules;
+    }
+
+    boolean isCompiled() {
+        return snapshot.plan!=null;
+    }
+
+    /**
+     * Valida de forma asíncrona que el String a evaluar cumpla todas las reglas.<br>
+     * Primero se evalúan las reglas síncronas en el hilo que invoca el método; si todas pasan, las reglas asíncronas
+     * se agendan en el executor y se evalúan en paralelo. Al fallar una regla asíncrona se cancelan las restantes.<br>
+     * <b>Nota:</b> Si el String no cumple alguna regla, se invocara al evento {@link #onNotPass(NotPass)} con el
+     * mensaje del error correspondiente. Si fallan varias reglas asíncronas, se informa la primera en terminar.
+     * @param evaluate String a evaluar.
+     * @return Futuro que completa con true si pasa la validación.
+     */
+    public CompletableFuture<Boolean> isValidAsync(String evaluate) {
+        if (evaluate==null || snapshot.asyncRules.isEmpty())
+            return CompletableFuture.completedFuture(isValid(evaluate));
+        return failure(evaluate).thenApply(failure -> {
+            if (failure==null) return true;
+            notifyNotPass(failure.message);
             return false;
+        });
+    }
+
+    /**
+     * Valida una lista de Strings, aplicando cada regla sobre todos los Strings que aún no han fallado. Las reglas por
+     * lotes se invocan una vez por cada grupo de Strings pendientes, lo que amortiza consultas costosas.<br>
+     * <b>Nota:</b> Por cada String que no cumpla alguna regla, se invocara al evento {@link #onNotPass(NotPass)} con el
+     * mensaje del error correspondiente.
+     * @param evaluates Strings a evaluar.
+     * @return Resultado de la validación de cada String, en el mismo orden.
+     */
+    public boolean[] isValidBatch(List<String> evaluates) {
+        final Snapshot snapshot = this.snapshot;
+        final boolean[] result = new boolean[evaluates.size()];
+        final List<Integer> pending = new ArrayList<>(evaluates.size());
+        for (int i = 0; i<evaluates.size(); i++) {
+            if (evaluates.get(i)==null) {
+                notifyNotPass(snapshot.firstMessage());
+            } else {
+                result[i] = true;
+                pending.add(i);
+            }
         }
-        for (Rule rule: rules) {
-            if (!rule.validate(evaluate)) {
-                if (notPass!=null) notPass.invoke(rule.getMessage());
-                return false;
+        final Budget budget = this.budget;
+        // Tiempo restante del presupuesto de cada String, que se descuenta en cada pasada.
+        final long[] remaining = budget.nanos>0 ? new long[evaluates.size()] : null;
+        if (remaining!=null) Arrays.fill(remaining, budget.nanos);
+        final RuleList<Rule> rules = snapshot.rules;
+        for (int r = 0; r<rules.size(); r++) {
+            final Rule rule = rules.get(r);
+            for (Integer i: pending) {
+                final String value = evaluates.get(i);
+                if (remaining==null) {
+                    if (!rule.validate(value)) fail(result, i, rule.failMessage(value));
+                    continue;
+                }
+                final long start = System.nanoTime();
+                final int valid = test(Deadline.nearest(start+remaining[i]), () -> rule.validate(value));
+                remaining[i] -= System.nanoTime()-start;
+                if (valid==TIMED_OUT) {
+                    budget.exceeded(r, rule.getMessage(), start);
+                    fail(result, i, budget.message);
+                } else if (valid==FAILED) {
+                    fail(result, i, rule.failMessage(value));
+                }
             }
+            pending.removeIf(i -> !result[i]);
         }
-        return true;
+        final RuleList<AsyncRule> asyncRules = snapshot.asyncRules;
+        for (int r = 0; r<asyncRules.size() && !pending.isEmpty(); r++) {
+            final AsyncRule rule = asyncRules.get(r);
+            final List<String> values = new ArrayList<>(pending.size());
+            for (Integer i: pending) values.add(evaluates.get(i));
+            final long start = System.nanoTime();
+            if (rule instanceof BatchRule) {
+                final boolean[][] valid = new boolean[1][];
+                final BooleanSupplier invoke = () -> (valid[0] = ((BatchRule) rule).validate(values))!=null;
+                if (remaining==null) {
+                    invoke.getAsBoolean();
+                } else {
+                    long longest = 0;
+                    for (Integer i: pending) longest = Math.max(longest, remaining[i]);
+                    if (test(Deadline.nearest(start+longest), invoke)==TIMED_OUT) valid[0] = null;
+                }
+                for (int j = 0; j<pending.size(); j++) {
+                    final int i = pending.get(j);
+                    if (remaining!=null && (valid[0]==null || (remaining[i] -= System.nanoTime()-start)<0)) {
+                        budget.exceeded(rules.size()+r, rule.getMessage(), start);
+                        fail(result, i, budget.message);
+                    } else if (!valid[0][j]) {
+                        fail(result, i, rule.getMessage());
+                    }
+                }
+            } else {
+                final List<CompletableFuture<Boolean>> futures = new ArrayList<>(values.size());
+                for (String value: values) futures.add(rule.validate(value, executor));
+                for (int j = 0; j<futures.size(); j++) {
+                    final int i = pending.get(j);
+                    if (remaining==null) {
+                        if (!futures.get(j).join()) fail(result, i, rule.getMessage());
+                    } else if (!await(futures.get(j), start+remaining[i])) {
+                        budget.exceeded(rules.size()+r, rule.getMessage(), start);
+                        fail(result, i, budget.message);
+                    } else {
+                        remaining[i] -= System.nanoTime()-start;
+                        if (!futures.get(j).join()) fail(result, i, rule.getMessage());
+                    }
+                }
+            }
+            pending.removeIf(i -> !result[i]);
+        }
+        return result;
     }
 
     /**
-     * Valida que el String a evaluar cumpla todas las reglas.<br>
+     * Espera el resultado de una regla asíncrona hasta el tiempo límite; al agotarse, la cancela.
+     * @return true si la regla terminó antes del tiempo límite.
+     */
+    private static boolean await(CompletableFuture<Boolean> future, long deadline) {
+        try {
+            future.get(Math.max(0, Deadline.nearest(deadline)-System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return false;
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void fail(boolean[] result, int index, String message) {
+        result[index] = false;
+        notifyNotPass(message);
+    }
+
+    /**
+     * Invoca al evento {@link #onNotPass(NotPass)}, leyendo una sola vez el campo por si otro hilo lo reemplaza.
+     */
+    private void notifyNotPass(String message) {
+        final NotPass notPass = this.notPass;
+        if (notPass!=null) notPass.invoke(message);
+    }
+
+    private CompletableFuture<String> validateAsyncRules(Snapshot snapshot, String evaluate) {
+        return asyncFailIndex(snapshot, evaluate).thenApply(i -> i<0 ? null : snapshot.asyncRules.get(i).getMessage());
+    }
+
+    /**
+     * @return Futuro con el índice de la primera regla asíncrona en fallar, o -1 si todas se cumplen.
+     */
+    private CompletableFuture<Integer> asyncFailIndex(Snapshot snapshot, String evaluate) {
+        final RuleList<AsyncRule> asyncRules = snapshot.asyncRules;
+        final CompletableFuture<Integer> result = new CompletableFuture<>();
+        final List<CompletableFuture<Boolean>> futures = new ArrayList<>(asyncRules.size());
+        final AtomicInteger pending = new AtomicInteger(asyncRules.size());
+        for (int i = 0; i<asyncRules.size(); i++) {
+            final int index = i;
+            final CompletableFuture<Boolean> future = asyncRules.get(i).validate(evaluate, executor);
+            futures.add(future);
+            future.whenComplete((valid, error) -> {
+                if (error!=null) result.completeExceptionally(error);
+                else if (!valid) result.complete(index);
+                else if (pending.decrementAndGet()==0) result.complete(-1);
+            });
+        }
+        result.whenComplete((index, error) -> {
+            for (CompletableFuture<Boolean> future: futures) future.cancel(true);
+        });
+        return result;
+    }
+
+    /**
+     * Evalúa las reglas síncronas y, si todas se cumplen, las asíncronas.
      * @param evaluate String a evaluar.
-     * @throws InvalidEvaluationException Excepción arrojada si el String a evaluar no se cumple alguna regla.
+     * @return Futuro con la primera regla que no se cumple, con índice -1 y el mensaje de tiempo agotado si se agota
+     * el presupuesto de tiempo, o con null si pasa la validación.
      */
-    public void isValidOrFail(String evaluate) throws InvalidEvaluationException {
+    CompletableFuture<Failure> failure(String evaluate) {
+        return failure(snapshot, evaluate);
+    }
 
-        if (evaluate==null)
-            throw new InvalidEvaluationException(rules.get(0).getMessage(), null);
+    /**
+     * Igual que {@link #failure(String)}, pero con las reglas leídas antes con {@link #snapshot()}, aunque el Validator
+     * se haya modificado después.
+     */
+    CompletableFuture<Failure> failure(Snapshot snapshot, String evaluate) {
+        if (evaluate==null) return CompletableFuture.completedFuture(new Failure(0, snapshot.firstMessage()));
+        final Budget budget = this.budget;
+        if (budget.nanos>0) return budgetedFailure(budget, snapshot, i -> snapshot.rules.get(i).validate(evaluate),
+                i -> snapshot.rules.get(i).failMessage(evaluate), () -> evaluate);
+        final int index = snapshot.plan!=null
+                ? RuleCompiler.invoke(snapshot.plan, evaluate)
+                : failIndex(snapshot, evaluate);
+        if (index>=0) {
+            final Failure failure = new Failure(index, snapshot.rules.get(index).failMessage(evaluate));
+            return CompletableFuture.completedFuture(failure);
+        }
+        if (snapshot.asyncRules.isEmpty()) return CompletableFuture.completedFuture(null);
+        return asyncFailIndex(snapshot, evaluate).thenApply(i -> i<0 ? null
+                : new Failure(snapshot.rules.size()+i, snapshot.asyncRules.get(i).getMessage()));
+    }
 
-        for (Rule rule: rules)
-            if (!rule.validate(evaluate))
-                throw new InvalidEvaluationException(rule.getMessage(), evaluate);
+    /**
+     * @return Reglas vigentes, para evaluar varios valores siempre con las mismas reglas.
+     */
+    Snapshot snapshot() {
+        return snapshot;
+    }
 
+    private static int failIndex(Snapshot snapshot, String evaluate) {
+        for (int i = 0; i<snapshot.rules.size(); i++) {
+            if (!snapshot.rules.get(i).validate(evaluate)) return i;
+        }
+        return -1;
     }
 
     /**
@@ -109,11 +736,11 @@ public class Validator implements Cloneable {
      */
     public boolean compare(String evaluate, String compare) {
         if (evaluate==null || compare==null) {
-            if (notPass!=null) notPass.invoke(notMatchMessage);
+            notifyNotPass(notMatchMessage);
             return false;
         }
         if (!evaluate.equals(compare)) {
-            if (notPass!=null) notPass.invoke(notMatchMessage);
+            notifyNotPass(notMatchMessage);
             return false;
         }
         return isValid(evaluate);
@@ -139,6 +766,105 @@ public class Validator implements Cloneable {
         isValidOrFail(evaluate);
     }
 
+    //<editor-fold desc="COMPOSITION">
+
+    /**
+     * Combina este Validator con otro (ver {@link #allOf(Validator...)}).
+     * @param other Validator a combinar.
+     * @return Validator que se cumple si se cumplen ambos.
+     */
+    public Validator and(Validator other) {
+        return allOf(this, other);
+    }
+
+    /**
+     * Combina este Validator con otro (ver {@link #anyOf(Validator...)}).
+     * @param other Validator a combinar.
+     * @return Validator que se cumple si se cumple alguno de los dos.
+     */
+    public Validator or(Validator other) {
+        return anyOf(this, other);
+    }
+
+    /**
+     * Crea un Validator que se cumple cuando este Validator no se cumple.
+     * @param message Mensaje de error.
+     * @return Validator negado.
+     * @throws IllegalArgumentException Si el Validator tiene reglas asíncronas.
+     */
+    public Validator not(String message) {
+        final Snapshot snapshot = syncSnapshot(this);
+        return composed(new Validator[] { this }, Snapshot.EMPTY.with(Rule.not(message, snapshot.rules)));
+    }
+
+    /**
+     * Combina varios Validators en uno que se cumple si se cumplen todas sus reglas. Las reglas se evalúan en el orden
+     * de los Validators, se omiten las reglas repetidas y la evaluación se detiene en la primera regla que no se
+     * cumple, cuyo mensaje se reporta.<br>
+     * <b>Nota:</b> El Validator combinado toma las reglas vigentes de cada Validator al momento de combinarlos, y el
+     * executor y el mensaje de {@link #compare(String, String)} del primero.
+     * @param validators Validators a combinar.
+     * @return Validator combinado.
+     */
+    public static Validator allOf(Validator... validators) {
+        RuleList<Rule> rules = RuleList.empty();
+        RuleList<AsyncRule> asyncRules = RuleList.empty();
+        boolean compile = false;
+        for (Validator validator: validators) {
+            final Snapshot snapshot = validator.snapshot;
+            for (Rule rule: snapshot.rules) {
+                if (!containsTest(rules, rule)) rules = rules.append(rule);
+            }
+            for (AsyncRule rule: snapshot.asyncRules) {
+                if (!asyncRules.contains(rule)) asyncRules = asyncRules.append(rule);
+            }
+            compile |= snapshot.plan!=null;
+        }
+        final Snapshot snapshot = new Snapshot(rules, asyncRules, null);
+        return composed(validators, compile ? snapshot.compiled() : snapshot);
+    }
+
+    /**
+     * Combina varios Validators en uno que se cumple si se cumplen todas las reglas de alguno de ellos. Los Validators
+     * se evalúan en orden y la evaluación se detiene en el primero que se cumple. Las reglas compartidas entre
+     * Validators se evalúan una sola vez, y las reglas de contenido se evalúan juntas en un único recorrido del String.
+     * Si no se cumple ninguno, se reporta el mensaje de la primera regla que no se cumple del primer Validator.<br>
+     * <b>Nota:</b> El Validator combinado toma las reglas vigentes de cada Validator al momento de combinarlos, y el
+     * executor y el mensaje de {@link #compare(String, String)} del primero.
+     * @param validators Validators a combinar.
+     * @return Validator combinado.
+     * @throws IllegalArgumentException Si algún Validator tiene reglas asíncronas.
+     */
+    public static Validator anyOf(Validator... validators) {
+        final List<List<Rule>> branches = new ArrayList<>(validators.length);
+        for (Validator validator: validators) branches.add(syncSnapshot(validator).rules);
+        return composed(validators, Snapshot.EMPTY.with(Rule.anyOf(branches)));
+    }
+
+    private static boolean containsTest(List<Rule> rules, Rule rule) {
+        for (Rule other: rules) {
+            if (other.sameTest(rule)) return true;
+        }
+        return false;
+    }
+
+    private static Snapshot syncSnapshot(Validator validator) {
+        final Snapshot snapshot = validator.snapshot;
+        if (!snapshot.asyncRules.isEmpty())
+            throw new IllegalArgumentException("Validators with async rules can not be negated or combined with anyOf");
+        return snapshot;
+    }
+
+    private static Validator composed(Validator[] validators, Snapshot snapshot) {
+        if (validators.length==0) throw new IllegalArgumentException("At least one validator is required");
+        final Validator validator = new Validator();
+        validator.snapshot = snapshot;
+        validator.notMatchMessage = validators[0].notMatchMessage;
+        validator.executor = validators[0].executor;
+        return validator;
+    }
+    //</editor-fold>
+
     //<editor-fold desc="RULES">
 
     /**
@@ -157,7 +883,99 @@ public class Validator implements Cloneable {
      * @param validate Función que retorna true cuando el String a evaluar cumpla las condiciones.
      */
     public void rule(String message, Validate validate) {
-        rules.add(new Rule(message, validate));
+        add(new Rule(message, validate));
+    }
+
+    /**
+     * Crea una regla de validación que recibe las propiedades derivadas del String a evaluar. Las propiedades se
+     * calculan una sola vez por evaluación y se comparten entre las reglas.
+     * <br><br>
+     * <b>Ejemplo:<b/><br>
+     * <code>
+     * <pre>
+     * new Validator().contextRule("Se requieren 2 dígitos", context -> context.digitCount()>=2);
+     * </pre>
+     * </code>
+     *
+     * @param message Mensaje de error.
+     * @param validate Función que retorna true cuando el String a evaluar cumpla las condiciones.
+     */
+    public void contextRule(String message, ContextValidate validate) {
+        add(Rule.context(message, validate));
+    }
+
+    private void add(Rule rule) {
+        Snapshot current;
+        do {
+            current = snapshot;
+        } while (!SNAPSHOT.compareAndSet(this, current, current.with(rule)));
+    }
+
+    private void add(AsyncRule rule) {
+        Snapshot current;
+        do {
+            current = snapshot;
+        } while (!SNAPSHOT.compareAndSet(this, current, current.with(rule)));
+    }
+
+    /**
+     * Crea una regla de validación asíncrona, útil para reglas que consultan servicios lentos. Las reglas asíncronas
+     * se evalúan después de las reglas síncronas, en el executor establecido con {@link #setExecutor(Executor)}.
+     * <br><br>
+     * <b>Ejemplo:<b/><br>
+     * <code>
+     * <pre>
+     * new Validator().asyncRule("El usuario ya existe", evaluate -> users.existsAsync(evaluate).thenApply(it -> !it));
+     * </pre>
+     * </code>
+     *
+     * @param message Mensaje de error.
+     * @param validate Función asíncrona que completa con true cuando el String a evaluar cumpla las condiciones.
+     */
+    public void asyncRule(String message, AsyncValidate validate) {
+        add(new AsyncRule(message, validate));
+    }
+
+    /**
+     * Crea una regla de validación asíncrona que limita la cantidad de evaluaciones simultáneas.
+     * @param message Mensaje de error.
+     * @param maxConcurrency Cantidad máxima de evaluaciones simultáneas de la regla.
+     * @param validate Función asíncrona que completa con true cuando el String a evaluar cumpla las condiciones.
+     */
+    public void asyncRule(String message, int maxConcurrency, AsyncValidate validate) {
+        add(new AsyncRule(message, maxConcurrency, validate));
+    }
+
+    /**
+     * Crea una regla de validación por lotes, útil para reglas que consultan una base de datos o un índice. Se evalúa
+     * junto a las reglas asíncronas y sin agrupar evaluaciones individuales concurrentes.
+     * <br><br>
+     * <b>Ejemplo:<b/><br>
+     * <code>
+     * <pre>
+     * new Validator().batchRule("El usuario ya existe", evaluates -> users.notExist(evaluates));
+     * </pre>
+     * </code>
+     *
+     * @param message Mensaje de error.
+     * @param validate Función que retorna, para cada String del lote y en el mismo orden, true si cumple las
+     *                 condiciones.
+     */
+    public void batchRule(String message, BatchValidate validate) {
+        batchRule(message, DEFAULT_BATCH_SIZE, 0, validate);
+    }
+
+    /**
+     * Crea una regla de validación por lotes que agrupa las evaluaciones individuales concurrentes
+     * ({@link #isValid(String)}, {@link #isValidAsync(String)}) en un mismo lote.
+     * @param message Mensaje de error.
+     * @param maxBatchSize Cantidad máxima de Strings por lote.
+     * @param maxDelayMillis Tiempo máximo de espera, en milisegundos, para completar un lote.
+     * @param validate Función que retorna, para cada String del lote y en el mismo orden, true si cumple las
+     *                 condiciones.
+     */
+    public void batchRule(String message, int maxBatchSize, long maxDelayMillis, BatchValidate validate) {
+        add(new BatchRule(message, maxBatchSize, maxDelayMillis, validate));
     }
 
     // REGLAS DE LONGITUD //////////////////////////////////////////////////////////////////////////////////////////////
@@ -167,7 +985,7 @@ public class Validator implements Cloneable {
      * @param message Mensaje de error.
      */
     public void required(String message) {
-        rule(message, it -> it!=null && !it.isEmpty());
+        add(Rule.required(message));
     }
 
     /**
@@ -183,7 +1001,7 @@ public class Validator implements Cloneable {
      * @param message Mensaje de error.
      */
     public void length(int condition, String message) {
-        rule(String.format(message, condition), it -> it.length()==condition);
+        add(Rule.length(message, condition));
     }
 
     /**
@@ -200,7 +1018,7 @@ public class Validator implements Cloneable {
      * @param message Mensaje de error.
      */
     public void minLength(int condition, String message) {
-        rule(String.format(message, condition), it -> it.length()>=condition);
+        add(Rule.minLength(message, condition));
     }
 
     /**
@@ -217,7 +1035,7 @@ public class Validator implements Cloneable {
      * @param message Mensaje de error.
      */
     public void maxLength(int condition, String message) {
-        rule(String.format(message, condition), it -> it.length()<=condition);
+        add(Rule.maxLength(message, condition));
     }
 
     /**
@@ -235,7 +1053,7 @@ public class Validator implements Cloneable {
      * @param message Mensaje de error.
      */
     public void email(String message) {
-        rule(message, it -> Pattern.compile(EMAIL_RE).matcher(it).find());
+        add(Rule.email(message));
     }
 
     /**
@@ -250,14 +1068,7 @@ public class Validator implements Cloneable {
      * @param message Mensaje de error.
      */
     public void numericFormat(String message) {
-        rule(message, it -> {
-            try {
-                double number = Double.parseDouble(it);
-                return !Double.isNaN(number);
-            } catch (Exception e) {
-                return false;
-            }
-        });
+        add(Rule.numericFormat(message));
     }
 
     /**
@@ -275,13 +1086,7 @@ public class Validator implements Cloneable {
      * @param message  Mensaje de error.
      */
     public void shouldOnlyContain(String condition, String message) {
-        rule(String.format(message, condition), it -> {
-            if (it.isEmpty()) return false;
-            for (char a: it.toCharArray()) {
-                if (!condition.contains(String.valueOf(a))) return false;
-            }
-            return true;
-        });
+        add(Rule.shouldOnlyContain(message, condition));
     }
 
     /**
@@ -313,13 +1118,7 @@ public class Validator implements Cloneable {
      * @param message Mensaje de error.
      */
     public void notContain(String condition, String message) {
-        rule(String.format(message, condition), it -> {
-            if (it.isEmpty()) return false;
-            for (char a: condition.toCharArray()) {
-                if (it.contains(a+"")) return false;
-            }
-            return true;
-        });
+        add(Rule.notContain(message, condition));
     }
 
     /**
@@ -336,12 +1135,7 @@ public class Validator implements Cloneable {
      * @param message Mensaje de error.
      */
     public void mustContainOne(String condition, String message) {
-        rule(String.format(message, condition), it -> {
-            for (char a: condition.toCharArray()) {
-                if (it.contains(a+"")) return true;
-            }
-            return false;
-        });
+        add(Rule.mustContainOne(message, condition));
     }
 
     /**
@@ -361,6 +1155,20 @@ public class Validator implements Cloneable {
         this.notPass = notPass;
     }
 
+    /**
+     * Evento que se invoca al agotarse el presupuesto de tiempo de una evaluación (ver
+     * {@link #setTimeBudget(long, TimeUnit)}), con el índice y el mensaje de la regla que lo superó y el tiempo que
+     * tomó esa regla, en nanosegundos. Las reglas asíncronas se informan con el índice de la primera de ellas, contando
+     * después de las síncronas.
+     * @param budgetExceeded Función con la regla que superó el presupuesto.
+     */
+    public void onBudgetExceeded(BudgetExceeded budgetExceeded) {
+        Budget current;
+        do {
+            current = this.budget;
+        } while (!BUDGET.compareAndSet(this, current, new Budget(current.nanos, current.message, budgetExceeded)));
+    }
+
     @Override
     protected Object clone() throws CloneNotSupportedException {
         return super.clone();
@@ -368,6 +1176,8 @@ public class Validator implements Cloneable {
 
     /**
      * Crea una copia del objeto Validator.<br>
+     * La copia comparte las reglas del original sin copiarlas, y las reglas que se le agreguen después no afectan al
+     * original (ni viceversa).
      * @return copia de Validator.
      */
     public Validator copy() {
@@ -378,14 +1188,119 @@ public class Validator implements Cloneable {
         }
     }
 
+    /**
+     * Crea una sesión de validación incremental, que actualiza el resultado a medida que se agregan o eliminan
+     * caracteres (ver {@link ValidatorSession}).
+     * @return Sesión con el texto vacío.
+     */
+    public ValidatorSession session() {
+        return new ValidatorSession(this);
+    }
+
+    /**
+     * Reglas vigentes de un Validator. Es inmutable y se reemplaza completa al modificar las reglas, por lo que cada
+     * evaluación lee una sola vez la referencia y trabaja sobre un estado coherente, aunque otro hilo la reemplace.
+     */
+    static final class Snapshot {
+
+        private static final Snapshot EMPTY = new Snapshot(RuleList.<Rule>empty(), RuleList.<AsyncRule>empty(), null);
+
+        private final RuleList<Rule> rules;
+        private final RuleList<AsyncRule> asyncRules;
+        private final MethodHandle plan;
+
+        private Snapshot(RuleList<Rule> rules, RuleList<AsyncRule> asyncRules, MethodHandle plan) {
+            this.rules = rules;
+            this.asyncRules = asyncRules;
+            this.plan = plan;
+        }
+
+        private static Snapshot of(Builder builder, boolean compile) {
+            final Snapshot snapshot = new Snapshot(builder.rules, builder.asyncRules, null);
+            return compile || builder.compile ? snapshot.compiled() : snapshot;
+        }
+
+        private Snapshot with(Rule rule) {
+            return new Snapshot(rules.append(rule), asyncRules, null);
+        }
+
+        private Snapshot with(AsyncRule rule) {
+            return new Snapshot(rules, asyncRules.append(rule), plan);
+        }
+
+        private Snapshot compiled() {
+            return new Snapshot(rules, asyncRules, RuleCompiler.compile(rules));
+        }
+
+        private String firstMessage() {
+            return rules.isEmpty() ? asyncRules.get(0).getMessage() : rules.get(0).getMessage();
+        }
+
+        /**
+         * @return Mensaje de cada regla, primero las síncronas y luego las asíncronas, en el orden de los índices de
+         * {@link Failure}.
+         */
+        List<String> messages() {
+            final List<String> messages = new ArrayList<>(rules.size()+asyncRules.size());
+            for (Rule rule: rules) messages.add(rule.getMessage());
+            for (AsyncRule rule: asyncRules) messages.add(rule.getMessage());
+            return messages;
+        }
+
+    }
+
+    /**
+     * Presupuesto de tiempo de las evaluaciones: el tiempo máximo, el mensaje de tiempo agotado y el evento a invocar.
+     * Es inmutable y se reemplaza completo, por lo que una evaluación nunca combina un tiempo nuevo con un mensaje
+     * anterior.
+     */
+    private static final class Budget {
+
+        private final long nanos;
+        private final String message;
+        private final BudgetExceeded exceeded;
+
+        private Budget(long nanos, String message, BudgetExceeded exceeded) {
+            this.nanos = nanos;
+            this.message = message;
+            this.exceeded = exceeded;
+        }
+
+        private void exceeded(int index, String ruleMessage, long start) {
+            if (exceeded!=null) exceeded.invoke(index, ruleMessage, System.nanoTime()-start);
+        }
+
+    }
+
+    /**
+     * Regla que no se cumple: su índice, contando primero las reglas síncronas y luego las asíncronas, y su mensaje.
+     */
+    static final class Failure {
+
+        final int index;
+        final String message;
+
+        Failure(int index, String message) {
+            this.index = index;
+            this.message = message;
+        }
+
+    }
+
     /**
      * Clase que permite construir un Validator de forma secuencial y centralizada.
      */
     public static class Builder {
 
-        private final List<Rule> rules = new ArrayList<>();
+        private RuleList<Rule> rules = RuleList.empty();
+        private RuleList<AsyncRule> asyncRules = RuleList.empty();
         private NotPass notPass;
         private String notMatchMessage = messages.getNotMatchMessage();
+        private Executor executor;
+        private boolean compile;
+        private long timeBudget;
+        private String timeoutMessage;
+        private BudgetExceeded budgetExceeded;
 
         /**
          * Establece el mensaje de error a mostrar, en caso de que la comparación de los String falle en el método
@@ -417,7 +1332,80 @@ public class Validator implements Cloneable {
          * @return Builder
          */
         public Builder rule(String message, Validate validate) {
-            rules.add(new Rule(message, validate));
+            return add(new Rule(message, validate));
+        }
+
+        /**
+         * Crea una regla de validación que recibe las propiedades derivadas del String a evaluar. Las propiedades se
+         * calculan una sola vez por evaluación y se comparten entre las reglas.
+         * <br><br>
+         * <b>Ejemplo:<b/><br>
+         * <code>
+         * <pre>
+         * new Validator.Builder().contextRule("Se requieren 2 dígitos", context -> context.digitCount()>=2);
+         * </pre>
+         * </code>
+         *
+         * @param message Mensaje de error.
+         * @param validate Función que retorna true cuando el String a evaluar cumpla las condiciones.
+         * @return Builder
+         */
+        public Builder contextRule(String message, ContextValidate validate) {
+            return add(Rule.context(message, validate));
+        }
+
+        private Builder add(Rule rule) {
+            rules = rules.append(rule);
+            return this;
+        }
+
+        /**
+         * Crea una regla de validación asíncrona, útil para reglas que consultan servicios lentos. Las reglas
+         * asíncronas se evalúan después de las reglas síncronas.
+         * @param message Mensaje de error.
+         * @param validate Función asíncrona que completa con true cuando el String a evaluar cumpla las condiciones.
+         * @return Builder
+         */
+        public Builder asyncRule(String message, AsyncValidate validate) {
+            asyncRules = asyncRules.append(new AsyncRule(message, validate));
+            return this;
+        }
+
+        /**
+         * Crea una regla de validación asíncrona que limita la cantidad de evaluaciones simultáneas.
+         * @param message Mensaje de error.
+         * @param maxConcurrency Cantidad máxima de evaluaciones simultáneas de la regla.
+         * @param validate Función asíncrona que completa con true cuando el String a evaluar cumpla las condiciones.
+         * @return Builder
+         */
+        public Builder asyncRule(String message, int maxConcurrency, AsyncValidate validate) {
+            asyncRules = asyncRules.append(new AsyncRule(message, maxConcurrency, validate));
+            return this;
+        }
+
+        /**
+         * Crea una regla de validación por lotes, útil para reglas que consultan una base de datos o un índice.
+         * @param message Mensaje de error.
+         * @param validate Función que retorna, para cada String del lote y en el mismo orden, true si cumple las
+         *                 condiciones.
+         * @return Builder
+         */
+        public Builder batchRule(String message, BatchValidate validate) {
+            return batchRule(message, DEFAULT_BATCH_SIZE, 0, validate);
+        }
+
+        /**
+         * Crea una regla de validación por lotes que agrupa las evaluaciones individuales concurrentes en un mismo
+         * lote.
+         * @param message Mensaje de error.
+         * @param maxBatchSize Cantidad máxima de Strings por lote.
+         * @param maxDelayMillis Tiempo máximo de espera, en milisegundos, para completar un lote.
+         * @param validate Función que retorna, para cada String del lote y en el mismo orden, true si cumple las
+         *                 condiciones.
+         * @return Builder
+         */
+        public Builder batchRule(String message, int maxBatchSize, long maxDelayMillis, BatchValidate validate) {
+            asyncRules = asyncRules.append(new BatchRule(message, maxBatchSize, maxDelayMillis, validate));
             return this;
         }
 
@@ -427,7 +1415,7 @@ public class Validator implements Cloneable {
          * @return Builder
          */
         public Builder required(String message) {
-            return rule(message, it -> it!=null && !it.isEmpty());
+            return add(Rule.required(message));
         }
 
         /**
@@ -445,7 +1433,7 @@ public class Validator implements Cloneable {
          * @return Builder
          */
         public Builder length(int condition, String message) {
-            return rule(String.format(message, condition), it -> it.length()==condition);
+            return add(Rule.length(message, condition));
         }
 
         /**
@@ -464,7 +1452,7 @@ public class Validator implements Cloneable {
          * @return Builder
          */
         public Builder minLength(int condition, String message) {
-            return rule(String.format(message, condition), it -> it.length()>=condition);
+            return add(Rule.minLength(message, condition));
         }
 
         /**
@@ -483,7 +1471,7 @@ public class Validator implements Cloneable {
          * @return Builder
          */
         public Builder maxLength(int condition, String message) {
-            return rule(String.format(message, condition), it -> it.length()<=condition);
+            return add(Rule.maxLength(message, condition));
         }
 
         /**
@@ -501,7 +1489,7 @@ public class Validator implements Cloneable {
          * @return Builder
          */
         public Builder email(String message) {
-            return rule(message, it -> Pattern.compile(EMAIL_RE).matcher(it).find());
+            return add(Rule.email(message));
         }
 
         /**
@@ -518,14 +1506,7 @@ public class Validator implements Cloneable {
          * @return Builder
          */
         public Builder numericFormat(String message) {
-            return rule(message, it -> {
-                try {
-                    double number = Double.parseDouble(it);
-                    return !Double.isNaN(number);
-                } catch (Exception e) {
-                    return false;
-                }
-            });
+            return add(Rule.numericFormat(message));
         }
 
         /**
@@ -543,13 +1524,7 @@ public class Validator implements Cloneable {
          * @return Builder
          */
         public Builder shouldOnlyContain(String condition, String message) {
-            return rule(String.format(message, condition), it -> {
-                if (it.isEmpty()) return false;
-                for (char a: it.toCharArray()) {
-                    if (!condition.contains(String.valueOf(a))) return false;
-                }
-                return true;
-            });
+            return add(Rule.shouldOnlyContain(message, condition));
         }
 
         /**
@@ -585,13 +1560,7 @@ public class Validator implements Cloneable {
          * @return Builder
          */
         public Builder notContain(String condition, String message) {
-            return rule(String.format(message, condition), it -> {
-                if (it.isEmpty()) return false;
-                for (char a: condition.toCharArray()) {
-                    if (it.contains(a+"")) return false;
-                }
-                return true;
-            });
+            return add(Rule.notContain(message, condition));
         }
 
         /**
@@ -610,12 +1579,7 @@ public class Validator implements Cloneable {
          * @return Builder
          */
         public Builder mustContainOne(String condition, String message) {
-            return rule(String.format(message, condition), it -> {
-                for (char a: condition.toCharArray()) {
-                    if (it.contains(a+"")) return true;
-                }
-                return false;
-            });
+            return add(Rule.mustContainOne(message, condition));
         }
 
         /**
@@ -638,6 +1602,63 @@ public class Validator implements Cloneable {
             return this;
         }
 
+        /**
+         * Establece el executor donde se evalúan las reglas asíncronas.
+         * @param executor Executor para las reglas asíncronas.
+         * @return Builder
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Establece el tiempo máximo de cada evaluación.
+         * @param budget Tiempo máximo, o 0 para no limitar la evaluación.
+         * @param unit Unidad del tiempo.
+         * @return Builder
+         * @see Validator#setTimeBudget(long, TimeUnit)
+         */
+        public Builder timeBudget(long budget, TimeUnit unit) {
+            if (budget<0) throw new IllegalArgumentException("budget must not be negative");
+            this.timeBudget = unit.toNanos(budget);
+            return this;
+        }
+
+        /**
+         * Establece el tiempo máximo de cada evaluación.
+         * @param budget Tiempo máximo, o 0 para no limitar la evaluación.
+         * @param unit Unidad del tiempo.
+         * @param message Mensaje de error al agotarse el tiempo.
+         * @return Builder
+         * @see Validator#setTimeBudget(long, TimeUnit)
+         */
+        public Builder timeBudget(long budget, TimeUnit unit, String message) {
+            this.timeoutMessage = message;
+            return timeBudget(budget, unit);
+        }
+
+        /**
+         * Evento que se invoca al agotarse el presupuesto de tiempo de una evaluación.
+         * @param budgetExceeded Función con la regla que superó el presupuesto.
+         * @return Builder
+         * @see Validator#onBudgetExceeded(BudgetExceeded)
+         */
+        public Builder budgetExceeded(BudgetExceeded budgetExceeded) {
+            this.budgetExceeded = budgetExceeded;
+            return this;
+        }
+
+        /**
+         * Compila las reglas síncronas del Validator al construirlo.
+         * @return Builder
+         * @see Validator#compile()
+         */
+        public Builder compile() {
+            this.compile = true;
+            return this;
+        }
+
         /**
          * Construye el Validator
          * @return Validator
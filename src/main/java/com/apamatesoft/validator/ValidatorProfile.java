@@ -0,0 +1,363 @@
+package com.apamatesoft.validator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collector;
+
+/**
+ * <h1>ValidatorProfile</h1>
+ *
+ * Perfil de un conjunto de datos evaluado con un Validator, pensado para auditorías de calidad de datos.<br>
+ * En lugar de informar cada valor rechazado, el perfil acumula: la cantidad de valores rechazados por cada regla (la
+ * primera que no se cumple), la distribución de longitudes de todos los valores y de los rechazados, una estimación
+ * HyperLogLog de la cantidad de valores rechazados distintos y una muestra aleatoria uniforme (reservoir sampling) de
+ * tamaño fijo de los valores rechazados por cada regla. La memoria usada no depende de la cantidad de valores.<br>
+ * Los perfiles parciales de varios hilos se combinan con {@link #merge(ValidatorProfile)}, o directamente con
+ * {@link Builder#collector()} sobre un {@link java.util.stream.Stream} paralelo.
+ *
+ * <pre>
+ * ValidatorProfile profile = values.parallelStream().collect(ValidatorProfile.collector(emailValidator));
+ * profile.getRejectedCount();
+ * profile.getSamples(0);
+ * </pre>
+ *
+ * <b>Nota:</b> El perfil no es seguro para hilos; cada hilo debe usar su propio perfil. Usa las reglas vigentes del
+ * Validator al crearse, y los valores null no se cuentan en las distribuciones de longitudes ni en la estimación de
+ * valores distintos.
+ */
+public final class ValidatorProfile {
+
+    /**
+     * Cantidad de intervalos de longitud: el intervalo 0 es la longitud 0 y el intervalo {@code i} las longitudes
+     * desde {@code 2^(i-1)} hasta {@code 2^i-1}.
+     */
+    public static final int LENGTH_BUCKETS = 32;
+
+    private static final int DEFAULT_SAMPLE_SIZE = 16;
+    private static final int DEFAULT_PRECISION = 12;
+
+    private final Validator validator;
+    // Reglas con que se evalúan todos los valores, aunque el Validator se modifique después.
+    private final Validator.Snapshot rules;
+    private final List<String> messages;
+    private final int sampleSize;
+    private final SplittableRandom random;
+
+    private long count;
+    private long rejected;
+    private final long[] failures;
+    private final long[] lengths = new long[LENGTH_BUCKETS];
+    private final long[] rejectedLengths = new long[LENGTH_BUCKETS];
+    private int minLength = Integer.MAX_VALUE;
+    private int maxLength = -1;
+    private long totalLength;
+    private final HyperLogLog distinctRejected;
+    // Por cada regla, los primeros min(failures[i], sampleSize) elementos forman la muestra.
+    private final String[][] samples;
+
+    private ValidatorProfile(Builder builder, Validator.Snapshot rules, long seed) {
+        this.validator = builder.validator;
+        this.rules = rules;
+        this.messages = Collections.unmodifiableList(rules.messages());
+        this.sampleSize = builder.sampleSize;
+        this.random = new SplittableRandom(seed);
+        this.failures = new long[messages.size()];
+        this.distinctRejected = new HyperLogLog(builder.precision);
+        this.samples = new String[messages.size()][sampleSize];
+    }
+
+    /**
+     * @param validator Validator a evaluar.
+     * @return Perfil vacío con el tamaño de muestra y la precisión predeterminados.
+     */
+    public static ValidatorProfile of(Validator validator) {
+        return new Builder(validator).build();
+    }
+
+    /**
+     * @param validator Validator a evaluar.
+     * @return Collector que evalúa los valores de un Stream, secuencial o paralelo, y combina los perfiles parciales.
+     */
+    public static Collector<String, ?, ValidatorProfile> collector(Validator validator) {
+        return new Builder(validator).collector();
+    }
+
+    /**
+     * Evalúa un valor y lo agrega al perfil.
+     * @param value Valor a evaluar.
+     * @return true si el valor pasa la validación.
+     */
+    public boolean add(String value) {
+        count++;
+        final Validator.Failure failure = validator.failure(rules, value).join();
+        if (value!=null) {
+            final int length = value.length();
+            lengths[bucket(length)]++;
+            if (length<minLength) minLength = length;
+            if (length>maxLength) maxLength = length;
+            totalLength += length;
+        }
+        if (failure==null) return true;
+        rejected++;
+        if (value!=null) {
+            rejectedLengths[bucket(value.length())]++;
+            distinctRejected.add(value);
+        }
+        if (failure.index>=0 && failure.index<failures.length) sample(failure.index, value);
+        return false;
+    }
+
+    /**
+     * Evalúa y agrega todos los valores.
+     * @param values Valores a evaluar.
+     * @return El mismo perfil.
+     */
+    public ValidatorProfile addAll(Iterable<String> values) {
+        for (String value: values) add(value);
+        return this;
+    }
+
+    /**
+     * Agrega a este perfil los valores de otro, creado con el mismo Validator y las mismas reglas, tamaño de muestra y
+     * precisión. Las muestras se combinan eligiendo cada valor de uno u otro perfil en proporción a la cantidad de
+     * valores rechazados que representa, por lo que la muestra combinada sigue siendo uniforme.
+     * @param other Perfil a combinar; no se modifica.
+     * @return El mismo perfil.
+     * @throws IllegalArgumentException Si los perfiles no son compatibles.
+     */
+    public ValidatorProfile merge(ValidatorProfile other) {
+        if (other.validator!=validator || other.rules!=rules)
+            throw new IllegalArgumentException("Profiles belong to different Validators or rules");
+        if (other.sampleSize!=sampleSize
+                || other.distinctRejected.getPrecision()!=distinctRejected.getPrecision())
+            throw new IllegalArgumentException("Profiles are not compatible");
+        for (int i = 0; i<failures.length; i++) {
+            if (other.failures[i]>0) mergeSamples(i, other.samples[i], other.failures[i]);
+            failures[i] += other.failures[i];
+        }
+        for (int i = 0; i<LENGTH_BUCKETS; i++) {
+            lengths[i] += other.lengths[i];
+            rejectedLengths[i] += other.rejectedLengths[i];
+        }
+        count += other.count;
+        rejected += other.rejected;
+        minLength = Math.min(minLength, other.minLength);
+        maxLength = Math.max(maxLength, other.maxLength);
+        totalLength += other.totalLength;
+        distinctRejected.merge(other.distinctRejected);
+        return this;
+    }
+
+    /**
+     * Algoritmo R: el valor número {@code n} rechazado por la regla reemplaza un valor de la muestra con probabilidad
+     * {@code sampleSize/n}.
+     */
+    private void sample(int index, String value) {
+        final long seen = ++failures[index];
+        final long slot = seen<=sampleSize ? seen-1 : random.nextLong(seen);
+        if (slot<sampleSize) samples[index][(int) slot] = value;
+    }
+
+    private void mergeSamples(int index, String[] other, long otherCount) {
+        long countA = failures[index], countB = otherCount;
+        final List<String> left = sample(samples[index], countA);
+        final List<String> right = sample(other, countB);
+        final String[] merged = samples[index];
+        final int size = (int) Math.min(sampleSize, countA+countB);
+        for (int i = 0; i<size; i++) {
+            final boolean fromLeft = right.isEmpty() || !left.isEmpty() && random.nextLong(countA+countB)<countA;
+            final List<String> source = fromLeft ? left : right;
+            final int pick = random.nextInt(source.size());
+            merged[i] = source.get(pick);
+            source.set(pick, source.get(source.size()-1));
+            source.remove(source.size()-1);
+            if (fromLeft) countA--;
+            else countB--;
+        }
+    }
+
+    private List<String> sample(String[] sample, long failures) {
+        return new ArrayList<>(Arrays.asList(sample).subList(0, (int) Math.min(sampleSize, failures)));
+    }
+
+    private static int bucket(int length) {
+        return 32-Integer.numberOfLeadingZeros(length);
+    }
+
+    /**
+     * @return Cantidad de valores evaluados.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public long getValidCount() {
+        return count-rejected;
+    }
+
+    public long getRejectedCount() {
+        return rejected;
+    }
+
+    /**
+     * @return Mensaje de cada regla, en el orden de los índices del perfil: primero las reglas síncronas y luego las
+     * asíncronas.
+     */
+    public List<String> getRuleMessages() {
+        return messages;
+    }
+
+    /**
+     * @param ruleIndex Índice de la regla (ver {@link #getRuleMessages()}).
+     * @return Cantidad de valores cuya primera regla incumplida es la indicada.
+     */
+    public long getFailureCount(int ruleIndex) {
+        return failures[ruleIndex];
+    }
+
+    /**
+     * @param ruleIndex Índice de la regla (ver {@link #getRuleMessages()}).
+     * @return Muestra aleatoria uniforme de los valores rechazados por la regla.
+     */
+    public List<String> getSamples(int ruleIndex) {
+        return Collections.unmodifiableList(sample(samples[ruleIndex], failures[ruleIndex]));
+    }
+
+    /**
+     * @return Cantidad de valores por intervalo de longitud (ver {@link #LENGTH_BUCKETS}).
+     */
+    public long[] getLengthHistogram() {
+        return lengths.clone();
+    }
+
+    /**
+     * @return Cantidad de valores rechazados por intervalo de longitud (ver {@link #LENGTH_BUCKETS}).
+     */
+    public long[] getRejectedLengthHistogram() {
+        return rejectedLengths.clone();
+    }
+
+    /**
+     * @return Longitud mínima, o -1 si no hay valores.
+     */
+    public int getMinLength() {
+        return maxLength<0 ? -1 : minLength;
+    }
+
+    /**
+     * @return Longitud máxima, o -1 si no hay valores.
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    public double getMeanLength() {
+        final long values = count-nullCount();
+        return values==0 ? 0 : (double) totalLength/values;
+    }
+
+    /**
+     * @return Cantidad estimada de valores rechazados distintos.
+     */
+    public long getDistinctRejectedEstimate() {
+        return distinctRejected.estimate();
+    }
+
+    private long nullCount() {
+        long values = 0;
+        for (long bucket: lengths) values += bucket;
+        return count-values;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder out = new StringBuilder()
+                .append("ValidatorProfile{count=").append(count)
+                .append(", rejected=").append(rejected)
+                .append(", distinctRejected~").append(getDistinctRejectedEstimate())
+                .append(", length=[").append(getMinLength()).append(", ").append(maxLength).append(']');
+        for (int i = 0; i<failures.length; i++) {
+            if (failures[i]>0) out.append(", '").append(messages.get(i)).append("'=").append(failures[i]);
+        }
+        return out.append('}').toString();
+    }
+
+    //<editor-fold default-state="collapsed" desc="BUILDER">
+    /**
+     * Clase que permite configurar los perfiles de un Validator.
+     */
+    public static class Builder {
+
+        private final Validator validator;
+        private int sampleSize = DEFAULT_SAMPLE_SIZE;
+        private int precision = DEFAULT_PRECISION;
+        private long seed = System.nanoTime();
+
+        /**
+         * @param validator Validator a evaluar.
+         */
+        public Builder(Validator validator) {
+            if (validator==null) throw new IllegalArgumentException("validator must not be null");
+            this.validator = validator;
+        }
+
+        /**
+         * @param sampleSize Cantidad máxima de valores rechazados que se conservan por regla. Por defecto 16.
+         * @return Builder
+         */
+        public Builder sampleSize(int sampleSize) {
+            if (sampleSize<0) throw new IllegalArgumentException("sampleSize must not be negative");
+            this.sampleSize = sampleSize;
+            return this;
+        }
+
+        /**
+         * @param precision Bits de precisión del estimador de valores distintos, entre 4 y 18; usa {@code 2^precision}
+         * bytes. Por defecto 12.
+         * @return Builder
+         */
+        public Builder precision(int precision) {
+            if (precision<HyperLogLog.MIN_PRECISION || precision>HyperLogLog.MAX_PRECISION)
+                throw new IllegalArgumentException("precision must be between "+HyperLogLog.MIN_PRECISION+" and "
+                        +HyperLogLog.MAX_PRECISION);
+            this.precision = precision;
+            return this;
+        }
+
+        /**
+         * @param seed Semilla del muestreo, para obtener muestras reproducibles.
+         * @return Builder
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * @return Perfil vacío.
+         */
+        public ValidatorProfile build() {
+            return new ValidatorProfile(this, validator.snapshot(), seed);
+        }
+
+        /**
+         * @return Collector que crea un perfil por cada parte del Stream, cada uno con una semilla derivada y las
+         * reglas vigentes al crear el Collector, y los combina.
+         */
+        public Collector<String, ?, ValidatorProfile> collector() {
+            final AtomicLong parts = new AtomicLong();
+            final Validator.Snapshot rules = validator.snapshot();
+            return Collector.of(
+                    () -> new ValidatorProfile(this, rules, seed+parts.getAndIncrement()*0x9E3779B97F4A7C15L),
+                    ValidatorProfile::add,
+                    ValidatorProfile::merge);
+        }
+
+    }
+    //</editor-fold>
+
+}
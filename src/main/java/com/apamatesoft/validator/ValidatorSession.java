@@ -0,0 +1,168 @@
+package com.apamatesoft.validator;
+
+import com.apamatesoft.validator.functions.NotPass;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <h1>ValidatorSession</h1>
+ *
+ * Sesión de validación incremental, pensada para validar un campo mientras se escribe.<br>
+ * La sesión mantiene el texto y un estado por cada regla predefinida: la longitud, la cantidad de caracteres dentro o
+ * fuera del conjunto de cada regla de contenido y el estado del autómata de email en cada posición. Así, cada
+ * {@link #append(char)} o {@link #deleteLast()} actualiza el resultado en tiempo constante por regla, en lugar de
+ * volver a recorrer el texto completo con todas las reglas. Las reglas de formato numérico, personalizadas y compuestas
+ * se evalúan sobre el texto completo al consultar el resultado, y solo si las reglas anteriores se cumplen.<br>
+ * <b>Nota:</b> La sesión no es segura para hilos y no evalúa las reglas asíncronas (ver
+ * {@link Validator#isValidAsync(String)}). Usa las reglas vigentes del Validator al crearse o al invocar
+ * {@link #reset()}.
+ */
+public final class ValidatorSession {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Validator validator;
+    private List<Rule> rules;
+    // Por cada regla de contenido, cantidad de caracteres fuera del conjunto (shouldOnlyContain) o dentro (el resto).
+    private int[] counts;
+    private int[] scans;
+    private boolean email;
+    private char[] text = new char[INITIAL_CAPACITY];
+    // Estado del autómata de email tras cada carácter; emailStates[0] es el estado inicial.
+    private byte[] emailStates;
+    private int length;
+    private String string;
+
+    ValidatorSession(Validator validator) {
+        this.validator = validator;
+        reset();
+    }
+
+    /**
+     * Agrega un carácter al final del texto.
+     * @param c Carácter a agregar.
+     * @return La misma sesión.
+     */
+    public ValidatorSession append(char c) {
+        if (length==text.length) text = Arrays.copyOf(text, length*2);
+        text[length++] = c;
+        string = null;
+        for (int index: scans) {
+            final Rule rule = rules.get(index);
+            if (rule.getChars().contains(c)!=(rule.getOp()==Rule.SHOULD_ONLY_CONTAIN)) counts[index]++;
+        }
+        if (email) {
+            if (length==emailStates.length) emailStates = Arrays.copyOf(emailStates, length*2);
+            emailStates[length] = (byte) EmailAutomaton.next(emailStates[length-1], c);
+        }
+        return this;
+    }
+
+    /**
+     * Agrega cada carácter del texto al final.
+     * @param chars Texto a agregar.
+     * @return La misma sesión.
+     */
+    public ValidatorSession append(CharSequence chars) {
+        for (int i = 0; i<chars.length(); i++) append(chars.charAt(i));
+        return this;
+    }
+
+    /**
+     * Elimina el último carácter del texto. Si el texto es vacío, no hace nada.
+     * @return La misma sesión.
+     */
+    public ValidatorSession deleteLast() {
+        if (length==0) return this;
+        final char c = text[--length];
+        string = null;
+        for (int index: scans) {
+            final Rule rule = rules.get(index);
+            if (rule.getChars().contains(c)!=(rule.getOp()==Rule.SHOULD_ONLY_CONTAIN)) counts[index]--;
+        }
+        return this;
+    }
+
+    /**
+     * Vacía el texto y vuelve a leer las reglas vigentes del Validator.
+     * @return La misma sesión.
+     */
+    public ValidatorSession reset() {
+        rules = validator.getRules();
+        counts = new int[rules.size()];
+        int scanCount = 0;
+        email = false;
+        for (Rule rule: rules) {
+            if (isScan(rule)) scanCount++;
+            if (rule.getOp()==Rule.EMAIL) email = true;
+        }
+        scans = new int[scanCount];
+        for (int i = 0, j = 0; i<rules.size(); i++) {
+            if (isScan(rules.get(i))) scans[j++] = i;
+        }
+        emailStates = email ? new byte[INITIAL_CAPACITY+1] : null;
+        length = 0;
+        string = null;
+        return this;
+    }
+
+    /**
+     * @return Longitud del texto.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @return Texto actual.
+     */
+    public String getText() {
+        if (string==null) string = new String(text, 0, length);
+        return string;
+    }
+
+    /**
+     * Valida que el texto actual cumpla todas las reglas síncronas.<br>
+     * <b>Nota:</b> Si el texto no cumple alguna regla, se invocara al evento {@link Validator#onNotPass(NotPass)} del
+     * Validator con el mensaje del error correspondiente.
+     * @return true: si pasa la validación.
+     */
+    public boolean isValid() {
+        final String message = failMessage();
+        if (message==null) return true;
+        final NotPass notPass = validator.getNotPass();
+        if (notPass!=null) notPass.invoke(message);
+        return false;
+    }
+
+    /**
+     * @return Mensaje de error de la primera regla síncrona que no se cumple, o null si pasa la validación.
+     */
+    public String failMessage() {
+        for (int i = 0; i<rules.size(); i++) {
+            final Rule rule = rules.get(i);
+            if (!validate(i, rule)) return rule.getOp()==Rule.ANY_OF ? rule.failMessage(getText()) : rule.getMessage();
+        }
+        return null;
+    }
+
+    private boolean validate(int index, Rule rule) {
+        switch (rule.getOp()) {
+            case Rule.REQUIRED: return length>0;
+            case Rule.LENGTH: return length==rule.getLength();
+            case Rule.MIN_LENGTH: return length>=rule.getLength();
+            case Rule.MAX_LENGTH: return length<=rule.getLength();
+            case Rule.EMAIL: return EmailAutomaton.isAccepting(emailStates[length]);
+            case Rule.SHOULD_ONLY_CONTAIN:
+            case Rule.NOT_CONTAIN: return length>0 && counts[index]==0;
+            case Rule.MUST_CONTAIN_ONE: return counts[index]>0;
+            default: return rule.validate(getText());
+        }
+    }
+
+    private static boolean isScan(Rule rule) {
+        return rule.getOp()==Rule.SHOULD_ONLY_CONTAIN || rule.getOp()==Rule.NOT_CONTAIN
+                || rule.getOp()==Rule.MUST_CONTAIN_ONE;
+    }
+
+}
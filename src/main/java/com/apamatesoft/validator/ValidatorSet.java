@@ -0,0 +1,331 @@
+package com.apamatesoft.validator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <h1>ValidatorSet</h1>
+ *
+ * Conjunto de Validators que se evalúan juntos sobre un mismo String, para clasificarlo entre varios formatos (email,
+ * teléfono, número, documentos de identidad...) sin invocar {@link Validator#isValid(String)} una vez por formato.<br>
+ * Las reglas de todos los Validators se reúnen en un único plan sin duplicados. Un solo recorrido del String calcula a
+ * la vez todas las reglas de contenido ({@code shouldOnlyContain}, {@code notContain}, {@code mustContainOne}), con una
+ * tabla que indica para cada carácter ASCII los conjuntos que lo contienen, y el autómata de email; las reglas de
+ * longitud se resuelven con la longitud del String. Las reglas de formato numérico, personalizadas y compuestas se
+ * evalúan solo para los Validators cuyas demás reglas se cumplen, y una sola vez aunque las compartan varios.<br>
+ * El resultado es una máscara de bits con un bit por Validator, en el orden en que se agregaron.
+ *
+ * <pre>
+ * ValidatorSet formats = new ValidatorSet.Builder()
+ *     .add("email", emailValidator)
+ *     .add("phone", phoneValidator)
+ *     .build();
+ * long mask = formats.matches(value);
+ * </pre>
+ *
+ * <b>Nota:</b> Usa las reglas vigentes de cada Validator al construirse, no invoca los eventos
+ * {@link Validator#onNotPass(com.apamatesoft.validator.functions.NotPass)} y no admite reglas asíncronas. Es
+ * inmutable y puede compartirse entre hilos.
+ */
+public final class ValidatorSet {
+
+    // Cantidad de conjuntos de caracteres que se calculan en el recorrido compartido, uno por bit.
+    private static final int MAX_CLASSES = 64;
+    private static final int ASCII = 128;
+
+    private final List<String> names;
+    private final List<Validator> validators;
+    private final Rule[] rules;
+    private final int words;
+    // Por cada Validator, sus reglas calculadas en el recorrido compartido (máscara) y las demás (índices, en orden).
+    private final long[][] eager;
+    private final int[][] lazy;
+    // Por cada regla, el índice de su conjunto de caracteres en el recorrido compartido, o -1.
+    private final int[] ruleClass;
+    private final CharClass[] classes;
+    private final long classMask;
+    private final long nonAsciiClasses;
+    private final long[] asciiTable = new long[ASCII];
+    private final boolean email;
+
+    private ValidatorSet(Builder builder) {
+        this.names = Collections.unmodifiableList(new ArrayList<>(builder.names));
+        this.validators = Collections.unmodifiableList(new ArrayList<>(builder.validators));
+
+        final List<Rule> rules = new ArrayList<>();
+        final List<int[]> memberRules = new ArrayList<>();
+        for (Validator validator: validators) {
+            final List<Rule> own = validator.getRules();
+            final int[] indexes = new int[own.size()];
+            for (int i = 0; i<own.size(); i++) indexes[i] = indexOf(rules, own.get(i));
+            memberRules.add(indexes);
+        }
+        this.rules = rules.toArray(new Rule[0]);
+        this.words = Math.max(1, (this.rules.length+63)>>>6);
+
+        final List<CharClass> classes = new ArrayList<>();
+        this.ruleClass = new int[this.rules.length];
+        boolean email = false;
+        for (int i = 0; i<this.rules.length; i++) {
+            final Rule rule = this.rules[i];
+            ruleClass[i] = -1;
+            if (isScan(rule)) ruleClass[i] = classIndex(classes, rule.getChars());
+            email |= rule.getOp()==Rule.EMAIL;
+        }
+        this.classes = classes.toArray(new CharClass[0]);
+        this.email = email;
+        long nonAscii = 0;
+        for (int k = 0; k<this.classes.length; k++) {
+            for (char c = 0; c<ASCII; c++) {
+                if (this.classes[k].contains(c)) asciiTable[c] |= 1L<<k;
+            }
+            if (this.classes[k].getOthers().length>0) nonAscii |= 1L<<k;
+        }
+        this.nonAsciiClasses = nonAscii;
+        this.classMask = this.classes.length==MAX_CLASSES ? -1L : (1L<<this.classes.length)-1;
+
+        this.eager = new long[validators.size()][words];
+        this.lazy = new int[validators.size()][];
+        for (int m = 0; m<validators.size(); m++) {
+            final int[] indexes = memberRules.get(m);
+            final int[] lazy = new int[indexes.length];
+            int count = 0;
+            for (int index: indexes) {
+                if (isEager(index)) eager[m][index>>>6] |= 1L<<index;
+                else lazy[count++] = index;
+            }
+            this.lazy[m] = Arrays.copyOf(lazy, count);
+        }
+    }
+
+    /**
+     * @param validators Validators a evaluar, identificados por su posición.
+     * @return Conjunto con los Validators.
+     */
+    public static ValidatorSet of(Validator... validators) {
+        final Builder builder = new Builder();
+        for (int i = 0; i<validators.length; i++) builder.add(Integer.toString(i), validators[i]);
+        return builder.build();
+    }
+
+    private static int indexOf(List<Rule> rules, Rule rule) {
+        for (int i = 0; i<rules.size(); i++) {
+            if (rules.get(i).sameTest(rule)) return i;
+        }
+        rules.add(rule);
+        return rules.size()-1;
+    }
+
+    private static int classIndex(List<CharClass> classes, CharClass chars) {
+        for (int k = 0; k<classes.size(); k++) {
+            if (classes.get(k).getChars().equals(chars.getChars())) return k;
+        }
+        if (classes.size()==MAX_CLASSES) return -1;
+        classes.add(chars);
+        return classes.size()-1;
+    }
+
+    private static boolean isScan(Rule rule) {
+        return rule.getOp()==Rule.SHOULD_ONLY_CONTAIN || rule.getOp()==Rule.NOT_CONTAIN
+                || rule.getOp()==Rule.MUST_CONTAIN_ONE;
+    }
+
+    /**
+     * @return true si la regla se calcula para todos los Validators a partir del recorrido compartido.
+     */
+    private boolean isEager(int index) {
+        switch (rules[index].getOp()) {
+            case Rule.REQUIRED:
+            case Rule.LENGTH:
+            case Rule.MIN_LENGTH:
+            case Rule.MAX_LENGTH:
+            case Rule.EMAIL:
+                return true;
+            case Rule.SHOULD_ONLY_CONTAIN:
+            case Rule.NOT_CONTAIN:
+            case Rule.MUST_CONTAIN_ONE:
+                return ruleClass[index]>=0;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @param evaluate String a evaluar.
+     * @return Máscara con un bit por cada Validator que se cumple (el bit {@code i} corresponde al Validator agregado
+     * en la posición {@code i}). Un String null no cumple ningún Validator.
+     * @throws IllegalStateException Si el conjunto tiene más de 64 Validators (ver {@link #matches(String, long[])}).
+     */
+    public long matches(String evaluate) {
+        if (validators.size()>64)
+            throw new IllegalStateException("More than 64 validators, use matches(String, long[])");
+        final long[] result = new long[1];
+        matches(evaluate, result);
+        return result[0];
+    }
+
+    /**
+     * @param evaluate String a evaluar.
+     * @param result Máscara de al menos {@code (size()+63)/64} elementos, donde se escribe un bit por cada Validator
+     * que se cumple: el bit {@code i%64} del elemento {@code i/64}.
+     */
+    public void matches(String evaluate, long[] result) {
+        if (result.length<(validators.size()+63)>>>6) throw new IllegalArgumentException("result is too short");
+        Arrays.fill(result, 0);
+        if (evaluate==null) return;
+        final long[] passed = new long[words];
+        final long[] known = new long[words];
+        evaluateEager(evaluate, passed);
+        for (int m = 0; m<validators.size(); m++) {
+            if (matches(m, evaluate, passed, known)) result[m>>>6] |= 1L<<m;
+        }
+    }
+
+    /**
+     * @param evaluate String a evaluar.
+     * @return Nombres de los Validators que se cumplen, en el orden en que se agregaron.
+     */
+    public List<String> matchingNames(String evaluate) {
+        final long[] result = new long[Math.max(1, (validators.size()+63)>>>6)];
+        matches(evaluate, result);
+        final List<String> matching = new ArrayList<>();
+        for (int m = 0; m<validators.size(); m++) {
+            if ((result[m>>>6] & 1L<<m)!=0) matching.add(names.get(m));
+        }
+        return matching;
+    }
+
+    /**
+     * Calcula en un solo recorrido del String los conjuntos de caracteres y el autómata de email, y con ellos y la
+     * longitud, todas las reglas que no dependen de otras evaluaciones.
+     */
+    private void evaluateEager(String evaluate, long[] passed) {
+        final int length = evaluate.length();
+        long any = 0, all = classMask;
+        int state = email ? EmailAutomaton.START : EmailAutomaton.DEAD;
+        for (int i = 0; i<length; i++) {
+            // Los resultados ya no cambian: todos los conjuntos se encontraron y ninguno contiene todos los caracteres.
+            if (any==classMask && all==0 && state==EmailAutomaton.DEAD) break;
+            final char c = evaluate.charAt(i);
+            final long bits = c<ASCII ? asciiTable[c] : nonAscii(c);
+            any |= bits;
+            all &= bits;
+            if (state!=EmailAutomaton.DEAD) state = EmailAutomaton.next(state, c);
+        }
+        final boolean isEmail = EmailAutomaton.isAccepting(state);
+        for (int i = 0; i<rules.length; i++) {
+            final Rule rule = rules[i];
+            final int k = ruleClass[i];
+            final boolean valid;
+            switch (rule.getOp()) {
+                case Rule.REQUIRED: valid = length>0; break;
+                case Rule.LENGTH: valid = length==rule.getLength(); break;
+                case Rule.MIN_LENGTH: valid = length>=rule.getLength(); break;
+                case Rule.MAX_LENGTH: valid = length<=rule.getLength(); break;
+                case Rule.EMAIL: valid = isEmail; break;
+                case Rule.SHOULD_ONLY_CONTAIN: valid = k>=0 && length>0 && (all & 1L<<k)!=0; break;
+                case Rule.NOT_CONTAIN: valid = k>=0 && length>0 && (any & 1L<<k)==0; break;
+                case Rule.MUST_CONTAIN_ONE: valid = k>=0 && (any & 1L<<k)!=0; break;
+                default: valid = false; break;
+            }
+            if (valid) passed[i>>>6] |= 1L<<i;
+        }
+    }
+
+    private long nonAscii(char c) {
+        long bits = 0;
+        for (long pending = nonAsciiClasses; pending!=0; pending &= pending-1) {
+            final int k = Long.numberOfTrailingZeros(pending);
+            if (classes[k].contains(c)) bits |= 1L<<k;
+        }
+        return bits;
+    }
+
+    /**
+     * @return true si el Validator se cumple. Sus reglas restantes se evalúan en orden y su resultado se recuerda en
+     * {@code passed} y {@code known} para los demás Validators.
+     */
+    private boolean matches(int member, String evaluate, long[] passed, long[] known) {
+        final long[] required = eager[member];
+        for (int w = 0; w<words; w++) {
+            if ((required[w] & ~passed[w])!=0) return false;
+        }
+        for (int index: lazy[member]) {
+            final int w = index>>>6;
+            final long bit = 1L<<index;
+            if ((known[w] & bit)==0) {
+                if (rules[index].validate(evaluate)) passed[w] |= bit;
+                known[w] |= bit;
+            }
+            if ((passed[w] & bit)==0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return Cantidad de Validators.
+     */
+    public int size() {
+        return validators.size();
+    }
+
+    /**
+     * @return Nombres de los Validators, en el orden de los bits del resultado.
+     */
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * @param index Posición del Validator.
+     * @return Validator en la posición.
+     */
+    public Validator getValidator(int index) {
+        return validators.get(index);
+    }
+
+    /**
+     * @return Cantidad de reglas distintas del plan combinado.
+     */
+    int ruleCount() {
+        return rules.length;
+    }
+
+    //<editor-fold default-state="collapsed" desc="BUILDER">
+    /**
+     * Clase que permite construir un ValidatorSet de forma secuencial.
+     */
+    public static class Builder {
+
+        private final List<String> names = new ArrayList<>();
+        private final List<Validator> validators = new ArrayList<>();
+
+        /**
+         * Agrega un Validator al conjunto; su bit en el resultado es su posición.
+         * @param name Nombre del formato.
+         * @param validator Validator del formato.
+         * @return Builder
+         * @throws IllegalArgumentException Si el Validator tiene reglas asíncronas.
+         */
+        public Builder add(String name, Validator validator) {
+            if (!validator.getAsyncRules().isEmpty())
+                throw new IllegalArgumentException("Validator '"+name+"' has async rules");
+            names.add(name);
+            validators.add(validator);
+            return this;
+        }
+
+        /**
+         * Construye el ValidatorSet
+         * @return ValidatorSet
+         */
+        public ValidatorSet build() {
+            return new ValidatorSet(this);
+        }
+
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,212 @@
+package com.apamatesoft.validator;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <h1>ValidatorSnapshot</h1>
+ *
+ * Formato binario versionado con las reglas ya construidas de un conjunto de Validators: el código de operación y los
+ * operandos de cada regla, los mapas de bits de los conjuntos de caracteres y los mensajes ya formateados.<br>
+ * El archivo se genera una vez (por ejemplo, al compilar la aplicación) con {@link #write(Map, Path)} y se lee al
+ * iniciar con {@link #load(Path)} a través de un buffer mapeado en memoria de solo lectura, por lo que no se vuelven a
+ * construir los conjuntos de caracteres ni a formatear los mensajes, y los procesos de un mismo equipo comparten las
+ * páginas del archivo.<br>
+ * <b>Nota:</b> Solo admite Validators con reglas predefinidas; las reglas personalizadas, compuestas y asíncronas no
+ * pueden guardarse.
+ *
+ * <pre>
+ * snapshot  := MAGIC:int VERSION:short count:int validator*
+ * validator := name:str notMatchMessage:str flags:byte ruleCount:int rule*
+ * rule      := op:byte message:str operand
+ * operand   := length:int                                       (LENGTH, MIN_LENGTH, MAX_LENGTH)
+ *            | chars:str low:long high:long n:int others:char*n  (SHOULD_ONLY_CONTAIN, NOT_CONTAIN, MUST_CONTAIN_ONE)
+ *            | ε
+ * str       := n:int utf8:byte*n                                 (n = -1 para null)
+ * </pre>
+ */
+public final class ValidatorSnapshot {
+
+    static final int MAGIC = 0x56414C53; // "VALS"
+    static final short VERSION = 1;
+
+    private static final byte COMPILED = 1;
+
+    private ValidatorSnapshot() { }
+
+    /**
+     * Guarda los Validators en un archivo. Se escribe primero un archivo temporal en el mismo directorio, que luego
+     * reemplaza al de destino con un movimiento atómico: un proceso que lo lea al mismo tiempo, o tras una falla a
+     * mitad de la escritura, ve el archivo anterior o el nuevo completo, nunca uno truncado.
+     * @param validators Validators por nombre.
+     * @param file Archivo de destino.
+     * @throws IOException Si no se puede escribir el archivo.
+     * @throws IllegalArgumentException Si algún Validator tiene reglas personalizadas, compuestas o asíncronas.
+     */
+    public static void write(Map<String, Validator> validators, Path file) throws IOException {
+        final Path target = file.toAbsolutePath();
+        final Path temp = target.resolveSibling("."+target.getFileName()+"."
+                +Long.toHexString(ThreadLocalRandom.current().nextLong())+".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE)) {
+                final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                        Channels.newOutputStream(channel)));
+                out.writeInt(MAGIC);
+                out.writeShort(VERSION);
+                out.writeInt(validators.size());
+                for (Map.Entry<String, Validator> entry: validators.entrySet()) {
+                    write(out, entry.getKey(), entry.getValue());
+                }
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Carga los Validators de un archivo generado con {@link #write(Map, Path)}.
+     * @param file Archivo.
+     * @return Validators por nombre, en el orden en que se guardaron.
+     * @throws IOException Si no se puede leer el archivo, o no es un snapshot de una versión compatible.
+     */
+    public static Map<String, Validator> load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Lee los Validators de un buffer con el formato de {@link #write(Map, Path)}.
+     * @param buffer Buffer posicionado al inicio del snapshot.
+     * @return Validators por nombre.
+     * @throws IOException Si el buffer no es un snapshot de una versión compatible.
+     */
+    static Map<String, Validator> read(ByteBuffer buffer) throws IOException {
+        try {
+            if (buffer.getInt()!=MAGIC) throw new IOException("Not a validator snapshot");
+            final short version = buffer.getShort();
+            if (version!=VERSION) throw new IOException("Unsupported snapshot version: "+version);
+            final int count = buffer.getInt();
+            final Map<String, Validator> validators = new LinkedHashMap<>();
+            for (int i = 0; i<count; i++) {
+                final String name = readString(buffer);
+                final String notMatchMessage = readString(buffer);
+                final boolean compiled = (buffer.get() & COMPILED)!=0;
+                final int ruleCount = buffer.getInt();
+                final List<Rule> rules = new ArrayList<>(ruleCount);
+                for (int j = 0; j<ruleCount; j++) rules.add(readRule(buffer));
+                validators.put(name, new Validator(rules, notMatchMessage, compiled));
+            }
+            return validators;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Corrupted validator snapshot", e);
+        }
+    }
+
+    private static void write(DataOutputStream out, String name, Validator validator) throws IOException {
+        if (!validator.getAsyncRules().isEmpty())
+            throw new IllegalArgumentException("Validator '"+name+"' has async rules");
+        writeString(out, name);
+        writeString(out, validator.getNotMatchMessage());
+        out.writeByte(validator.isCompiled() ? COMPILED : 0);
+        out.writeInt(validator.getRules().size());
+        for (Rule rule: validator.getRules()) {
+            if (rule.getOp()==Rule.CUSTOM || rule.getOp()>Rule.MUST_CONTAIN_ONE)
+                throw new IllegalArgumentException("Validator '"+name+"' has custom or composite rules");
+            out.writeByte(rule.getOp());
+            writeString(out, rule.getMessage());
+            switch (rule.getOp()) {
+                case Rule.LENGTH:
+                case Rule.MIN_LENGTH:
+                case Rule.MAX_LENGTH:
+                    out.writeInt(rule.getLength());
+                    break;
+                case Rule.SHOULD_ONLY_CONTAIN:
+                case Rule.NOT_CONTAIN:
+                case Rule.MUST_CONTAIN_ONE:
+                    final CharClass chars = rule.getChars();
+                    writeString(out, chars.getChars());
+                    out.writeLong(chars.getLow());
+                    out.writeLong(chars.getHigh());
+                    out.writeInt(chars.getOthers().length);
+                    for (char c: chars.getOthers()) out.writeChar(c);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private static Rule readRule(ByteBuffer buffer) {
+        final int op = buffer.get();
+        final String message = readString(buffer);
+        switch (op) {
+            case Rule.LENGTH:
+            case Rule.MIN_LENGTH:
+            case Rule.MAX_LENGTH:
+                return Rule.of(message, op, buffer.getInt(), null);
+            case Rule.SHOULD_ONLY_CONTAIN:
+            case Rule.NOT_CONTAIN:
+            case Rule.MUST_CONTAIN_ONE:
+                final String chars = readString(buffer);
+                final long low = buffer.getLong();
+                final long high = buffer.getLong();
+                final char[] others = new char[length(buffer, 2)];
+                buffer.asCharBuffer().get(others);
+                buffer.position(buffer.position()+others.length*2);
+                return Rule.of(message, op, 0, CharClass.of(chars, low, high, others));
+            default:
+                return Rule.of(message, op, 0, null);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value==null) {
+            out.writeInt(-1);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        if (buffer.getInt(buffer.position())<0) {
+            buffer.getInt();
+            return null;
+        }
+        final byte[] bytes = new byte[length(buffer, 1)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Lee la longitud de un arreglo y verifica que el buffer lo contenga, para no reservar memoria de más con un
+     * archivo dañado.
+     */
+    private static int length(ByteBuffer buffer, int size) {
+        final int length = buffer.getInt();
+        if (length<0 || (long) length*size>buffer.remaining()) throw new BufferUnderflowException();
+        return length;
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.apamatesoft.validator.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Valida que el String a evaluar tenga un formato de email
+ * @see com.apamatesoft.validator.Validator.Builder#email(String)
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface Email {
+    String message() default "";
+}
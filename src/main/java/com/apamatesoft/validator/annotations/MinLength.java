@@ -0,0 +1,17 @@
+package com.apamatesoft.validator.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Valida que el String a evaluar tenga una longitud de caracteres minima a la condición.
+ * @see com.apamatesoft.validator.Validator.Builder#minLength(int, String)
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface MinLength {
+    int value();
+    String message() default "";
+}
@@ -0,0 +1,17 @@
+package com.apamatesoft.validator.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Valida que el String a evaluar no contenga algún carácter incluido en el String de la condición.
+ * @see com.apamatesoft.validator.Validator.Builder#notContain(String, String)
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface NotContain {
+    String value();
+    String message() default "";
+}
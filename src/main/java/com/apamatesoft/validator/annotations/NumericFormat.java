@@ -0,0 +1,16 @@
+package com.apamatesoft.validator.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Valida que el String a evaluar tenga un formato numérico.
+ * @see com.apamatesoft.validator.Validator.Builder#numericFormat(String)
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface NumericFormat {
+    String message() default "";
+}
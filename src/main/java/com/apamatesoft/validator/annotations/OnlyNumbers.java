@@ -0,0 +1,16 @@
+package com.apamatesoft.validator.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Valida que el Staring a evaluar solo contenga caracteres numéricos.
+ * @see com.apamatesoft.validator.Validator.Builder#onlyNumbers(String)
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface OnlyNumbers {
+    String message() default "";
+}
@@ -0,0 +1,17 @@
+package com.apamatesoft.validator.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Valida que el String a evaluar solo contenga caracteres incluidos en el String de condición.
+ * @see com.apamatesoft.validator.Validator.Builder#shouldOnlyContain(String, String)
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface ShouldOnlyContain {
+    String value();
+    String message() default "";
+}
@@ -0,0 +1,13 @@
+package com.apamatesoft.validator.exceptions;
+
+/**
+ * Excepción arrojada cuando la evaluación supera el presupuesto de tiempo del Validator, sin llegar a determinar si el
+ * String cumple las reglas.
+ */
+public class EvaluationTimeoutException extends InvalidEvaluationException {
+
+    public EvaluationTimeoutException(String message, String value) {
+        super(message, value);
+    }
+
+}
@@ -0,0 +1,8 @@
+package com.apamatesoft.validator.functions;
+
+import java.util.concurrent.CompletableFuture;
+
+@FunctionalInterface
+public interface AsyncValidate {
+    CompletableFuture<Boolean> invoke(String evaluate);
+}
@@ -0,0 +1,8 @@
+package com.apamatesoft.validator.functions;
+
+import java.util.List;
+
+@FunctionalInterface
+public interface BatchValidate {
+    boolean[] invoke(List<String> evaluates);
+}
@@ -0,0 +1,6 @@
+package com.apamatesoft.validator.functions;
+
+@FunctionalInterface
+public interface BudgetExceeded {
+    void invoke(int ruleIndex, String ruleMessage, long elapsedNanos);
+}
@@ -0,0 +1,8 @@
+package com.apamatesoft.validator.functions;
+
+import com.apamatesoft.validator.EvaluationContext;
+
+@FunctionalInterface
+public interface ContextValidate {
+    boolean invoke(EvaluationContext context);
+}
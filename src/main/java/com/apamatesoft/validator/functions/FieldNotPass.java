@@ -0,0 +1,6 @@
+package com.apamatesoft.validator.functions;
+
+@FunctionalInterface
+public interface FieldNotPass {
+    void invoke(String field, String message);
+}
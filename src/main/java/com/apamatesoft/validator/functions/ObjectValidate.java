@@ -0,0 +1,6 @@
+package com.apamatesoft.validator.functions;
+
+@FunctionalInterface
+public interface ObjectValidate<T> {
+    boolean invoke(T evaluate);
+}
@@ -12,4 +12,8 @@ public interface Messages {
     String getOnlyNumbersMessage();
     String getNotContainMessage();
     String getMustContainOneMessage();
+
+    default String getTimeoutMessage() {
+        return "Validation timed out";
+    }
 }
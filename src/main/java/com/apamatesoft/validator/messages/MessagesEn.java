@@ -57,4 +57,9 @@ public class MessagesEn implements Messages {
         return "At least one of the following characters is required: %s";
     }
 
+    @Override
+    public String getTimeoutMessage() {
+        return "Validation timed out";
+    }
+
 }
@@ -57,4 +57,9 @@ public class MessagesEs implements Messages {
         return "Se requiere al menos uno de los siguientes caracteres: %s";
     }
 
+    @Override
+    public String getTimeoutMessage() {
+        return "Tiempo de validaci\u00f3n agotado";
+    }
+
 }
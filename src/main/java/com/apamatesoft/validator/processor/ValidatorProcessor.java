@@ -0,0 +1,209 @@
+package com.apamatesoft.validator.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * <h1>ValidatorProcessor</h1>
+ *
+ * Procesador de anotaciones que genera, en tiempo de compilación, una clase {@code <Tipo>Validator} por cada clase con
+ * campos anotados con las reglas del paquete {@code com.apamatesoft.validator.annotations}.<br>
+ * La clase generada declara un {@link com.apamatesoft.validator.Validator} por campo, construido con las reglas
+ * predefinidas de {@link com.apamatesoft.validator.Validator.Builder}, y accede a los campos directamente o a través
+ * de sus getters, sin reflexión. Los identificadores propios de la clase generada llevan el carácter {@code $}, para
+ * no coincidir con los nombres de los campos.
+ */
+public class ValidatorProcessor extends AbstractProcessor {
+
+    private static final String PACKAGE = "com.apamatesoft.validator.annotations";
+
+    private static final List<String> RULES = Arrays.asList(
+            "Required", "Length", "MinLength", "MaxLength", "Email", "NumericFormat", "ShouldOnlyContain", "OnlyNumbers",
+            "NotContain", "MustContainOne");
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        final Set<String> types = new HashSet<>();
+        for (String rule: RULES) types.add(PACKAGE+"."+rule);
+        return types;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        final Map<TypeElement, List<VariableElement>> types = new LinkedHashMap<>();
+        for (TypeElement annotation: annotations) {
+            for (VariableElement field: ElementFilter.fieldsIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+                final TypeElement type = (TypeElement) field.getEnclosingElement();
+                final List<VariableElement> fields = types.computeIfAbsent(type, it -> new ArrayList<>());
+                if (!fields.contains(field)) fields.add(field);
+            }
+        }
+        for (Map.Entry<TypeElement, List<VariableElement>> entry: types.entrySet()) {
+            final List<VariableElement> fields = new ArrayList<>();
+            for (VariableElement field: ElementFilter.fieldsIn(entry.getKey().getEnclosedElements())) {
+                if (entry.getValue().contains(field)) fields.add(field);
+            }
+            generate(entry.getKey(), fields);
+        }
+        return true;
+    }
+
+    private void generate(TypeElement type, List<VariableElement> fields) {
+        if (type.getModifiers().contains(Modifier.PRIVATE)) {
+            error(type, "Validated types must not be private");
+            return;
+        }
+        final String packageName = packageOf(type).getQualifiedName().toString();
+        final String typeName = type.getQualifiedName().toString();
+        final String simpleName = (packageName.isEmpty() ? typeName : typeName.substring(packageName.length()+1))
+                .replace('.', '_')+"Validator";
+
+        final List<String> accessors = new ArrayList<>();
+        for (VariableElement field: fields) {
+            if (!field.asType().toString().equals(String.class.getName())) {
+                error(field, "Validated fields must be of type String");
+                return;
+            }
+            final String accessor = accessor(type, field);
+            if (accessor==null) {
+                error(field, "Validated fields must be non-private or have a non-private getter");
+                return;
+            }
+            accessors.add(accessor);
+        }
+
+        final StringBuilder out = new StringBuilder();
+        if (!packageName.isEmpty()) out.append("package ").append(packageName).append(";\n\n");
+        out.append("import com.apamatesoft.validator.Validator;\n")
+                .append("import com.apamatesoft.validator.exceptions.InvalidEvaluationException;\n")
+                .append("import com.apamatesoft.validator.functions.FieldNotPass;\n\n")
+                .append("/**\n")
+                .append(" * Validator de {@link ").append(typeName).append("}, generado por ValidatorProcessor.\n")
+                .append(" */\n")
+                .append("public final class ").append(simpleName).append(" {\n\n");
+
+        for (VariableElement field: fields) {
+            out.append("    private final Validator ").append(validatorName(field))
+                    .append(" = new Validator.Builder()\n");
+            for (AnnotationMirror mirror: field.getAnnotationMirrors()) {
+                final String rule = rule(mirror);
+                if (rule!=null) out.append("            .").append(rule).append("\n");
+            }
+            out.append("            .build();\n\n");
+        }
+
+        out.append("    private FieldNotPass $notPass;\n\n")
+                .append("    public boolean isValid(").append(typeName).append(" $evaluate) {\n")
+                .append("        boolean $valid = true;\n")
+                .append("        String $message;\n");
+        for (int i = 0; i<fields.size(); i++) {
+            final String name = fields.get(i).getSimpleName().toString();
+            out.append("        if (($message = ").append(validatorName(fields.get(i))).append(".failMessage(")
+                    .append(accessors.get(i)).append("))!=null) {\n")
+                    .append("            $valid = false;\n")
+                    .append("            if ($notPass!=null) $notPass.invoke(\"").append(name)
+                    .append("\", $message);\n")
+                    .append("        }\n");
+        }
+        out.append("        return $valid;\n")
+                .append("    }\n\n")
+                .append("    public void isValidOrFail(").append(typeName)
+                .append(" $evaluate) throws InvalidEvaluationException {\n")
+                .append("        String $value;\n")
+                .append("        String $message;\n");
+        for (int i = 0; i<fields.size(); i++) {
+            out.append("        $value = ").append(accessors.get(i)).append(";\n")
+                    .append("        if (($message = ").append(validatorName(fields.get(i)))
+                    .append(".failMessage($value))!=null) throw new InvalidEvaluationException($message, $value);\n");
+        }
+        out.append("    }\n\n")
+                .append("    public void onNotPass(FieldNotPass notPass) {\n")
+                .append("        $notPass = notPass;\n")
+                .append("    }\n\n")
+                .append("}\n");
+
+        final String qualifiedName = packageName.isEmpty() ? simpleName : packageName+"."+simpleName;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(out.toString());
+        } catch (IOException e) {
+            error(type, "Unable to write "+qualifiedName+": "+e.getMessage());
+        }
+    }
+
+    private String rule(AnnotationMirror mirror) {
+        final TypeElement annotation = (TypeElement) mirror.getAnnotationType().asElement();
+        if (!packageOf(annotation).getQualifiedName().contentEquals(PACKAGE)) return null;
+        final String name = annotation.getSimpleName().toString();
+        if (!RULES.contains(name)) return null;
+
+        Object value = null;
+        String message = "";
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry:
+                processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+            final String key = entry.getKey().getSimpleName().toString();
+            if (key.equals("value")) value = entry.getValue().getValue();
+            else if (key.equals("message")) message = (String) entry.getValue().getValue();
+        }
+
+        final List<String> arguments = new ArrayList<>();
+        if (value!=null) arguments.add(processingEnv.getElementUtils().getConstantExpression(value));
+        if (!message.isEmpty()) arguments.add(processingEnv.getElementUtils().getConstantExpression(message));
+        return Character.toLowerCase(name.charAt(0))+name.substring(1)+"("+String.join(", ", arguments)+")";
+    }
+
+    private String accessor(TypeElement type, VariableElement field) {
+        final String name = field.getSimpleName().toString();
+        if (!field.getModifiers().contains(Modifier.PRIVATE)) return "$evaluate."+name;
+        final String capitalized = Character.toUpperCase(name.charAt(0))+name.substring(1);
+        for (ExecutableElement method: ElementFilter.methodsIn(type.getEnclosedElements())) {
+            final String methodName = method.getSimpleName().toString();
+            if ((methodName.equals("get"+capitalized) || methodName.equals(name))
+                    && method.getParameters().isEmpty()
+                    && !method.getModifiers().contains(Modifier.PRIVATE)
+                    && !method.getModifiers().contains(Modifier.STATIC)
+                    && method.getReturnType().toString().equals(String.class.getName()))
+                return "$evaluate."+methodName+"()";
+        }
+        return null;
+    }
+
+    private static String validatorName(VariableElement field) {
+        return "v$"+field.getSimpleName();
+    }
+
+    private static PackageElement packageOf(Element element) {
+        while (element.getKind()!=ElementKind.PACKAGE) element = element.getEnclosingElement();
+        return (PackageElement) element;
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+}
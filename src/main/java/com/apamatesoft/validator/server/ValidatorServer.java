@@ -0,0 +1,362 @@
+package com.apamatesoft.validator.server;
+
+import com.apamatesoft.validator.Validator;
+import com.apamatesoft.validator.spec.ValidatorRegistry;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <h1>ValidatorServer</h1>
+ *
+ * Servidor HTTP local que expone los Validators de un {@link ValidatorRegistry}, para que servicios escritos en otros
+ * lenguajes usen las mismas reglas. Se basa en {@code com.sun.net.httpserver}, incluido en el JDK, por lo que no
+ * requiere dependencias. Los textos se evalúan como bytes UTF-8, sin decodificarlos (ver
+ * {@link Validator#failMessageUtf8(byte[], int, int)}).
+ *
+ * <pre>
+ * GET  /validators        Nombres de los Validators, uno por línea.
+ * POST /validate/{name}   El cuerpo es el texto a evaluar. Responde una línea de resultado.
+ * POST /batch/{name}      El cuerpo son textos separados por saltos de línea. Responde una línea de resultado por
+ *                         texto, a medida que se evalúan.
+ * </pre>
+ *
+ * Cada línea de resultado es {@code 1} si el texto pasa la validación, {@code 0<TAB>mensaje} si no la pasa, o
+ * {@code !<TAB>motivo} si el texto no pudo evaluarse (por ejemplo, por superar {@link Builder#maxBodySize(int)}).<br>
+ * Las solicitudes se atienden en un grupo acotado de hilos con una cola acotada; cuando la cola se llena, el hilo que
+ * acepta las conexiones atiende la solicitud, lo que frena la aceptación de nuevas conexiones.<br>
+ * <b>Nota:</b> El servidor del JDK no activa TCP_NODELAY, por lo que cada respuesta queda retenida por el algoritmo de
+ * Nagle hasta el ACK retardado del cliente (unos 40 ms por solicitud). Al integrar el servidor en una aplicación, se
+ * recomienda iniciar la JVM con {@code -Dsun.net.httpserver.nodelay=true}; {@link #main(String[])} ya lo activa.
+ */
+public class ValidatorServer implements Closeable {
+
+    public static final int DEFAULT_PORT = 8080;
+
+    private static final byte[] PASS = { '1', '\n' };
+    private static final byte[] TOO_LARGE = "!\tLine too large\n".getBytes(StandardCharsets.US_ASCII);
+    private static final String TEXT_PLAIN = "text/plain; charset=utf-8";
+
+    private final ValidatorRegistry registry;
+    private final int maxBodySize;
+    private final HttpServer server;
+    private final ThreadPoolExecutor executor;
+
+    private ValidatorServer(Builder builder) throws IOException {
+        registry = builder.registry;
+        maxBodySize = builder.maxBodySize;
+        final AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(builder.threads, builder.threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(builder.queueCapacity), runnable -> {
+                    final Thread thread = new Thread(runnable, "validator-server-"+count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        server = HttpServer.create(builder.address, builder.backlog);
+        server.setExecutor(executor);
+        server.createContext("/validators", handler(this::names));
+        server.createContext("/validate/", handler(this::validate));
+        server.createContext("/batch/", handler(this::batch));
+        server.start();
+    }
+
+    /**
+     * @return Puerto en el que escucha el servidor.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Detiene el servidor, esperando hasta un segundo a que terminen las solicitudes en curso.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    /**
+     * Inicia un servidor con los Validators declarados en un archivo o directorio .properties, o en un snapshot.<br>
+     * Uso: {@code ValidatorServer <archivo, directorio o snapshot> [puerto] [hilos]}
+     * @param args Ruta de las declaraciones, puerto e hilos.
+     * @throws IOException Si no se pueden leer las declaraciones o abrir el puerto.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length<1 || args.length>3) {
+            System.err.println("Usage: ValidatorServer <specs file, directory or snapshot> [port] [threads]");
+            System.exit(2);
+        }
+        // El proceso es solo el servidor, por lo que se activa TCP_NODELAY salvo que se indique otro valor con -D.
+        if (System.getProperty("sun.net.httpserver.nodelay")==null)
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        final Path path = Paths.get(args[0]);
+        final ValidatorRegistry registry;
+        if (Files.isDirectory(path) || path.toString().endsWith(".properties")) {
+            registry = ValidatorRegistry.load(path);
+            registry.watch();
+        } else {
+            registry = ValidatorRegistry.loadSnapshot(path);
+        }
+        final Builder builder = new Builder(registry);
+        if (args.length>1) builder.port(Integer.parseInt(args[1]));
+        if (args.length>2) builder.threads(Integer.parseInt(args[2]));
+        final ValidatorServer server = builder.start();
+        System.out.println("Validator server listening on port "+server.getPort());
+    }
+
+    private void names(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            send(exchange, 405, "Method not allowed");
+            return;
+        }
+        final StringBuilder names = new StringBuilder();
+        for (String name: registry.names()) names.append(name).append('\n');
+        send(exchange, 200, names.toString());
+    }
+
+    private void validate(HttpExchange exchange) throws IOException {
+        final Validator validator = validator(exchange, "/validate/");
+        if (validator==null) return;
+        final byte[] body = readBody(exchange.getRequestBody());
+        if (body==null) {
+            send(exchange, 413, "Payload too large");
+            return;
+        }
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        writeResult(result, validator.failMessageUtf8(body, 0, body.length));
+        exchange.getResponseHeaders().set("Content-Type", TEXT_PLAIN);
+        exchange.sendResponseHeaders(200, result.size());
+        result.writeTo(exchange.getResponseBody());
+    }
+
+    /**
+     * Evalúa cada línea del cuerpo a medida que se lee y escribe su resultado de inmediato, sin esperar al final del
+     * cuerpo. La memoria usada se limita a una línea de hasta {@code maxBodySize} bytes.
+     */
+    private void batch(HttpExchange exchange) throws IOException {
+        final Validator validator = validator(exchange, "/batch/");
+        if (validator==null) return;
+        exchange.getResponseHeaders().set("Content-Type", TEXT_PLAIN);
+        exchange.sendResponseHeaders(200, 0);
+        final InputStream in = exchange.getRequestBody();
+        final OutputStream out = new BufferedOutputStream(exchange.getResponseBody(), 8192);
+        // Cabe una línea del tamaño máximo con su "\r\n".
+        byte[] buffer = new byte[Math.min(maxBodySize+2, 8192)];
+        int start = 0, end = 0;
+        boolean skipping = false;
+        while (true) {
+            final int newline = indexOf(buffer, start, end);
+            if (newline>=0) {
+                writeLine(out, validator, buffer, start, newline, skipping);
+                skipping = false;
+                start = newline+1;
+                continue;
+            }
+            if (start>0) {
+                System.arraycopy(buffer, start, buffer, 0, end-start);
+                end -= start;
+                start = 0;
+            }
+            // Un '\r' al final puede ser parte del salto de línea, por lo que no cuenta para el límite.
+            if (end-(end>0 && buffer[end-1]=='\r' ? 1 : 0)>maxBodySize) {
+                skipping = true;
+                end = 0;
+            }
+            if (end==buffer.length) buffer = Arrays.copyOf(buffer, Math.min(buffer.length*2, maxBodySize+2));
+            final int read = in.read(buffer, end, buffer.length-end);
+            if (read<0) break;
+            end += read;
+            // Si no hay más datos disponibles, se envían los resultados pendientes antes de bloquear en la lectura.
+            if (in.available()==0) out.flush();
+        }
+        if (skipping || end>start) writeLine(out, validator, buffer, start, end, skipping);
+        out.close();
+    }
+
+    private void writeLine(OutputStream out, Validator validator, byte[] buffer, int start, int end, boolean skipped)
+            throws IOException {
+        final int length = end>start && buffer[end-1]=='\r' ? end-start-1 : end-start;
+        if (skipped || length>maxBodySize) {
+            out.write(TOO_LARGE);
+            return;
+        }
+        writeResult(out, validator.failMessageUtf8(buffer, start, length));
+    }
+
+    private Validator validator(HttpExchange exchange, String prefix) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            send(exchange, 405, "Method not allowed");
+            return null;
+        }
+        final String name = exchange.getRequestURI().getPath().substring(prefix.length());
+        try {
+            return registry.get(name);
+        } catch (IllegalArgumentException e) {
+            send(exchange, 404, "Unknown validator: "+name);
+            return null;
+        }
+    }
+
+    /**
+     * @return Cuerpo completo, o null si supera {@code maxBodySize}.
+     */
+    private byte[] readBody(InputStream in) throws IOException {
+        byte[] buffer = new byte[Math.min(maxBodySize+1, 1024)];
+        int size = 0;
+        while (true) {
+            if (size==buffer.length) {
+                if (size>maxBodySize) return null;
+                buffer = Arrays.copyOf(buffer, Math.min(size*2, maxBodySize+1));
+            }
+            final int read = in.read(buffer, size, buffer.length-size);
+            if (read<0) break;
+            size += read;
+        }
+        return size>maxBodySize ? null : Arrays.copyOf(buffer, size);
+    }
+
+    private static int indexOf(byte[] buffer, int start, int end) {
+        for (int i = start; i<end; i++) {
+            if (buffer[i]=='\n') return i;
+        }
+        return -1;
+    }
+
+    private static void writeResult(OutputStream out, String message) throws IOException {
+        if (message==null) {
+            out.write(PASS);
+            return;
+        }
+        out.write('0');
+        out.write('\t');
+        // Los saltos de línea del mensaje se reemplazan para no romper el formato de una línea por resultado.
+        out.write(message.replace('\n', ' ').replace('\r', ' ').getBytes(StandardCharsets.UTF_8));
+        out.write('\n');
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", TEXT_PLAIN);
+        exchange.sendResponseHeaders(status, bytes.length==0 ? -1 : bytes.length);
+        if (bytes.length>0) exchange.getResponseBody().write(bytes);
+    }
+
+    private static HttpHandler handler(Handler handler) {
+        return exchange -> {
+            try {
+                handler.handle(exchange);
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    //<editor-fold default-state="collapsed" desc="BUILDER">
+    public static class Builder {
+
+        private final ValidatorRegistry registry;
+        private InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), DEFAULT_PORT);
+        private int threads = Runtime.getRuntime().availableProcessors();
+        private int queueCapacity = 1024;
+        private int maxBodySize = 1<<20;
+        private int backlog;
+
+        /**
+         * @param registry Registro con los Validators a exponer.
+         */
+        public Builder(ValidatorRegistry registry) {
+            if (registry==null) throw new IllegalArgumentException("registry must not be null");
+            this.registry = registry;
+        }
+
+        /**
+         * Puerto en la interfaz local (loopback). Por defecto {@value #DEFAULT_PORT}; 0 elige un puerto libre.
+         * @param port Puerto.
+         * @return Builder
+         */
+        public Builder port(int port) {
+            return address(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        }
+
+        /**
+         * @param address Dirección en la que escucha el servidor.
+         * @return Builder
+         */
+        public Builder address(InetSocketAddress address) {
+            this.address = address;
+            return this;
+        }
+
+        /**
+         * @param threads Cantidad de hilos que atienden las solicitudes. Por defecto, la cantidad de procesadores.
+         * @return Builder
+         */
+        public Builder threads(int threads) {
+            if (threads<=0) throw new IllegalArgumentException("threads must be greater than 0");
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * @param queueCapacity Cantidad máxima de solicitudes en espera de un hilo. Por defecto 1024.
+         * @return Builder
+         */
+        public Builder queueCapacity(int queueCapacity) {
+            if (queueCapacity<=0) throw new IllegalArgumentException("queueCapacity must be greater than 0");
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * @param maxBodySize Tamaño máximo, en bytes, de un texto (o de una línea en /batch). Por defecto 1 MiB.
+         * @return Builder
+         */
+        public Builder maxBodySize(int maxBodySize) {
+            if (maxBodySize<=0) throw new IllegalArgumentException("maxBodySize must be greater than 0");
+            this.maxBodySize = maxBodySize;
+            return this;
+        }
+
+        /**
+         * @param backlog Cantidad máxima de conexiones pendientes de aceptar; 0 usa el valor del sistema.
+         * @return Builder
+         */
+        public Builder backlog(int backlog) {
+            this.backlog = backlog;
+            return this;
+        }
+
+        /**
+         * @return Servidor iniciado.
+         * @throws IOException Si no se puede abrir el puerto.
+         */
+        public ValidatorServer start() throws IOException {
+            return new ValidatorServer(this);
+        }
+
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,264 @@
+package com.apamatesoft.validator.spec;
+
+import com.apamatesoft.validator.Validator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <h1>ValidatorCache</h1>
+ *
+ * Caché de Validators compilados, pensada para configuraciones de reglas que cambian por cliente (multi-tenant).<br>
+ * Los Validators se identifican por la forma canónica de su configuración ({@link ValidatorSpec#getKey()}), por lo
+ * que declaraciones equivalentes comparten el mismo Validator. La caché se limita por el tamaño estimado en memoria de
+ * los Validators y descarta primero los menos usados recientemente. Si varios hilos piden al mismo tiempo un Validator
+ * ausente, este se compila una sola vez.<br>
+ * <b>Nota:</b> Los Validators de la caché son compartidos (ver {@link ValidatorRegistry}). Las reglas sin mensaje
+ * declarado usan los mensajes predeterminados vigentes al compilarse; tras cambiarlos con
+ * {@link Validator#setMessages(com.apamatesoft.validator.messages.Messages)} conviene invocar {@link #invalidateAll()}.
+ */
+public class ValidatorCache {
+
+    // Estimaciones del tamaño retenido, en bytes, para una JVM de 64 bits con punteros comprimidos.
+    private static final int VALIDATOR_WEIGHT = 160;
+    private static final int RULE_WEIGHT = 48;
+    private static final int PLAN_WEIGHT = 120;
+    private static final int STRING_WEIGHT = 40;
+    private static final int CHAR_CLASS_WEIGHT = 56;
+    private static final int ENTRY_WEIGHT = 64;
+    private static final int DEFAULT_MESSAGE_LENGTH = 48;
+
+    private final long maxWeight;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<Validator>> loading = new ConcurrentHashMap<>();
+    private long weight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    /**
+     * @param maxWeight Tamaño máximo estimado, en bytes, de los Validators retenidos.
+     */
+    public ValidatorCache(long maxWeight) {
+        if (maxWeight<=0) throw new IllegalArgumentException("maxWeight must be greater than 0");
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * @param chain Cadena de reglas (ver {@link ValidatorSpec#parse(String, String)}).
+     * @return Validator compilado y compartido.
+     */
+    public Validator get(String chain) {
+        return get(ValidatorSpec.parse("", chain));
+    }
+
+    /**
+     * Retorna el Validator de la configuración, compilándolo si no está en la caché.
+     * @param spec Configuración del Validator.
+     * @return Validator compilado y compartido.
+     */
+    public Validator get(ValidatorSpec spec) {
+        final String key = spec.getKey();
+        Validator validator = lookup(key);
+        if (validator!=null) {
+            hits.increment();
+            return validator;
+        }
+        misses.increment();
+
+        final CompletableFuture<Validator> future = new CompletableFuture<>();
+        final CompletableFuture<Validator> inFlight = loading.putIfAbsent(key, future);
+        if (inFlight!=null) return join(inFlight);
+        try {
+            validator = lookup(key);
+            if (validator==null) validator = load(key, spec);
+            future.complete(validator);
+            return validator;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    /**
+     * Descarta todos los Validators de la caché.
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+        weight = 0;
+    }
+
+    /**
+     * @return Cantidad de Validators en la caché.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return Tamaño estimado, en bytes, de los Validators en la caché.
+     */
+    public synchronized long weight() {
+        return weight;
+    }
+
+    /**
+     * @return Estadísticas acumuladas de la caché.
+     */
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), loads.sum(), loadFailures.sum(), evictions.sum(), loadNanos.sum());
+    }
+
+    /**
+     * Estima el tamaño retenido de un Validator compilado a partir de su configuración: el Validator, cada regla con
+     * su mensaje ya formateado, los conjuntos de caracteres y la cadena compilada.
+     * @param spec Configuración del Validator.
+     * @return Tamaño estimado en bytes.
+     */
+    static long estimateWeight(ValidatorSpec spec) {
+        long weight = VALIDATOR_WEIGHT+ENTRY_WEIGHT+stringWeight(spec.getKey().length());
+        for (ValidatorSpec.RuleSpec rule: spec.getRules()) {
+            final int argument = rule.getArgument()==null ? 0 : rule.getArgument().toString().length();
+            final int message = rule.getMessage()==null ? DEFAULT_MESSAGE_LENGTH : rule.getMessage().length();
+            weight += RULE_WEIGHT+PLAN_WEIGHT+stringWeight(message+argument);
+            if (rule.getArgument() instanceof String) weight += CHAR_CLASS_WEIGHT+2L*argument;
+        }
+        return weight;
+    }
+
+    private static long stringWeight(int length) {
+        return STRING_WEIGHT+2L*length;
+    }
+
+    private synchronized Validator lookup(String key) {
+        final Entry entry = entries.get(key);
+        return entry==null ? null : entry.validator;
+    }
+
+    private Validator load(String key, ValidatorSpec spec) {
+        final long start = System.nanoTime();
+        final Validator validator;
+        try {
+            validator = spec.build();
+        } catch (RuntimeException | Error e) {
+            loadFailures.increment();
+            throw e;
+        } finally {
+            loadNanos.add(System.nanoTime()-start);
+        }
+        loads.increment();
+        final long entryWeight = estimateWeight(spec);
+        synchronized (this) {
+            final Entry previous = entries.put(key, new Entry(validator, entryWeight));
+            if (previous!=null) weight -= previous.weight;
+            weight += entryWeight;
+            final Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (weight>maxWeight && eldest.hasNext()) {
+                final Map.Entry<String, Entry> entry = eldest.next();
+                if (entry.getKey().equals(key)) continue;
+                weight -= entry.getValue().weight;
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+        return validator;
+    }
+
+    private static Validator join(CompletableFuture<Validator> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
+    }
+
+    private static final class Entry {
+
+        private final Validator validator;
+        private final long weight;
+
+        private Entry(Validator validator, long weight) {
+            this.validator = validator;
+            this.weight = weight;
+        }
+
+    }
+
+    /**
+     * Estadísticas de la caché.
+     */
+    public static final class Stats {
+
+        private final long hitCount;
+        private final long missCount;
+        private final long loadCount;
+        private final long loadFailureCount;
+        private final long evictionCount;
+        private final long totalLoadTime;
+
+        private Stats(long hitCount, long missCount, long loadCount, long loadFailureCount, long evictionCount,
+                      long totalLoadTime) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.loadCount = loadCount;
+            this.loadFailureCount = loadFailureCount;
+            this.evictionCount = evictionCount;
+            this.totalLoadTime = totalLoadTime;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        /**
+         * @return Proporción de consultas resueltas sin compilar, entre 0 y 1.
+         */
+        public double getHitRate() {
+            final long requests = hitCount+missCount;
+            return requests==0 ? 1 : (double) hitCount/requests;
+        }
+
+        public long getLoadCount() {
+            return loadCount;
+        }
+
+        public long getLoadFailureCount() {
+            return loadFailureCount;
+        }
+
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        /**
+         * @return Tiempo total dedicado a compilar Validators, en nanosegundos.
+         */
+        public long getTotalLoadTime() {
+            return totalLoadTime;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{hits="+hitCount+", misses="+missCount+", loads="+loadCount+", loadFailures="
+                    +loadFailureCount+", evictions="+evictionCount+", totalLoadTime="+totalLoadTime+"ns}";
+        }
+
+    }
+
+}
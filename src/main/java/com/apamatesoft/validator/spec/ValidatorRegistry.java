@@ -0,0 +1,266 @@
+package com.apamatesoft.validator.spec;
+
+import com.apamatesoft.validator.Validator;
+import com.apamatesoft.validator.ValidatorSnapshot;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * <h1>ValidatorRegistry</h1>
+ *
+ * Registro de Validators declarados en archivos .properties (ver {@link ValidatorSpec}). Cada declaración se compila
+ * una sola vez y el Validator resultante se comparte entre hilos.<br>
+ * Con {@link #watch()} el registro vigila los archivos y, al modificarse alguno, compila de nuevo sus declaraciones y
+ * publica el nuevo conjunto de Validators con un único reemplazo atómico, sin bloquear las validaciones en curso. Los
+ * cambios se recargan cuando el directorio deja de modificarse durante un momento, por lo que un archivo guardado en
+ * varias escrituras se lee una vez terminado; aun así, se recomienda reemplazarlos con un movimiento atómico.<br>
+ * <b>Nota:</b> Los Validators del registro son compartidos; para capturar los mensajes de error se recomienda usar
+ * {@link Validator#failMessage(String)}, o una copia con {@link Validator#copy()} en lugar de
+ * {@link Validator#onNotPass(com.apamatesoft.validator.functions.NotPass)}.<br>
+ * Para reducir el tiempo de inicio, las declaraciones pueden compilarse al construir la aplicación en un
+ * {@link ValidatorSnapshot} con {@link #main(String[])}, y cargarse con {@link #loadSnapshot(Path)}.
+ */
+public class ValidatorRegistry implements Closeable {
+
+    private static final String EXTENSION = ".properties";
+
+    // Tiempo sin cambios en el directorio tras el cual se recargan los archivos modificados.
+    private static final long QUIET_MILLIS = 100;
+    // Tiempo máximo que se acumulan cambios antes de recargar, si el directorio no deja de modificarse.
+    private static final long MAX_DELAY_MILLIS = 2_000;
+
+    private final Path directory;
+    private final Path file;
+    private final Map<Path, Map<String, Validator>> files = new HashMap<>();
+    private volatile Map<String, Validator> validators = Collections.emptyMap();
+    private volatile Consumer<Exception> reloadError;
+    private WatchService watchService;
+
+    private ValidatorRegistry(Path path) {
+        if (path==null) {
+            directory = null;
+            file = null;
+        } else if (Files.isDirectory(path)) {
+            directory = path;
+            file = null;
+        } else {
+            directory = path.toAbsolutePath().getParent();
+            file = path.toAbsolutePath();
+        }
+    }
+
+    /**
+     * Carga los Validators declarados en un archivo .properties, o en todos los archivos .properties de un directorio.
+     * @param path Archivo o directorio.
+     * @return ValidatorRegistry
+     * @throws IOException Si no se pueden leer los archivos.
+     * @throws IllegalArgumentException Si alguna declaración no es válida o un nombre se declara más de una vez.
+     */
+    public static ValidatorRegistry load(Path path) throws IOException {
+        final ValidatorRegistry registry = new ValidatorRegistry(path);
+        synchronized (registry) {
+            for (Path file: registry.specFiles()) registry.files.put(file, compile(file));
+            registry.publish();
+        }
+        return registry;
+    }
+
+    /**
+     * Carga los Validators de un snapshot generado con {@link #writeSnapshot(Path)}. El registro resultante no puede
+     * vigilarse con {@link #watch()}.
+     * @param snapshot Archivo del snapshot.
+     * @return ValidatorRegistry
+     * @throws IOException Si no se puede leer el archivo, o no es un snapshot de una versión compatible.
+     */
+    public static ValidatorRegistry loadSnapshot(Path snapshot) throws IOException {
+        final ValidatorRegistry registry = new ValidatorRegistry(null);
+        registry.validators = Collections.unmodifiableMap(new TreeMap<>(ValidatorSnapshot.load(snapshot)));
+        return registry;
+    }
+
+    /**
+     * Guarda los Validators del registro en un snapshot (ver {@link ValidatorSnapshot}).
+     * @param snapshot Archivo de destino.
+     * @throws IOException Si no se puede escribir el archivo.
+     */
+    public void writeSnapshot(Path snapshot) throws IOException {
+        ValidatorSnapshot.write(validators, snapshot);
+    }
+
+    /**
+     * Compila las declaraciones de un archivo o directorio y las guarda en un snapshot. Pensado para ejecutarse al
+     * construir la aplicación.<br>
+     * Uso: {@code ValidatorRegistry <archivo o directorio> <snapshot>}
+     * @param args Ruta de las declaraciones y del snapshot.
+     * @throws IOException Si no se pueden leer las declaraciones o escribir el snapshot.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length!=2) {
+            System.err.println("Usage: ValidatorRegistry <specs file or directory> <snapshot file>");
+            System.exit(2);
+        }
+        load(Paths.get(args[0])).writeSnapshot(Paths.get(args[1]));
+    }
+
+    /**
+     * @param name Nombre del Validator.
+     * @return Validator compartido.
+     * @throws IllegalArgumentException Si no existe un Validator con ese nombre.
+     */
+    public Validator get(String name) {
+        final Validator validator = validators.get(name);
+        if (validator==null) throw new IllegalArgumentException("Unknown validator: "+name);
+        return validator;
+    }
+
+    /**
+     * @return Nombres de los Validators registrados.
+     */
+    public Set<String> names() {
+        return validators.keySet();
+    }
+
+    /**
+     * Vigila los archivos del registro en un hilo de fondo y recarga los que se creen, modifiquen o eliminen. Si un
+     * archivo modificado no es válido, se conservan sus Validators anteriores y se invoca al evento
+     * {@link #onReloadError(Consumer)}. Un archivo que queda vacío también conserva sus Validators anteriores, ya que
+     * normalmente es un archivo a medio escribir; para quitar sus Validators, el archivo debe eliminarse.
+     * @throws IOException Si no se puede registrar el directorio.
+     * @throws IllegalStateException Si el registro se cargó desde un snapshot.
+     */
+    public synchronized void watch() throws IOException {
+        if (directory==null) throw new IllegalStateException("A snapshot registry can not be watched");
+        if (watchService!=null) return;
+        watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        final WatchService service = watchService;
+        final Thread thread = new Thread(() -> watch(service), "validator-registry-watch");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Evento que se invoca cuando falla la recarga de un archivo.
+     * @param reloadError Función con el error.
+     */
+    public void onReloadError(Consumer<Exception> reloadError) {
+        this.reloadError = reloadError;
+    }
+
+    /**
+     * Detiene la vigilancia de los archivos.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService!=null) watchService.close();
+        watchService = null;
+    }
+
+    private void watch(WatchService service) {
+        try {
+            while (true) {
+                final Set<Path> changed = new LinkedHashSet<>();
+                final long start = System.nanoTime();
+                WatchKey key = service.take();
+                while (key!=null) {
+                    for (WatchEvent<?> event: key.pollEvents()) {
+                        if (event.context() instanceof Path) changed.add(directory.resolve((Path) event.context()));
+                    }
+                    key.reset();
+                    if (System.nanoTime()-start>TimeUnit.MILLISECONDS.toNanos(MAX_DELAY_MILLIS)) break;
+                    key = service.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                for (Path path: changed) {
+                    if (isSpecFile(path)) reload(path.toAbsolutePath());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ignored) { }
+    }
+
+    private synchronized void reload(Path path) {
+        final Map<String, Validator> previous = files.get(path);
+        try {
+            if (Files.exists(path)) {
+                final Map<String, Validator> compiled = compile(path);
+                if (compiled.isEmpty() && previous!=null && !previous.isEmpty()) return;
+                files.put(path, compiled);
+            } else {
+                files.remove(path);
+            }
+            publish();
+        } catch (IOException | RuntimeException e) {
+            if (previous!=null) files.put(path, previous);
+            else files.remove(path);
+            final Consumer<Exception> reloadError = this.reloadError;
+            if (reloadError!=null) reloadError.accept(e);
+        }
+    }
+
+    private void publish() {
+        final Map<String, Validator> validators = new TreeMap<>();
+        for (Map.Entry<Path, Map<String, Validator>> entry: files.entrySet()) {
+            for (Map.Entry<String, Validator> validator: entry.getValue().entrySet()) {
+                if (validators.put(validator.getKey(), validator.getValue())!=null)
+                    throw new IllegalArgumentException("Validator '"+validator.getKey()+"' declared more than once");
+            }
+        }
+        this.validators = Collections.unmodifiableMap(validators);
+    }
+
+    private List<Path> specFiles() throws IOException {
+        final List<Path> paths = new ArrayList<>();
+        if (file!=null) {
+            paths.add(file);
+            return paths;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*"+EXTENSION)) {
+            for (Path path: stream) paths.add(path.toAbsolutePath());
+        }
+        return paths;
+    }
+
+    private boolean isSpecFile(Path path) {
+        if (file!=null) return file.equals(path.toAbsolutePath());
+        return path.getFileName().toString().endsWith(EXTENSION);
+    }
+
+    private static Map<String, Validator> compile(Path path) throws IOException {
+        final Properties properties = new Properties();
+        try (InputStream input = Files.newInputStream(path);
+             Reader reader = new InputStreamReader(input, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        final Map<String, Validator> validators = new HashMap<>();
+        for (ValidatorSpec spec: ValidatorSpec.parse(properties).values()) validators.put(spec.getName(), spec.build());
+        return validators;
+    }
+
+}
@@ -0,0 +1,379 @@
+package com.apamatesoft.validator.spec;
+
+import com.apamatesoft.validator.Validator;
+import com.apamatesoft.validator.constants.Constants;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * <h1>ValidatorSpec</h1>
+ *
+ * Declaración de un Validator como una cadena de reglas predefinidas, separadas por comas.
+ * <br><br>
+ * <b>Ejemplo (.properties):<b/><br>
+ * <code>
+ * <pre>
+ * email = required, email
+ * password = required, minLength(8), mustContainOne(NUMBER)
+ * password.message.minLength = Se requieren al menos %d caracteres
+ * password.notMatchMessage = Las contraseñas no coinciden
+ * </pre>
+ * </code>
+ *
+ * Los argumentos pueden ser números enteros, nombres de {@link Constants} o textos entre comillas dobles. Las reglas
+ * sin mensaje declarado usan los mensajes predeterminados de {@link com.apamatesoft.validator.messages.Messages}.
+ */
+public final class ValidatorSpec {
+
+    private static final Map<String, String> CONSTANTS = new HashMap<>();
+
+    static {
+        CONSTANTS.put("NUMBER", Constants.NUMBER);
+        CONSTANTS.put("ALPHABET", Constants.ALPHABET);
+        CONSTANTS.put("NAME", Constants.NAME);
+        CONSTANTS.put("ALPHA_LOWERCASE", Constants.ALPHA_LOWERCASE);
+        CONSTANTS.put("ALPHA_UPPERCASE", Constants.ALPHA_UPPERCASE);
+        CONSTANTS.put("ALPHA_NUMERIC", Constants.ALPHA_NUMERIC);
+        CONSTANTS.put("ALPHA_NUMERIC_LOWERCASE", Constants.ALPHA_NUMERIC_LOWERCASE);
+        CONSTANTS.put("ALPHA_NUMERIC_UPPERCASE", Constants.ALPHA_NUMERIC_UPPERCASE);
+        CONSTANTS.put("ALPHABET_ES", Constants.ALPHABET_ES);
+        CONSTANTS.put("NAME_ES", Constants.NAME_ES);
+        CONSTANTS.put("ALPHA_LOWERCASE_ES", Constants.ALPHA_LOWERCASE_ES);
+        CONSTANTS.put("ALPHA_UPPERCASE_ES", Constants.ALPHA_UPPERCASE_ES);
+        CONSTANTS.put("ALPHA_NUMERIC_ES", Constants.ALPHA_NUMERIC_ES);
+        CONSTANTS.put("ALPHA_NUMERIC_LOWERCASE_ES", Constants.ALPHA_NUMERIC_LOWERCASE_ES);
+        CONSTANTS.put("ALPHA_NUMERIC_UPPERCASE_ES", Constants.ALPHA_NUMERIC_UPPERCASE_ES);
+    }
+
+    private static final String MESSAGE = ".message.";
+    private static final String NOT_MATCH_MESSAGE = ".notMatchMessage";
+
+    private final String name;
+    private final List<RuleSpec> rules;
+    private final String notMatchMessage;
+
+    private ValidatorSpec(String name, List<RuleSpec> rules, String notMatchMessage) {
+        this.name = name;
+        this.rules = Collections.unmodifiableList(rules);
+        this.notMatchMessage = notMatchMessage;
+    }
+
+    /**
+     * Interpreta una cadena de reglas.
+     * @param name Nombre del Validator.
+     * @param chain Reglas separadas por comas, por ejemplo {@code required, minLength(8)}.
+     * @return ValidatorSpec
+     * @throws IllegalArgumentException Si la cadena no es válida.
+     */
+    public static ValidatorSpec parse(String name, String chain) {
+        return parse(name, chain, new HashMap<>(), null);
+    }
+
+    /**
+     * Interpreta todos los Validators declarados en un archivo .properties.
+     * @param properties Propiedades con un Validator por clave.
+     * @return ValidatorSpecs por nombre, en orden alfabético.
+     * @throws IllegalArgumentException Si alguna declaración no es válida.
+     */
+    public static Map<String, ValidatorSpec> parse(Properties properties) {
+        final Map<String, ValidatorSpec> specs = new LinkedHashMap<>();
+        for (String key: new TreeSet<>(properties.stringPropertyNames())) {
+            if (key.indexOf('.')>=0) {
+                final String name = key.substring(0, key.indexOf('.'));
+                if (properties.getProperty(name)==null)
+                    throw new IllegalArgumentException("Option '"+key+"' for undeclared validator '"+name+"'");
+                if (!key.equals(name+NOT_MATCH_MESSAGE) && !key.startsWith(name+MESSAGE))
+                    throw new IllegalArgumentException("Unknown option '"+key+"'");
+                continue;
+            }
+            final Map<String, String> messages = new HashMap<>();
+            for (String option: properties.stringPropertyNames()) {
+                if (option.startsWith(key+MESSAGE))
+                    messages.put(option.substring(key.length()+MESSAGE.length()), properties.getProperty(option));
+            }
+            specs.put(key, parse(key, properties.getProperty(key), messages,
+                    properties.getProperty(key+NOT_MATCH_MESSAGE)));
+        }
+        return specs;
+    }
+
+    private static ValidatorSpec parse(String name, String chain, Map<String, String> messages,
+                                       String notMatchMessage) {
+        final List<RuleSpec> rules = new ArrayList<>();
+        final Parser parser = new Parser(name, chain);
+        parser.skipSpaces();
+        while (!parser.end()) {
+            final String rule = parser.identifier();
+            final Kind kind = Kind.of(rule);
+            if (kind==null) throw parser.error("Unknown rule '"+rule+"'");
+            Object argument = null;
+            parser.skipSpaces();
+            if (parser.accept('(')) {
+                parser.skipSpaces();
+                argument = parser.argument();
+                parser.skipSpaces();
+                parser.expect(')');
+                parser.skipSpaces();
+            }
+            if (kind.argument==null && argument!=null) throw parser.error("Rule '"+rule+"' takes no argument");
+            if (kind.argument!=null && (argument==null || !kind.argument.isInstance(argument)))
+                throw parser.error("Rule '"+rule+"' requires a "+kind.argument.getSimpleName()+" argument");
+            rules.add(new RuleSpec(rule, argument, messages.remove(rule)));
+            if (!parser.end()) {
+                parser.expect(',');
+                parser.skipSpaces();
+            }
+        }
+        if (!messages.isEmpty())
+            throw new IllegalArgumentException("Messages for rules not used by '"+name+"': "+messages.keySet());
+        return new ValidatorSpec(name, rules, notMatchMessage);
+    }
+
+    /**
+     * Construye y compila el Validator declarado, con las reglas predefinidas de {@link Validator.Builder}.
+     * @return Validator
+     */
+    public Validator build() {
+        final Validator.Builder builder = new Validator.Builder();
+        for (RuleSpec rule: rules) rule.apply(builder);
+        if (notMatchMessage!=null) builder.setNotMatchMessage(notMatchMessage);
+        return builder.compile().build();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<RuleSpec> getRules() {
+        return rules;
+    }
+
+    public String getNotMatchMessage() {
+        return notMatchMessage;
+    }
+
+    /**
+     * @return Forma canónica de la configuración completa (reglas, argumentos y mensajes), que identifica a todas las
+     * declaraciones que producen el mismo Validator, sin importar su nombre ni sus espacios.
+     */
+    public String getKey() {
+        final StringBuilder out = new StringBuilder();
+        for (RuleSpec rule: rules) {
+            if (out.length()>0) out.append(',');
+            out.append(rule);
+            if (rule.message!=null) out.append(':').append(quote(rule.message));
+        }
+        if (notMatchMessage!=null) out.append(";notMatchMessage:").append(quote(notMatchMessage));
+        return out.toString();
+    }
+
+    /**
+     * @return Cadena de reglas en forma canónica, sin espacios y con los argumentos de texto entre comillas.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder out = new StringBuilder();
+        for (RuleSpec rule: rules) {
+            if (out.length()>0) out.append(',');
+            out.append(rule);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Regla de una declaración: nombre de la regla predefinida, argumento opcional y mensaje opcional.
+     */
+    public static final class RuleSpec {
+
+        private final String rule;
+        private final Object argument;
+        private final String message;
+
+        private RuleSpec(String rule, Object argument, String message) {
+            this.rule = rule;
+            this.argument = argument;
+            this.message = message;
+        }
+
+        public String getRule() {
+            return rule;
+        }
+
+        public Object getArgument() {
+            return argument;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        private void apply(Validator.Builder builder) {
+            final boolean message = this.message!=null;
+            switch (rule) {
+                case "required":
+                    if (message) builder.required(this.message); else builder.required();
+                    break;
+                case "length":
+                    if (message) builder.length((Integer) argument, this.message);
+                    else builder.length((Integer) argument);
+                    break;
+                case "minLength":
+                    if (message) builder.minLength((Integer) argument, this.message);
+                    else builder.minLength((Integer) argument);
+                    break;
+                case "maxLength":
+                    if (message) builder.maxLength((Integer) argument, this.message);
+                    else builder.maxLength((Integer) argument);
+                    break;
+                case "email":
+                    if (message) builder.email(this.message); else builder.email();
+                    break;
+                case "numericFormat":
+                    if (message) builder.numericFormat(this.message); else builder.numericFormat();
+                    break;
+                case "shouldOnlyContain":
+                    if (message) builder.shouldOnlyContain((String) argument, this.message);
+                    else builder.shouldOnlyContain((String) argument);
+                    break;
+                case "onlyNumbers":
+                    if (message) builder.onlyNumbers(this.message); else builder.onlyNumbers();
+                    break;
+                case "notContain":
+                    if (message) builder.notContain((String) argument, this.message);
+                    else builder.notContain((String) argument);
+                    break;
+                case "mustContainOne":
+                    if (message) builder.mustContainOne((String) argument, this.message);
+                    else builder.mustContainOne((String) argument);
+                    break;
+                default:
+                    throw new IllegalStateException(rule);
+            }
+        }
+
+        @Override
+        public String toString() {
+            if (argument==null) return rule;
+            if (argument instanceof Integer) return rule+"("+argument+")";
+            return rule+"("+quote((String) argument)+")";
+        }
+
+    }
+
+    private static String quote(String value) {
+        return "\""+value.replace("\\", "\\\\").replace("\"", "\\\"")+"\"";
+    }
+
+    private enum Kind {
+
+        REQUIRED("required", null),
+        LENGTH("length", Integer.class),
+        MIN_LENGTH("minLength", Integer.class),
+        MAX_LENGTH("maxLength", Integer.class),
+        EMAIL("email", null),
+        NUMERIC_FORMAT("numericFormat", null),
+        SHOULD_ONLY_CONTAIN("shouldOnlyContain", String.class),
+        ONLY_NUMBERS("onlyNumbers", null),
+        NOT_CONTAIN("notContain", String.class),
+        MUST_CONTAIN_ONE("mustContainOne", String.class);
+
+        private final String rule;
+        private final Class<?> argument;
+
+        Kind(String rule, Class<?> argument) {
+            this.rule = rule;
+            this.argument = argument;
+        }
+
+        private static Kind of(String rule) {
+            for (Kind kind: values()) {
+                if (kind.rule.equals(rule)) return kind;
+            }
+            return null;
+        }
+
+    }
+
+    private static final class Parser {
+
+        private final String name;
+        private final String chain;
+        private int position;
+
+        private Parser(String name, String chain) {
+            this.name = name;
+            this.chain = chain;
+        }
+
+        private boolean end() {
+            return position>=chain.length();
+        }
+
+        private void skipSpaces() {
+            while (!end() && Character.isWhitespace(chain.charAt(position))) position++;
+        }
+
+        private boolean accept(char c) {
+            if (end() || chain.charAt(position)!=c) return false;
+            position++;
+            return true;
+        }
+
+        private void expect(char c) {
+            if (!accept(c)) throw error("Expected '"+c+"'");
+        }
+
+        private String identifier() {
+            final int start = position;
+            while (!end() && Character.isJavaIdentifierPart(chain.charAt(position))) position++;
+            if (start==position) throw error("Expected a rule name");
+            return chain.substring(start, position);
+        }
+
+        private Object argument() {
+            if (end()) throw error("Expected an argument");
+            final char c = chain.charAt(position);
+            if (c=='"') return string();
+            if (Character.isDigit(c)) {
+                final int start = position;
+                while (!end() && Character.isDigit(chain.charAt(position))) position++;
+                try {
+                    return Integer.valueOf(chain.substring(start, position));
+                } catch (NumberFormatException e) {
+                    throw error("Number out of range");
+                }
+            }
+            final String constant = identifier();
+            final String value = CONSTANTS.get(constant);
+            if (value==null) throw error("Unknown constant '"+constant+"'");
+            return value;
+        }
+
+        private String string() {
+            final StringBuilder value = new StringBuilder();
+            position++;
+            while (!end()) {
+                char c = chain.charAt(position++);
+                if (c=='"') return value.toString();
+                if (c=='\\') {
+                    if (end()) break;
+                    c = chain.charAt(position++);
+                }
+                value.append(c);
+            }
+            throw error("Unterminated string");
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message+" in '"+name+"' at position "+position+": "+chain);
+        }
+
+    }
+
+}
@@ -0,0 +1,568 @@
+package com.apamatesoft.validator.stream;
+
+import com.apamatesoft.validator.Validator;
+import com.apamatesoft.validator.functions.FieldNotPass;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <h1>NdjsonValidator</h1>
+ *
+ * Valida flujos NDJSON (un objeto JSON por línea) sin construir un árbol por registro. Un tokenizador mínimo recorre
+ * los bytes de cada registro una sola vez, omite los valores que no interesan y evalúa los campos configurados
+ * directamente sobre el buffer de lectura, como bytes UTF-8 (ver {@link Validator#failMessageUtf8(byte[], int, int)}).
+ * Solo los textos con secuencias de escape se copian, ya decodificados, a un buffer auxiliar.<br>
+ * Cada registro se copia sin cambios al flujo de aceptados o al de rechazados. La memoria usada no depende del tamaño
+ * del flujo: se limita al tamaño máximo de un registro ({@link Builder#maxRecordSize(int)}).<br>
+ * Los campos se indican con rutas separadas por puntos ({@code "user.email"}). Un campo ausente se evalúa como null;
+ * los números y literales se evalúan con su texto JSON, y {@code null} como null.
+ */
+public class NdjsonValidator {
+
+    private static final int DEFAULT_MAX_RECORD_SIZE = 1<<20;
+    private static final int MAX_DEPTH = 256;
+
+    private final Node root = new Node(null);
+    private final String[] paths;
+    private final Validator[] validators;
+    private final int maxRecordSize;
+    private FieldNotPass notPass;
+
+    private NdjsonValidator(Builder builder) {
+        paths = builder.fields.keySet().toArray(new String[0]);
+        validators = builder.fields.values().toArray(new Validator[0]);
+        maxRecordSize = builder.maxRecordSize;
+        notPass = builder.notPass;
+        for (int i = 0; i<paths.length; i++) root.add(paths[i], i);
+    }
+
+    /**
+     * Lee el flujo hasta el final y copia cada registro al flujo de aceptados si todos sus campos pasan la validación,
+     * o al de rechazados en otro caso. Las líneas vacías se omiten. Los registros que no son un objeto JSON válido se
+     * rechazan, y los que superan el tamaño máximo se descartan y se cuentan como rechazados.<br>
+     * <b>Nota:</b> Por cada campo que no cumpla alguna regla, se invocara al evento {@link #onNotPass(FieldNotPass)}
+     * con la ruta del campo y el mensaje del error; para los errores del registro completo, la ruta es null.<br>
+     * Los flujos no se cierran.
+     * @param input Flujo NDJSON codificado en UTF-8.
+     * @param accepted Flujo para los registros aceptados.
+     * @param rejected Flujo para los registros rechazados.
+     * @return Cantidad de registros aceptados y rechazados.
+     * @throws IOException Si no se pueden leer o escribir los flujos.
+     */
+    public Stats validate(InputStream input, OutputStream accepted, OutputStream rejected) throws IOException {
+        final OutputStream acceptedOut = new BufferedOutputStream(accepted);
+        final OutputStream rejectedOut = new BufferedOutputStream(rejected);
+        final Tokenizer tokenizer = new Tokenizer();
+        // Cabe un registro del tamaño máximo con su "\r\n".
+        byte[] buffer = new byte[Math.min(maxRecordSize+2, 8192)];
+        // Los bytes entre start y scanned ya se revisaron sin encontrar un salto de línea.
+        int start = 0, scanned = 0, end = 0;
+        long acceptedCount = 0, rejectedCount = 0;
+        boolean skipping = false, eof = false;
+        while (true) {
+            int newline = -1;
+            for (; scanned<end; scanned++) {
+                if (buffer[scanned]=='\n') {
+                    newline = scanned;
+                    break;
+                }
+            }
+            if (newline<0 && eof) {
+                if (start==end && !skipping) break;
+                newline = end;
+            }
+            if (newline>=0) {
+                final int length = newline>start && buffer[newline-1]=='\r' ? newline-start-1 : newline-start;
+                if (skipping || length>maxRecordSize) {
+                    rejectedCount++;
+                    if (notPass!=null) notPass.invoke(null, "Record too large");
+                } else if (!isBlank(buffer, start, length)) {
+                    final boolean valid = tokenizer.evaluate(buffer, start, length);
+                    final OutputStream out = valid ? acceptedOut : rejectedOut;
+                    out.write(buffer, start, length);
+                    out.write('\n');
+                    if (valid) acceptedCount++;
+                    else rejectedCount++;
+                }
+                skipping = false;
+                start = Math.min(newline+1, end);
+                scanned = start;
+                continue;
+            }
+            if (start>0) {
+                System.arraycopy(buffer, start, buffer, 0, end-start);
+                end -= start;
+                start = 0;
+            }
+            // Un '\r' al final puede ser parte del salto de línea, por lo que no cuenta para el límite.
+            if (end-(end>0 && buffer[end-1]=='\r' ? 1 : 0)>maxRecordSize) {
+                // El registro no cabe: se descarta lo leído y se omite el resto hasta el siguiente salto de línea.
+                skipping = true;
+                end = 0;
+            }
+            scanned = end;
+            if (end==buffer.length) buffer = Arrays.copyOf(buffer, Math.min(buffer.length*2, maxRecordSize+2));
+            final int read = input.read(buffer, end, buffer.length-end);
+            if (read<0) eof = true;
+            else end += read;
+        }
+        acceptedOut.flush();
+        rejectedOut.flush();
+        return new Stats(acceptedCount, rejectedCount);
+    }
+
+    /**
+     * Evento que se invoca al no cumplirse alguna regla.
+     * @param notPass Función con la ruta del campo y el mensaje de error.
+     */
+    public void onNotPass(FieldNotPass notPass) {
+        this.notPass = notPass;
+    }
+
+    private static boolean isBlank(byte[] bytes, int offset, int length) {
+        for (int i = offset; i<offset+length; i++) {
+            if (!isWhitespace(bytes[i])) return false;
+        }
+        return true;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b==' ' || b=='\t' || b=='\r' || b=='\n';
+    }
+
+    /**
+     * Campo o prefijo de una ruta. Las hojas tienen el índice de su Validator; los prefijos, sus campos internos.
+     */
+    private static final class Node {
+
+        private final byte[] key;
+        private final List<Node> children = new ArrayList<>();
+        private int index = -1;
+
+        private Node(byte[] key) {
+            this.key = key;
+        }
+
+        private void add(String path, int index) {
+            Node node = this;
+            for (String key: path.split("\\.", -1)) {
+                if (key.isEmpty()) throw new IllegalArgumentException("Invalid field path: "+path);
+                if (node.index>=0) throw new IllegalArgumentException("Field path overlaps another field: "+path);
+                final byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+                Node child = node.child(bytes, 0, bytes.length);
+                if (child==null) {
+                    child = new Node(bytes);
+                    node.children.add(child);
+                }
+                node = child;
+            }
+            if (node.index>=0 || !node.children.isEmpty())
+                throw new IllegalArgumentException("Field path overlaps another field: "+path);
+            node.index = index;
+        }
+
+        private Node child(byte[] bytes, int offset, int length) {
+            for (Node child: children) {
+                if (child.key.length!=length) continue;
+                int i = 0;
+                while (i<length && child.key[i]==bytes[offset+i]) i++;
+                if (i==length) return child;
+            }
+            return null;
+        }
+
+    }
+
+    /**
+     * Error de formato de un registro. Se reutiliza una única instancia sin traza, ya que solo se usa para abandonar
+     * el recorrido del registro.
+     */
+    private static final class MalformedRecordException extends RuntimeException {
+
+        private static final MalformedRecordException INSTANCE = new MalformedRecordException();
+
+        private MalformedRecordException() {
+            super("Malformed JSON record", null, false, false);
+        }
+
+    }
+
+    /**
+     * Recorrido de un registro. Mantiene el estado de una llamada a {@link #validate(InputStream, OutputStream,
+     * OutputStream)}, por lo que un mismo NdjsonValidator puede usarse desde varios hilos.
+     */
+    private final class Tokenizer {
+
+        private final String[] messages = new String[validators.length];
+        private final boolean[] found = new boolean[validators.length];
+        private byte[] scratch = new byte[64];
+        private byte[] bytes;
+        private int position;
+        private int end;
+        private int depth;
+
+        /**
+         * @return true si el registro es un objeto JSON y todos sus campos pasan la validación.
+         */
+        private boolean evaluate(byte[] bytes, int offset, int length) {
+            this.bytes = bytes;
+            position = offset;
+            end = offset+length;
+            depth = 0;
+            Arrays.fill(messages, null);
+            Arrays.fill(found, false);
+            try {
+                skipWhitespace();
+                if (peek()!='{') throw MalformedRecordException.INSTANCE;
+                object(root);
+                skipWhitespace();
+                if (position!=end) throw MalformedRecordException.INSTANCE;
+            } catch (MalformedRecordException e) {
+                if (notPass!=null) notPass.invoke(null, e.getMessage());
+                return false;
+            }
+            boolean valid = true;
+            for (int i = 0; i<validators.length; i++) {
+                if (!found[i]) messages[i] = validators[i].failMessageUtf8((byte[]) null, 0, 0);
+                if (messages[i]==null) continue;
+                valid = false;
+                if (notPass!=null) notPass.invoke(paths[i], messages[i]);
+            }
+            return valid;
+        }
+
+        private void object(Node node) {
+            enter();
+            position++;
+            skipWhitespace();
+            if (peek()=='}') {
+                position++;
+                depth--;
+                return;
+            }
+            while (true) {
+                skipWhitespace();
+                if (next()!='"') throw MalformedRecordException.INSTANCE;
+                final Node child = key(node);
+                skipWhitespace();
+                if (next()!=':') throw MalformedRecordException.INSTANCE;
+                skipWhitespace();
+                value(child);
+                skipWhitespace();
+                final byte b = next();
+                if (b=='}') break;
+                if (b!=',') throw MalformedRecordException.INSTANCE;
+            }
+            depth--;
+        }
+
+        private void array() {
+            enter();
+            position++;
+            skipWhitespace();
+            if (peek()==']') {
+                position++;
+                depth--;
+                return;
+            }
+            while (true) {
+                skipWhitespace();
+                value(null);
+                skipWhitespace();
+                final byte b = next();
+                if (b==']') break;
+                if (b!=',') throw MalformedRecordException.INSTANCE;
+            }
+            depth--;
+        }
+
+        private void value(Node node) {
+            if (node!=null && node.index>=0) {
+                field(node.index);
+                return;
+            }
+            switch (peek()) {
+                case '{':
+                    object(node);
+                    break;
+                case '[':
+                    array();
+                    break;
+                case '"':
+                    position++;
+                    skipString();
+                    break;
+                default:
+                    literal();
+                    break;
+            }
+        }
+
+        /**
+         * Evalúa el valor de un campo configurado: los textos sin escapes directamente sobre el buffer.
+         */
+        private void field(int index) {
+            final Validator validator = validators[index];
+            found[index] = true;
+            final int start = position;
+            switch (peek()) {
+                case '"':
+                    position++;
+                    final int valueStart = position;
+                    if (skipString()) {
+                        final int length = unescape(valueStart);
+                        messages[index] = validator.failMessageUtf8(scratch, 0, length);
+                    } else {
+                        messages[index] = validator.failMessageUtf8(bytes, valueStart, position-1-valueStart);
+                    }
+                    return;
+                case '{':
+                    object(null);
+                    break;
+                case '[':
+                    array();
+                    break;
+                default:
+                    literal();
+                    if (position-start==4 && bytes[start]=='n') {
+                        messages[index] = validator.failMessageUtf8((byte[]) null, 0, 0);
+                        return;
+                    }
+                    break;
+            }
+            messages[index] = validator.failMessageUtf8(bytes, start, position-start);
+        }
+
+        /**
+         * Lee una clave, con la posición después de las comillas iniciales.
+         * @return Nodo de la clave dentro del nodo actual, o null si no es parte de ninguna ruta.
+         */
+        private Node key(Node node) {
+            final int start = position;
+            final boolean escaped = skipString();
+            if (node==null || node.children.isEmpty()) return null;
+            if (!escaped) return node.child(bytes, start, position-1-start);
+            final int length = unescape(start);
+            return node.child(scratch, 0, length);
+        }
+
+        /**
+         * Avanza hasta después de las comillas finales de un texto.
+         * @return true si el texto contiene secuencias de escape.
+         */
+        private boolean skipString() {
+            boolean escaped = false;
+            while (true) {
+                final byte b = next();
+                if (b=='"') return escaped;
+                if (b=='\\') {
+                    escaped = true;
+                    next();
+                } else if (b>=0 && b<0x20) {
+                    throw MalformedRecordException.INSTANCE;
+                }
+            }
+        }
+
+        /**
+         * Copia al buffer auxiliar, en UTF-8, el texto que inicia en la posición indicada, reemplazando sus secuencias
+         * de escape.
+         * @return Longitud del texto copiado.
+         */
+        private int unescape(int start) {
+            int length = 0;
+            int i = start;
+            while (true) {
+                if (length+4>scratch.length) scratch = Arrays.copyOf(scratch, scratch.length*2);
+                final byte b = bytes[i++];
+                if (b=='"') return length;
+                if (b!='\\') {
+                    scratch[length++] = b;
+                    continue;
+                }
+                final byte escape = bytes[i++];
+                switch (escape) {
+                    case 'b': scratch[length++] = '\b'; break;
+                    case 'f': scratch[length++] = '\f'; break;
+                    case 'n': scratch[length++] = '\n'; break;
+                    case 'r': scratch[length++] = '\r'; break;
+                    case 't': scratch[length++] = '\t'; break;
+                    case '"': case '\\': case '/': scratch[length++] = escape; break;
+                    case 'u':
+                        int codePoint = hex(i);
+                        i += 4;
+                        if (Character.isHighSurrogate((char) codePoint) && bytes[i]=='\\' && bytes[i+1]=='u') {
+                            final int low = hex(i+2);
+                            if (Character.isLowSurrogate((char) low)) {
+                                codePoint = Character.toCodePoint((char) codePoint, (char) low);
+                                i += 6;
+                            }
+                        }
+                        if (Character.isSurrogate((char) codePoint) && codePoint<0x10000) codePoint = 0xFFFD;
+                        length = encode(codePoint, length);
+                        break;
+                    default:
+                        throw MalformedRecordException.INSTANCE;
+                }
+            }
+        }
+
+        private int hex(int index) {
+            if (index+4>end) throw MalformedRecordException.INSTANCE;
+            int value = 0;
+            for (int i = index; i<index+4; i++) {
+                final int digit = Character.digit(bytes[i], 16);
+                if (digit<0) throw MalformedRecordException.INSTANCE;
+                value = value<<4 | digit;
+            }
+            return value;
+        }
+
+        private int encode(int codePoint, int length) {
+            if (codePoint<0x80) {
+                scratch[length++] = (byte) codePoint;
+            } else if (codePoint<0x800) {
+                scratch[length++] = (byte) (0xC0 | codePoint>>6);
+                scratch[length++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (codePoint<0x10000) {
+                scratch[length++] = (byte) (0xE0 | codePoint>>12);
+                scratch[length++] = (byte) (0x80 | codePoint>>6 & 0x3F);
+                scratch[length++] = (byte) (0x80 | codePoint & 0x3F);
+            } else {
+                scratch[length++] = (byte) (0xF0 | codePoint>>18);
+                scratch[length++] = (byte) (0x80 | codePoint>>12 & 0x3F);
+                scratch[length++] = (byte) (0x80 | codePoint>>6 & 0x3F);
+                scratch[length++] = (byte) (0x80 | codePoint & 0x3F);
+            }
+            return length;
+        }
+
+        /**
+         * Avanza sobre un número o literal ({@code true}, {@code false}, {@code null}).
+         */
+        private void literal() {
+            final int start = position;
+            while (position<end && isLiteral(bytes[position])) position++;
+            final int length = position-start;
+            if (length==0) throw MalformedRecordException.INSTANCE;
+            final byte first = bytes[start];
+            if (first=='-' || first>='0' && first<='9') return;
+            if (!matches(start, length, "true") && !matches(start, length, "false") && !matches(start, length, "null"))
+                throw MalformedRecordException.INSTANCE;
+        }
+
+        private boolean isLiteral(byte b) {
+            return b>='0' && b<='9' || b>='a' && b<='z' || b>='A' && b<='Z' || b=='-' || b=='+' || b=='.';
+        }
+
+        private boolean matches(int start, int length, String literal) {
+            if (length!=literal.length()) return false;
+            for (int i = 0; i<length; i++) {
+                if (bytes[start+i]!=literal.charAt(i)) return false;
+            }
+            return true;
+        }
+
+        private void enter() {
+            if (++depth>MAX_DEPTH) throw MalformedRecordException.INSTANCE;
+        }
+
+        private void skipWhitespace() {
+            while (position<end && isWhitespace(bytes[position])) position++;
+        }
+
+        private byte peek() {
+            if (position>=end) throw MalformedRecordException.INSTANCE;
+            return bytes[position];
+        }
+
+        private byte next() {
+            if (position>=end) throw MalformedRecordException.INSTANCE;
+            return bytes[position++];
+        }
+
+    }
+
+    /**
+     * Cantidad de registros aceptados y rechazados de un flujo.
+     */
+    public static final class Stats {
+
+        private final long acceptedCount;
+        private final long rejectedCount;
+
+        private Stats(long acceptedCount, long rejectedCount) {
+            this.acceptedCount = acceptedCount;
+            this.rejectedCount = rejectedCount;
+        }
+
+        public long getAcceptedCount() {
+            return acceptedCount;
+        }
+
+        public long getRejectedCount() {
+            return rejectedCount;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{accepted="+acceptedCount+", rejected="+rejectedCount+"}";
+        }
+
+    }
+
+    //<editor-fold default-state="collapsed" desc="BUILDER">
+    public static class Builder {
+
+        private final Map<String, Validator> fields = new LinkedHashMap<>();
+        private int maxRecordSize = DEFAULT_MAX_RECORD_SIZE;
+        private FieldNotPass notPass;
+
+        /**
+         * Asigna un Validator a un campo.
+         * @param path Ruta del campo, con las claves separadas por puntos.
+         * @param validator Validator del campo.
+         * @return Builder
+         */
+        public Builder field(String path, Validator validator) {
+            if (fields.containsKey(path)) throw new IllegalArgumentException("Duplicated field path: "+path);
+            fields.put(path, validator);
+            return this;
+        }
+
+        /**
+         * @param maxRecordSize Tamaño máximo, en bytes, de un registro. Por defecto 1 MiB.
+         * @return Builder
+         */
+        public Builder maxRecordSize(int maxRecordSize) {
+            if (maxRecordSize<=0) throw new IllegalArgumentException("maxRecordSize must be greater than 0");
+            this.maxRecordSize = maxRecordSize;
+            return this;
+        }
+
+        /**
+         * Evento que se invoca al no cumplirse alguna regla.
+         * @param notPass Función con la ruta del campo y el mensaje de error.
+         * @return Builder
+         */
+        public Builder notPass(FieldNotPass notPass) {
+            this.notPass = notPass;
+            return this;
+        }
+
+        public NdjsonValidator build() {
+            return new NdjsonValidator(this);
+        }
+
+    }
+    //</editor-fold>
+
+}
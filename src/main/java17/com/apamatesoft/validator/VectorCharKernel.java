@@ -0,0 +1,88 @@
+package com.apamatesoft.validator;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Recorrido vectorizado de {@link CharKernel}: los caracteres se cargan en vectores de 16 bits y cada rango se compara
+ * con todos los carriles a la vez. Como todos los rangos son menores a 0x8000, los caracteres mayores (que en
+ * un {@code short} son negativos) quedan fuera de cualquier rango con una comparación con signo.<br>
+ * Los Strings se copian por tramos a un arreglo de tamaño fijo reutilizado por el hilo, por lo que el recorrido no
+ * reserva memoria sea cual sea la longitud, y entre tramos se verifica el tiempo límite de la evaluación.
+ */
+final class VectorCharKernel implements CharKernel {
+
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+    // Caracteres que se copian y recorren por vez, igual al intervalo en que se verifica el tiempo límite.
+    private static final int CHUNK = Deadline.CHECK_INTERVAL;
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[CHUNK]);
+
+    @Override
+    public boolean containsOnly(String evaluate, char[] ranges) {
+        final int length = evaluate.length();
+        final char[] chars = BUFFER.get();
+        for (int from = 0; from<length; from += CHUNK) {
+            if (from>0) Deadline.check();
+            final int size = Math.min(CHUNK, length-from);
+            evaluate.getChars(from, from+size, chars, 0);
+            if (!containsOnly(chars, size, ranges)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean containsAny(String evaluate, char[] ranges) {
+        final int length = evaluate.length();
+        final char[] chars = BUFFER.get();
+        for (int from = 0; from<length; from += CHUNK) {
+            if (from>0) Deadline.check();
+            final int size = Math.min(CHUNK, length-from);
+            evaluate.getChars(from, from+size, chars, 0);
+            if (containsAny(chars, size, ranges)) return true;
+        }
+        return false;
+    }
+
+    private static boolean containsOnly(char[] chars, int length, char[] ranges) {
+        final int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i<bound; i += SPECIES.length()) {
+            if (!inRanges(ShortVector.fromCharArray(SPECIES, chars, i), ranges).allTrue()) return false;
+        }
+        for (; i<length; i++) {
+            if (!inRanges(chars[i], ranges)) return false;
+        }
+        return true;
+    }
+
+    private static boolean containsAny(char[] chars, int length, char[] ranges) {
+        final int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i<bound; i += SPECIES.length()) {
+            if (inRanges(ShortVector.fromCharArray(SPECIES, chars, i), ranges).anyTrue()) return true;
+        }
+        for (; i<length; i++) {
+            if (inRanges(chars[i], ranges)) return true;
+        }
+        return false;
+    }
+
+    private static VectorMask<Short> inRanges(ShortVector vector, char[] ranges) {
+        VectorMask<Short> mask = SPECIES.maskAll(false);
+        for (int r = 0; r<ranges.length; r += 2) {
+            mask = mask.or(vector.compare(VectorOperators.GE, (short) ranges[r])
+                    .and(vector.compare(VectorOperators.LE, (short) ranges[r+1])));
+        }
+        return mask;
+    }
+
+    private static boolean inRanges(char c, char[] ranges) {
+        for (int r = 0; r<ranges.length; r += 2) {
+            if (c>=ranges[r] && c<=ranges[r+1]) return true;
+        }
+        return false;
+    }
+
+}
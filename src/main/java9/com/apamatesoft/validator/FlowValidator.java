@@ -0,0 +1,367 @@
+package com.apamatesoft.validator;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * <h1>FlowValidator</h1>
+ *
+ * Operador de {@link Flow} que valida los elementos de un flujo reactivo con un {@link Validator}: los elementos que
+ * pasan la validación se publican al suscriptor, y los rechazados se envían a un canal aparte
+ * ({@link Builder#onReject(Consumer)}) con el índice y el mensaje de la regla que no se cumple.<br>
+ * Respeta la demanda del suscriptor: solicita al publicador como máximo {@link Builder#window(int)} elementos que aún
+ * no se hayan publicado, por lo que la memoria usada es acotada. Con {@link Builder#executor(Executor)} los elementos se
+ * validan en paralelo, y se publican en el mismo orden en que llegaron. Las reglas asíncronas se evalúan sin bloquear.
+ * <br>
+ * Admite un único suscriptor. Si la evaluación de una regla, el suscriptor o {@link Builder#onReject(Consumer)} fallan
+ * con una excepción, se cancela el publicador y se notifica el error al suscriptor.
+ * <br><br>
+ * <b>Nota:</b> Requiere Java 9 o superior.
+ *
+ * @param <T> Tipo de los elementos.
+ */
+public class FlowValidator<T> implements Flow.Processor<T, T> {
+
+    private static final int DEFAULT_WINDOW = 128;
+
+    private final Validator validator;
+    private final Function<? super T, String> value;
+    private final Executor executor;
+    private final int window;
+    private final Consumer<? super Rejection<T>> onReject;
+
+    private final ArrayDeque<Slot<T>> queue = new ArrayDeque<>();
+    private final AtomicInteger wip = new AtomicInteger();
+    private Flow.Subscription upstream;
+    private Flow.Subscriber<? super T> downstream;
+    // El suscriptor recibió onSubscribe y puede recibir elementos.
+    private boolean subscribed;
+    private long demand;
+    // Elementos solicitados al publicador que aún no llegan.
+    private long requested;
+    private boolean done;
+    private Throwable error;
+    private boolean cancelled;
+    private boolean terminated;
+
+    private FlowValidator(Builder<T> builder) {
+        validator = builder.validator;
+        value = builder.value;
+        executor = builder.executor;
+        window = builder.window;
+        onReject = builder.onReject;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber);
+        final boolean first;
+        synchronized (this) {
+            first = downstream==null;
+            if (first) downstream = subscriber;
+        }
+        if (!first) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) { }
+
+                @Override
+                public void cancel() { }
+            });
+            subscriber.onError(new IllegalStateException("FlowValidator allows a single subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new Subscription());
+        synchronized (this) {
+            subscribed = true;
+        }
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        Objects.requireNonNull(subscription);
+        synchronized (this) {
+            if (upstream==null && !cancelled && !done) {
+                upstream = subscription;
+                subscription = null;
+            }
+        }
+        if (subscription!=null) {
+            subscription.cancel();
+            return;
+        }
+        drain();
+    }
+
+    @Override
+    public void onNext(T item) {
+        Objects.requireNonNull(item);
+        final Slot<T> slot = new Slot<>(item);
+        synchronized (this) {
+            if (done || cancelled) return;
+            queue.add(slot);
+            requested--;
+        }
+        CompletableFuture<Validator.Failure> failure;
+        try {
+            failure = executor==null
+                    ? validator.failure(value.apply(item))
+                    : CompletableFuture.supplyAsync(() -> validator.failure(value.apply(item)), executor)
+                            .thenCompose(Function.identity());
+        } catch (RuntimeException e) {
+            failure = CompletableFuture.failedFuture(e);
+        }
+        failure.whenComplete((result, throwable) -> {
+            if (throwable!=null) slot.error = throwable;
+            else slot.failure = result;
+            slot.completed = true;
+            drain();
+        });
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        Objects.requireNonNull(throwable);
+        synchronized (this) {
+            if (done) return;
+            done = true;
+            error = throwable;
+        }
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        synchronized (this) {
+            done = true;
+        }
+        drain();
+    }
+
+    /**
+     * Publica los elementos validados en orden, mientras haya demanda, y solicita más elementos al publicador. Un solo
+     * hilo a la vez ejecuta el ciclo; los hilos que llegan mientras tanto solo marcan que debe repetirse.
+     */
+    private void drain() {
+        if (wip.getAndIncrement()!=0) return;
+        int missed = 1;
+        do {
+            while (true) {
+                final Slot<T> slot;
+                synchronized (this) {
+                    slot = next();
+                }
+                if (slot==null) break;
+                if (slot.error!=null) {
+                    fail(slot.error);
+                    break;
+                }
+                try {
+                    if (slot.failure==null) downstream.onNext(slot.item);
+                    else if (onReject!=null) onReject.accept(new Rejection<>(slot.item, slot.failure));
+                } catch (RuntimeException e) {
+                    fail(e);
+                    break;
+                }
+            }
+            Flow.Subscription request = null;
+            long count = 0;
+            Throwable terminal = null;
+            boolean complete = false;
+            synchronized (this) {
+                if (!cancelled && !terminated && subscribed) {
+                    if (done && queue.isEmpty()) {
+                        terminated = true;
+                        complete = error==null;
+                        terminal = error;
+                    } else if (!done && upstream!=null) {
+                        // Se solicita por tandas de al menos media ventana, para no solicitar de a un elemento.
+                        count = window-queue.size()-requested;
+                        if (count>=Math.max(1, window/2)) {
+                            requested += count;
+                            request = upstream;
+                        }
+                    }
+                }
+            }
+            if (complete) downstream.onComplete();
+            else if (terminal!=null) downstream.onError(terminal);
+            if (request!=null) request.request(count);
+            missed = wip.addAndGet(-missed);
+        } while (missed!=0);
+    }
+
+    /**
+     * @return El primer elemento ya validado, si hay demanda para publicarlo o fue rechazado.
+     */
+    private Slot<T> next() {
+        if (cancelled || terminated || !subscribed) return null;
+        final Slot<T> slot = queue.peek();
+        if (slot==null || !slot.completed) return null;
+        if (slot.error==null && slot.failure==null) {
+            if (demand==0) return null;
+            demand--;
+        }
+        return queue.poll();
+    }
+
+    /**
+     * Descarta los elementos pendientes y cancela el publicador. El error se notifica en {@link #drain()}, igual que el
+     * de {@link #onError(Throwable)}, para no llamar al suscriptor desde otro hilo mientras recibe elementos.
+     */
+    private void fail(Throwable throwable) {
+        final Flow.Subscription subscription;
+        synchronized (this) {
+            if (terminated) return;
+            if (error==null) error = throwable;
+            done = true;
+            queue.clear();
+            subscription = upstream;
+        }
+        if (subscription!=null) subscription.cancel();
+    }
+
+    private final class Subscription implements Flow.Subscription {
+
+        @Override
+        public void request(long n) {
+            if (n<=0) {
+                fail(new IllegalArgumentException("Non-positive request: "+n));
+            } else {
+                synchronized (FlowValidator.this) {
+                    demand = demand+n<0 ? Long.MAX_VALUE : demand+n;
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            final Flow.Subscription subscription;
+            synchronized (FlowValidator.this) {
+                if (cancelled) return;
+                cancelled = true;
+                queue.clear();
+                subscription = upstream;
+            }
+            if (subscription!=null) subscription.cancel();
+        }
+
+    }
+
+    private static final class Slot<T> {
+
+        private final T item;
+        private volatile boolean completed;
+        private Validator.Failure failure;
+        private Throwable error;
+
+        private Slot(T item) {
+            this.item = item;
+        }
+
+    }
+
+    /**
+     * Elemento rechazado, con la regla que no cumple.
+     * @param <T> Tipo del elemento.
+     */
+    public static final class Rejection<T> {
+
+        private final T item;
+        private final int ruleIndex;
+        private final String message;
+
+        private Rejection(T item, Validator.Failure failure) {
+            this.item = item;
+            this.ruleIndex = failure.index;
+            this.message = failure.message;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        /**
+         * @return Índice de la regla en el Validator, contando primero las reglas síncronas y luego las asíncronas, o
+         * -1 si se agotó el presupuesto de tiempo.
+         */
+        public int getRuleIndex() {
+            return ruleIndex;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "Rejection{item="+item+", ruleIndex="+ruleIndex+", message="+message+"}";
+        }
+
+    }
+
+    //<editor-fold default-state="collapsed" desc="BUILDER">
+    public static class Builder<T> {
+
+        private final Validator validator;
+        private final Function<? super T, String> value;
+        private Executor executor;
+        private int window = DEFAULT_WINDOW;
+        private Consumer<? super Rejection<T>> onReject;
+
+        /**
+         * @param validator Validator de los elementos.
+         * @param value Función que obtiene el String a evaluar de cada elemento.
+         */
+        public Builder(Validator validator, Function<? super T, String> value) {
+            this.validator = Objects.requireNonNull(validator);
+            this.value = Objects.requireNonNull(value);
+        }
+
+        /**
+         * Valida los elementos en paralelo en el executor. Los elementos se publican en el orden en que llegaron.
+         * @param executor Executor.
+         * @return Builder
+         */
+        public Builder<T> executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * @param window Cantidad máxima de elementos solicitados al publicador que aún no se publican. Por defecto 128.
+         * @return Builder
+         */
+        public Builder<T> window(int window) {
+            if (window<=0) throw new IllegalArgumentException("window must be greater than 0");
+            this.window = window;
+            return this;
+        }
+
+        /**
+         * Canal de los elementos rechazados. Se invoca en orden, desde el hilo que publica los elementos, por lo que no
+         * debería bloquear.
+         * @param onReject Función con el elemento rechazado.
+         * @return Builder
+         */
+        public Builder<T> onReject(Consumer<? super Rejection<T>> onReject) {
+            this.onReject = onReject;
+            return this;
+        }
+
+        public FlowValidator<T> build() {
+            return new FlowValidator<>(this);
+        }
+
+    }
+    //</editor-fold>
+
+}
@@ -0,0 +1,131 @@
+package com.apamatesoft.validator;
+
+import com.apamatesoft.validator.exceptions.InvalidEvaluationException;
+import com.apamatesoft.validator.functions.FieldNotPass;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ObjectValidatorTest {
+
+    public static class SignUp {
+
+        private final String email;
+        private final String password;
+        private final String confirmation;
+        public final int age;
+
+        public SignUp(String email, String password, String confirmation, int age) {
+            this.email = email;
+            this.password = password;
+            this.confirmation = confirmation;
+            this.age = age;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public String getConfirmation() {
+            return confirmation;
+        }
+
+    }
+
+    static class Hidden {
+
+        String getName() {
+            return "hidden";
+        }
+
+        public String getCode() {
+            return "abc";
+        }
+
+    }
+
+    private static final Validator email = new Validator.Builder()
+            .required()
+            .email()
+            .build();
+
+    private static final Validator password = new Validator.Builder()
+            .required()
+            .minLength(6)
+            .build();
+
+    private static final Validator age = new Validator.Builder()
+            .onlyNumbers()
+            .build();
+
+    private static ObjectValidator.Builder<SignUp> builder() {
+        return new ObjectValidator.Builder<>(SignUp.class)
+                .field("email", email)
+                .field("password", SignUp::getPassword, password)
+                .field("age", age)
+                .compare("password", "confirmation");
+    }
+
+    @Test
+    void returnTrueForValidObject() {
+        assertTrue(builder().build().isValid(new SignUp("example@mail.com", "123456", "123456", 20)));
+    }
+
+    @Test
+    void returnFalseForInvalidField() {
+        assertFalse(builder().build().isValid(new SignUp("xxx", "123456", "123456", 20)));
+    }
+
+    @Test
+    void returnFalseIfFieldsDoNotMatch() {
+        assertFalse(builder().build().isValid(new SignUp("example@mail.com", "123456", "654321", 20)));
+    }
+
+    @Test
+    void returnFalseForInvalidFieldEvaluatedInParallel() {
+        final ObjectValidator<SignUp> validator = builder().parallelThreshold(1).build();
+        assertTrue(validator.isValid(new SignUp("example@mail.com", "123456", "123456", 20)));
+        assertFalse(validator.isValid(new SignUp("example@mail.com", "123", "123", 20)));
+    }
+
+    @Test
+    void exceptionIsExpectedWithFirstInvalidField() {
+        final InvalidEvaluationException e = assertThrows(InvalidEvaluationException.class,
+                () -> builder().build().isValidOrFail(new SignUp("xxx", "123", "123", 20)));
+        assertEquals("Email invalid", e.getMessage());
+        assertEquals("xxx", e.getValue());
+    }
+
+    @Test
+    void nonPublicClassesAreSupported() {
+        final ObjectValidator<Hidden> validator = new ObjectValidator.Builder<>(Hidden.class)
+                .field("code", new Validator.Builder().length(3).build())
+                .build();
+        assertTrue(validator.isValid(new Hidden()));
+    }
+
+    @Test
+    void exceptionIsExpectedForUnknownField() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ObjectValidator.Builder<>(SignUp.class).field("phone", email));
+    }
+
+    @Test
+    void verifyCallback() {
+        final FieldNotPass notPass = mock(FieldNotPass.class);
+        final ObjectValidator<SignUp> validator = builder()
+                .rule("age", "Too young", it -> it.age>=18)
+                .notPass(notPass)
+                .build();
+        validator.isValid(new SignUp("xxx", "123456", "654321", 15));
+        verify(notPass).invoke("email", "Email invalid");
+        verify(notPass).invoke("confirmation", "Not match");
+        verify(notPass).invoke("age", "Too young");
+        verifyNoMoreInteractions(notPass);
+    }
+
+}
@@ -0,0 +1,135 @@
+package com.apamatesoft.validator;
+
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+import java.util.function.Supplier;
+import static com.apamatesoft.validator.constants.Constants.ALPHABET;
+import static com.apamatesoft.validator.constants.Constants.ALPHABET_ES;
+import static com.apamatesoft.validator.constants.Constants.ALPHA_NUMERIC;
+import static com.apamatesoft.validator.constants.Constants.NAME;
+import static com.apamatesoft.validator.constants.Constants.NUMBER;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleTest {
+
+    private static final String[] VALUES = { "", "a", "ñandú", "Año 2000", "xyz", "ÁÉÍÓÚ", "😀", "a b" };
+
+    private static boolean shouldOnlyContain(String condition, String evaluate) {
+        if (evaluate.isEmpty()) return false;
+        for (char a: evaluate.toCharArray()) {
+            if (!condition.contains(String.valueOf(a))) return false;
+        }
+        return true;
+    }
+
+    private static boolean mustContainOne(String condition, String evaluate) {
+        for (char a: condition.toCharArray()) {
+            if (evaluate.contains(a+"")) return true;
+        }
+        return false;
+    }
+
+    @Test
+    void builtInRulesAreDescriptors() {
+        assertEquals(Rule.MIN_LENGTH, Rule.minLength("", 8).getOp());
+        assertEquals(8, Rule.minLength("", 8).getLength());
+        assertEquals(Rule.CUSTOM, new Rule("", it -> true).getOp());
+    }
+
+    @Test
+    void charClassRulesMatchStringScans() {
+        for (String condition: new String[] { ALPHABET_ES, NAME, "0123456789", "\uD83D", "" }) {
+            final Rule only = Rule.shouldOnlyContain("", condition);
+            final Rule none = Rule.notContain("", condition);
+            final Rule one = Rule.mustContainOne("", condition);
+            for (String value: VALUES) {
+                assertEquals(shouldOnlyContain(condition, value), only.validate(value), condition+" / "+value);
+                assertEquals(!value.isEmpty() && !mustContainOne(condition, value), none.validate(value));
+                assertEquals(mustContainOne(condition, value), one.validate(value));
+            }
+        }
+    }
+
+    @Test
+    void longStringsMatchStringScans() {
+        final Random random = new Random(7);
+        final String alphabet = ALPHA_NUMERIC+" .,\u00f1\u20ac\uD83D\uDE00";
+        for (String condition: new String[] { NUMBER, ALPHA_NUMERIC, ALPHABET_ES+" ", NAME, "\u20ac", "" }) {
+            final CharClass chars = CharClass.of(condition);
+            for (int length = 60; length<300; length += 7) {
+                final StringBuilder builder = new StringBuilder();
+                for (int i = 0; i<length; i++) builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                final String noise = builder.toString();
+                final StringBuilder members = new StringBuilder();
+                for (int i = 0; condition.length()>0 && i<length; i++)
+                    members.append(condition.charAt(random.nextInt(condition.length())));
+                for (String value: new String[] { noise, members.toString(), members+"\uD83D", NUMBER+noise }) {
+                    assertEquals(shouldOnlyContain(condition, value), chars.containsOnly(value), condition+" / "+value);
+                    assertEquals(mustContainOne(condition, value), chars.containsAny(value), condition+" / "+value);
+                }
+            }
+        }
+    }
+
+    @Test
+    void charClassesAreSplitInRanges() {
+        assertArrayEquals(new char[] { '0', '9' }, CharClass.of(NUMBER).getRanges());
+        assertArrayEquals(new char[] { '0', '9', 'A', 'Z', 'a', 'z' }, CharClass.of(ALPHA_NUMERIC).getRanges());
+        assertArrayEquals(new char[] { '\u20ac', '\u20ac' }, CharClass.of("\u20ac").getRanges());
+        assertNull(CharClass.of("\uD83D").getRanges());
+        assertNull(CharClass.of("acegikmoqsuwy").getRanges());
+        assertArrayEquals(new char[] { '~', '\u0081' }, CharClass.of("\u0081~\u0080\u007f\u0080").getRanges());
+    }
+
+    @Test
+    void loadedCharClassesKeepRanges() {
+        for (String chars: new String[] { NUMBER, ALPHA_NUMERIC, "\u20ac\u20ad", "\uD83D", "acegikmoqsuwy" }) {
+            final CharClass built = CharClass.of(chars);
+            final CharClass loaded = CharClass.of(chars, built.getLow(), built.getHigh(), built.getOthers());
+            assertArrayEquals(built.getRanges(), loaded.getRanges(), chars);
+        }
+    }
+
+    @Test
+    void identicalBuiltInRulesAreShared() {
+        final Validator a = new Validator.Builder().required().minLength(8).email().shouldOnlyContain(NAME).build();
+        final Validator b = new Validator.Builder().required().minLength(8).email().shouldOnlyContain(NAME).build();
+        for (int i = 0; i<a.getRules().size(); i++) assertSame(a.getRules().get(i), b.getRules().get(i));
+        final Validator c = new Validator.Builder().minLength(9).minLength(8, "Mínimo %d").build();
+        assertNotSame(a.getRules().get(1), c.getRules().get(0));
+        assertNotSame(a.getRules().get(1), c.getRules().get(1));
+        assertEquals("Mínimo 8", c.getRules().get(1).getMessage());
+    }
+
+    @Test
+    void sharedRulesDoNotGrowRetainedHeap() {
+        final int count = 100_000;
+        final long empty = retainedBytes(count, Validator::new);
+        final long withRules = retainedBytes(count, () -> {
+            final Validator validator = new Validator();
+            validator.required();
+            validator.minLength(8);
+            validator.email();
+            return validator;
+        });
+        // Sin compartir las reglas, cada Validator retendría además tres Rule y sus mensajes (más de 300 bytes).
+        final long perValidator = (withRules-empty)/count;
+        assertTrue(perValidator<150, "Retained bytes per validator with rules: "+perValidator);
+    }
+
+    private static long retainedBytes(int count, Supplier<Validator> supplier) {
+        final Validator[] validators = new Validator[count];
+        final long before = usedHeap();
+        for (int i = 0; i<count; i++) validators[i] = supplier.get();
+        final long after = usedHeap();
+        assertNotNull(validators[count-1]);
+        return after-before;
+    }
+
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i<3; i++) System.gc();
+        return runtime.totalMemory()-runtime.freeMemory();
+    }
+
+}
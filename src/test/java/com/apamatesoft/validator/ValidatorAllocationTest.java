@@ -0,0 +1,109 @@
+package com.apamatesoft.validator;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import java.lang.management.ManagementFactory;
+import static com.apamatesoft.validator.constants.Constants.ALPHA_NUMERIC;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Verifica que la evaluación exitosa de las reglas predefinidas no reserve memoria, tanto en el recorrido escalar de
+ * {@link CharClass} (textos de menos de 64 caracteres) como en el vectorizado, si está disponible.
+ */
+class ValidatorAllocationTest {
+
+    private static final int WARM_UP = 20_000;
+    private static final int ITERATIONS = 10_000;
+    // Margen para la medición en sí, muy por debajo de un objeto por evaluación.
+    private static final long TOLERANCE = 1024;
+
+    private static com.sun.management.ThreadMXBean threads;
+
+    @BeforeAll
+    static void beforeAll() {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    void lengthRules() {
+        assertNoAllocation(new Validator.Builder().required().length(5).minLength(2).maxLength(8).build(), "abcde");
+    }
+
+    @Test
+    void email() {
+        assertNoAllocation(new Validator.Builder().email().build(), "user.name@mail.example.com");
+    }
+
+    @Test
+    void numericFormat() {
+        final Validator validator = new Validator.Builder().numericFormat().build();
+        assertNoAllocation(validator, "-12.5e3");
+        assertNoAllocation(validator, "0x1.8p3");
+    }
+
+    @Test
+    void charClassRules() {
+        assertNoAllocation(new Validator.Builder().shouldOnlyContain(ALPHA_NUMERIC).build(), "abc123XYZ");
+        assertNoAllocation(new Validator.Builder().onlyNumbers().build(), "0123456789");
+        assertNoAllocation(new Validator.Builder().notContain("@#\u00f1").build(), "abc123");
+        assertNoAllocation(new Validator.Builder().mustContainOne("!?\u00f1").build(), "abc\u00f1");
+    }
+
+    @Test
+    void vectorizedCharClassRules() {
+        assumeTrue(CharClass.isVectorized());
+        final Validator numbers = new Validator.Builder().onlyNumbers().build();
+        final Validator notContain = new Validator.Builder().notContain("@#").build();
+        final String[] evaluates = { repeat('7', 64), repeat('7', 2_000), repeat('7', 70_000) };
+        assertNoAllocation(numbers, evaluates);
+        assertNoAllocation(notContain, evaluates);
+    }
+
+    @Test
+    void composedRules() {
+        final Validator phone = new Validator.Builder().onlyNumbers().length(10).build();
+        final Validator email = new Validator.Builder().email().build();
+        assertNoAllocation(Validator.anyOf(phone, email), "user@mail.com");
+        assertNoAllocation(new Validator.Builder().required().build().and(phone.not("Not a phone")), "abc");
+    }
+
+    @Test
+    void compiledRules() {
+        assertNoAllocation(new Validator.Builder()
+                .required().minLength(3).maxLength(40).email().notContain("#!")
+                .compile()
+                .build(), "user@mail.com");
+    }
+
+    /**
+     * El calentamiento alterna todos los textos, para que el código compilado ya contemple cada longitud y no se
+     * descarte al medir la siguiente.
+     */
+    private static void assertNoAllocation(Validator validator, String... evaluates) {
+        for (int i = 0; i<WARM_UP; i++) {
+            for (String evaluate : evaluates) assertTrue(validator.isValid(evaluate), evaluate);
+        }
+        final long id = Thread.currentThread().getId();
+        for (String evaluate : evaluates) {
+            final long start = threads.getThreadAllocatedBytes(id);
+            boolean valid = true;
+            for (int i = 0; i<ITERATIONS; i++) valid &= validator.isValid(evaluate);
+            final long allocated = threads.getThreadAllocatedBytes(id)-start;
+            assertTrue(valid);
+            assertTrue(allocated<TOLERANCE,
+                    evaluate.length()+" chars: "+allocated+" bytes in "+ITERATIONS+" evaluations");
+        }
+    }
+
+    private static String repeat(char c, int length) {
+        final char[] chars = new char[length];
+        java.util.Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.apamatesoft.validator;
+
+import com.apamatesoft.validator.exceptions.InvalidEvaluationException;
+import com.apamatesoft.validator.functions.NotPass;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ValidatorAsyncRuleTest {
+
+    private final static Validator validator = new Validator.Builder()
+            .required()
+            .asyncRule("Taken", it -> completedFuture(!it.equals("admin")))
+            .build();
+
+    @Test
+    void returnFalseForEmptyValueWithoutCallingAsyncRules() {
+        final AtomicInteger calls = new AtomicInteger();
+        final Validator validator = new Validator.Builder()
+                .required()
+                .asyncRule("Taken", it -> completedFuture(calls.incrementAndGet()>0))
+                .build();
+        assertFalse(validator.isValidAsync("").join());
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void returnFalseForValueRejectedByAsyncRule() {
+        assertFalse(validator.isValidAsync("admin").join());
+    }
+
+    @Test
+    void returnTrueForValueAcceptedByAsyncRule() {
+        assertTrue(validator.isValidAsync("user").join());
+    }
+
+    @Test
+    void isValidWaitsForAsyncRules() {
+        assertFalse(validator.isValid("admin"));
+        assertTrue(validator.isValid("user"));
+    }
+
+    @Test
+    void exceptionIsExpectedIfAsyncRuleFails() {
+        assertThrows(InvalidEvaluationException.class, () -> validator.isValidOrFail("admin"));
+    }
+
+    @Test
+    void remainingAsyncRulesAreCancelledOnFailure() {
+        final CompletableFuture<Boolean> slow = new CompletableFuture<>();
+        final Validator validator = new Validator.Builder()
+                .asyncRule("Slow", it -> slow)
+                .asyncRule("Fails", it -> completedFuture(false))
+                .build();
+        assertFalse(validator.isValidAsync("xxx").join());
+        assertTrue(slow.isCancelled());
+    }
+
+    @Test
+    void concurrencyIsLimitedPerRule() {
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger max = new AtomicInteger();
+        final Validator validator = new Validator.Builder()
+                .executor(executor)
+                .asyncRule("Busy", 2, it -> CompletableFuture.supplyAsync(() -> {
+                    max.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    return true;
+                }, executor))
+                .build();
+        final CompletableFuture<?>[] futures = IntStream.range(0, 20)
+                .mapToObj(i -> validator.isValidAsync("xxx"))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(futures).join();
+        executor.shutdown();
+        assertTrue(max.get()<=2);
+    }
+
+    @Test
+    void verifyCallback() {
+        final NotPass notPass = mock(NotPass.class);
+        final Validator validator = new Validator.Builder()
+                .asyncRule("Taken", it -> completedFuture(false))
+                .notPass(notPass)
+                .build();
+        validator.isValidAsync("admin").join();
+        verify(notPass).invoke("Taken");
+    }
+
+}
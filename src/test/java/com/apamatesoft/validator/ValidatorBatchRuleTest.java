@@ -0,0 +1,84 @@
+package com.apamatesoft.validator;
+
+import com.apamatesoft.validator.functions.BatchValidate;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidatorBatchRuleTest {
+
+    private static final List<String> TAKEN = Arrays.asList("admin", "root");
+
+    private static BatchValidate notTaken(List<List<String>> calls) {
+        return evaluates -> {
+            synchronized (calls) {
+                calls.add(new ArrayList<>(evaluates));
+            }
+            final boolean[] result = new boolean[evaluates.size()];
+            for (int i = 0; i<result.length; i++) result[i] = !TAKEN.contains(evaluates.get(i));
+            return result;
+        };
+    }
+
+    @Test
+    void batchIsInvokedOnceForPendingValues() {
+        final List<List<String>> calls = new ArrayList<>();
+        final Validator validator = new Validator.Builder()
+                .required()
+                .batchRule("Taken", notTaken(calls))
+                .build();
+        final boolean[] result = validator.isValidBatch(Arrays.asList("admin", "", "user", null, "root"));
+        assertArrayEquals(new boolean[] { false, false, true, false, false }, result);
+        assertEquals(Collections.singletonList(Arrays.asList("admin", "user", "root")), calls);
+    }
+
+    @Test
+    void batchIsSplitByMaxBatchSize() {
+        final List<List<String>> calls = new ArrayList<>();
+        final Validator validator = new Validator.Builder()
+                .batchRule("Taken", 2, 0, notTaken(calls))
+                .build();
+        validator.isValidBatch(Arrays.asList("a", "b", "c"));
+        assertEquals(Arrays.asList(Arrays.asList("a", "b"), Collections.singletonList("c")), calls);
+    }
+
+    @Test
+    void concurrentSingleValuesAreCollectedIntoOneBatch() {
+        final List<List<String>> calls = new ArrayList<>();
+        final Validator validator = new Validator.Builder()
+                .batchRule("Taken", 4, 10_000, notTaken(calls))
+                .build();
+        final List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (String value: Arrays.asList("a", "admin", "b", "root")) futures.add(validator.isValidAsync(value));
+        assertTrue(futures.get(0).join());
+        assertFalse(futures.get(1).join());
+        assertTrue(futures.get(2).join());
+        assertFalse(futures.get(3).join());
+        assertEquals(1, calls.size());
+    }
+
+    @Test
+    void pendingBatchIsFlushedAfterMaxDelay() {
+        final List<List<String>> calls = new ArrayList<>();
+        final Validator validator = new Validator.Builder()
+                .batchRule("Taken", 100, 5, notTaken(calls))
+                .build();
+        assertTrue(validator.isValid("user"));
+        assertFalse(validator.isValid("admin"));
+        assertEquals(2, calls.size());
+    }
+
+    @Test
+    void exceptionIsExpectedIfBatchReturnsWrongNumberOfResults() {
+        final Validator validator = new Validator.Builder()
+                .batchRule("Taken", evaluates -> new boolean[0])
+                .build();
+        assertThrows(CompletionException.class, () -> validator.isValid("user"));
+    }
+
+}
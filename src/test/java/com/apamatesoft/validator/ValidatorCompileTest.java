@@ -0,0 +1,47 @@
+package com.apamatesoft.validator;
+
+import com.apamatesoft.validator.functions.NotPass;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ValidatorCompileTest {
+
+    private static Validator.Builder builder() {
+        return new Validator.Builder()
+                .required()
+                .minLength(8)
+                .maxLength(12)
+                .mustContainOne("0123456789");
+    }
+
+    @Test
+    void compiledValidatorMatchesInterpretedValidator() {
+        final Validator interpreted = builder().build();
+        final Validator compiled = builder().compile().build();
+        for (String value: new String[] { null, "", "abc", "abcdefgh", "abcdefg1", "abcdefghijk1", "abcdefghijklm1" }) {
+            assertEquals(interpreted.isValid(value), compiled.isValid(value), String.valueOf(value));
+            assertEquals(interpreted.failMessage(value), compiled.failMessage(value), String.valueOf(value));
+        }
+    }
+
+    @Test
+    void addingRuleDiscardsCompilation() {
+        final Validator validator = builder().compile().build();
+        assertTrue(validator.isValid("abcdefg1"));
+        validator.rule("Not abcdefg1", it -> !it.equals("abcdefg1"));
+        assertFalse(validator.isValid("abcdefg1"));
+        validator.compile();
+        assertFalse(validator.isValid("abcdefg1"));
+    }
+
+    @Test
+    void verifyCallback() {
+        final NotPass notPass = mock(NotPass.class);
+        final Validator validator = builder().compile().notPass(notPass).build();
+        validator.isValid("abcdefgh");
+        verify(notPass).invoke("At least one of the following characters is required: 0123456789");
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.apamatesoft.validator;
+
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import static com.apamatesoft.validator.constants.Constants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidatorCompositionTest {
+
+    private static final String[] VALUES = { null, "", "abc", "1234", "12345678", "abcd1234", "ABCD", "a@b.co", "ñandú",
+            "abc def", "12.5" };
+
+    @Test
+    void allOfReportsFirstFailingRuleAndSkipsDuplicates() {
+        final Validator a = new Validator.Builder().required("A").minLength(4, "A%d").build();
+        final Validator b = new Validator.Builder().required("B").maxLength(6, "B%d").build();
+        final Validator both = a.and(b);
+        assertEquals(3, both.getRules().size());
+        assertEquals("A", both.failMessage(""));
+        assertEquals("A4", both.failMessage("abc"));
+        assertEquals("B6", both.failMessage("abcdefg"));
+        assertNull(both.failMessage("abcde"));
+        assertEquals("A", both.failMessage(null));
+    }
+
+    @Test
+    void anyOfPassesIfAnyValidatorPasses() {
+        final Validator email = new Validator.Builder().required("Required").email("Email").build();
+        final Validator phone = new Validator.Builder().required("Required").shouldOnlyContain(NUMBER, "Phone")
+                .length(8, "Length").build();
+        final Validator either = email.or(phone);
+        assertTrue(either.isValid("a@b.co"));
+        assertTrue(either.isValid("12345678"));
+        assertEquals("Email", either.failMessage("1234"));
+        assertEquals("Required", either.failMessage(""));
+        assertEquals("Required", either.failMessage(null));
+    }
+
+    @Test
+    void notNegatesValidator() {
+        final Validator numeric = new Validator.Builder().numericFormat().build();
+        final Validator notNumeric = numeric.not("Must not be a number");
+        assertFalse(notNumeric.isValid("12.5"));
+        assertTrue(notNumeric.isValid("abc"));
+        assertEquals("Must not be a number", notNumeric.failMessage("1"));
+    }
+
+    @Test
+    void compositionsMatchIndependentEvaluation() {
+        final Validator[] validators = {
+                new Validator.Builder().required().shouldOnlyContain(ALPHABET).build(),
+                new Validator.Builder().required().mustContainOne(NUMBER).notContain(" ").minLength(4).build(),
+                new Validator.Builder().shouldOnlyContain(ALPHA_NUMERIC).mustContainOne("ñ").build(),
+                new Validator.Builder().email().build(),
+        };
+        final Validator any = Validator.anyOf(validators);
+        final Validator all = Validator.allOf(validators);
+        final Validator compiled = Validator.anyOf(validators);
+        compiled.compile();
+        for (String value: VALUES) {
+            if (value==null) continue;
+            boolean anyValid = false, allValid = true;
+            for (Validator validator: validators) {
+                anyValid |= validator.failMessage(value)==null;
+                allValid &= validator.failMessage(value)==null;
+            }
+            assertEquals(anyValid, any.isValid(value), value);
+            assertEquals(anyValid, compiled.isValid(value), value);
+            assertEquals(allValid, all.isValid(value), value);
+            if (!anyValid) assertEquals(validators[0].failMessage(value), any.failMessage(value));
+        }
+    }
+
+    @Test
+    void sharedRulesAreEvaluatedOnce() {
+        final AtomicInteger calls = new AtomicInteger();
+        final Validator shared = new Validator();
+        shared.rule("Counted", it -> calls.incrementAndGet()>0);
+        final Validator a = shared.copy();
+        a.minLength(10);
+        final Validator b = shared.copy();
+        b.maxLength(2);
+        final Validator c = shared.copy();
+        c.length(5);
+        assertTrue(Validator.anyOf(a, b, c).isValid("12345"));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void exceptionIsExpectedForAsyncRules() {
+        final Validator async = new Validator();
+        async.asyncRule("Async", it -> CompletableFuture.completedFuture(true));
+        assertThrows(IllegalArgumentException.class, () -> async.or(new Validator()));
+        assertThrows(IllegalArgumentException.class, () -> async.not("Not"));
+        assertEquals(1, async.and(async).getAsyncRules().size());
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.apamatesoft.validator;
+
+import org.junit.jupiter.api.Test;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidatorContextRuleTest {
+
+    @Test
+    void derivedPropertiesAreComputed() {
+        final Validator validator = new Validator.Builder()
+                .required()
+                .contextRule("Code points", it -> it.codePointCount()==6)
+                .contextRule("Letters", it -> it.letterCount()==4)
+                .contextRule("Digits", it -> it.digitCount()==1)
+                .contextRule("Spaces", it -> it.whitespaceCount()==0)
+                .contextRule("Upper case", it -> it.count(Character.UPPERCASE_LETTER)==1)
+                .build();
+        assertNull(validator.failMessage("A\u00f1d\u00fa1\uD83D\uDE00"));
+        assertEquals("Code points", validator.failMessage("A\u00f1d\u00fa1"));
+        assertEquals("Letters", validator.failMessage("A\u00f1d11\uD83D\uDE00"));
+        assertEquals("Upper case", validator.failMessage("a\u00f1d\u00fa1\uD83D\uDE00"));
+    }
+
+    @Test
+    void derivedFormsAreComputedOncePerEvaluation() {
+        final AtomicReference<String> first = new AtomicReference<>();
+        final AtomicReference<String> second = new AtomicReference<>();
+        final Validator validator = new Validator.Builder()
+                .contextRule("Trim", it -> {
+                    first.set(it.trimmed());
+                    return true;
+                })
+                .contextRule("Trim", it -> {
+                    second.set(it.trimmed());
+                    return it.lowerCase().trim().equals("abc");
+                })
+                .build();
+        assertTrue(validator.isValid(" ABC "));
+        assertEquals("ABC", first.get());
+        assertSame(first.get(), second.get());
+        assertFalse(validator.isValid(" ABD "));
+        assertEquals("ABD", second.get());
+    }
+
+    @Test
+    void normalizedFormComposesAccents() {
+        final Validator validator = new Validator.Builder()
+                .contextRule("NFC", it -> it.normalized().equals("\u00f1and\u00fa"))
+                .build();
+        assertTrue(validator.isValid("\u00f1and\u00fa"));
+        assertTrue(validator.isValid("n\u0303andu\u0301"));
+    }
+
+    @Test
+    void contextIsConfinedToThread() throws Exception {
+        final AtomicReference<EvaluationContext> context = new AtomicReference<>();
+        final Validator validator = new Validator.Builder()
+                .contextRule("Context", it -> {
+                    context.set(it);
+                    return true;
+                })
+                .build();
+        validator.isValid("a");
+        final EvaluationContext main = context.get();
+        validator.isValid("b");
+        assertSame(main, context.get());
+        CompletableFuture.runAsync(() -> validator.isValid("c")).get();
+        assertNotSame(main, context.get());
+    }
+
+    @Test
+    void nestedValidatorDoesNotReplaceContext() {
+        final Validator inner = new Validator.Builder()
+                .contextRule("Inner", it -> it.lowerCase().equals("zzz"))
+                .build();
+        final Validator outer = new Validator.Builder()
+                .contextRule("Outer", it -> {
+                    final String lowerCase = it.lowerCase();
+                    assertTrue(inner.isValid("ZZZ"));
+                    return it.getValue().equals("ABC") && it.lowerCase()==lowerCase && lowerCase.equals("abc");
+                })
+                .contextRule("Outer", it -> it.trimmed().equals("ABC"))
+                .build();
+        assertTrue(outer.isValid("ABC"));
+        assertFalse(outer.isValid("ABD"));
+    }
+
+    @Test
+    void evaluatedStringIsNotRetained() throws Exception {
+        final Validator validator = new Validator.Builder()
+                .contextRule("Context", it -> it.codePointCount()>0)
+                .build();
+        String value = new String("abc");
+        final WeakReference<String> reference = new WeakReference<>(value);
+        assertTrue(validator.isValid(value));
+        value = null;
+        for (int i = 0; i<50 && reference.get()!=null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(reference.get());
+    }
+
+}
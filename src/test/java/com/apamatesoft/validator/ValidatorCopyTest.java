@@ -0,0 +1,72 @@
+package com.apamatesoft.validator;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidatorCopyTest {
+
+    @Test
+    void extendingCopyDoesNotAffectOriginal() {
+        final Validator base = new Validator.Builder().required().minLength(4).build();
+        final Validator copy = base.copy();
+        copy.rule("Not xxxx", it -> !it.equals("xxxx"));
+        copy.maxLength(6);
+        assertTrue(base.isValid("xxxx"));
+        assertTrue(base.isValid("xxxxxxx"));
+        assertFalse(copy.isValid("xxxx"));
+        assertFalse(copy.isValid("xxxxxxx"));
+        assertEquals(2, base.getRules().size());
+        assertEquals(4, copy.getRules().size());
+    }
+
+    @Test
+    void extendingOriginalDoesNotAffectCopy() {
+        final Validator base = new Validator();
+        base.required();
+        final Validator copy = base.copy();
+        base.minLength(4);
+        assertTrue(copy.isValid("x"));
+        assertFalse(base.isValid("x"));
+    }
+
+    @Test
+    void siblingCopiesShareCommonPrefix() {
+        final Validator base = new Validator.Builder().required().minLength(4).build();
+        final Validator email = base.copy();
+        final Validator number = base.copy();
+        email.email();
+        number.numericFormat();
+        assertSame(base.getRules().get(1), email.getRules().get(1));
+        assertSame(email.getRules().get(1), number.getRules().get(1));
+        assertEquals(Rule.EMAIL, email.getRules().get(2).getOp());
+        assertEquals(Rule.NUMERIC_FORMAT, number.getRules().get(2).getOp());
+        assertTrue(email.isValid("a@b.co"));
+        assertFalse(number.isValid("a@b.co"));
+        assertTrue(number.isValid("1234"));
+    }
+
+    @Test
+    void builderCanKeepAddingRulesAfterBuild() {
+        final Validator.Builder builder = new Validator.Builder().required();
+        final Validator first = builder.build();
+        final Validator second = builder.minLength(4).build();
+        assertTrue(first.isValid("x"));
+        assertFalse(second.isValid("x"));
+    }
+
+    @Test
+    void ruleListIsPersistent() {
+        RuleList<Integer> prefix = RuleList.empty();
+        for (int i = 0; i<10; i++) prefix = prefix.append(i);
+        final RuleList<Integer> list = prefix;
+        final RuleList<Integer> a = list.append(10);
+        final RuleList<Integer> b = list.append(20);
+        assertEquals(10, list.size());
+        assertEquals(10, a.get(10));
+        assertEquals(20, b.get(10));
+        assertEquals(9, b.get(9));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(10));
+        assertThrows(UnsupportedOperationException.class, () -> a.add(0, 1));
+    }
+
+}
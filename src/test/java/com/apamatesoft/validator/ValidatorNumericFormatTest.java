@@ -3,8 +3,10 @@ package com.apamatesoft.validator;
 import com.apamatesoft.validator.functions.NotPass;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import java.util.Random;
 
 import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -97,4 +99,31 @@ public class ValidatorNumericFormatTest {
         verify(notPass).invoke("It is not a number");
     }
 
+    @Test
+    void matchesParseDouble() {
+        final String[] values = {
+                "1", "-1", "+1", "1.", ".5", ".", "-.", "1e5", "1E-5", "1e", "1e+", "1.5e3d", "1f", "1D", "1fd",
+                "0x1p3", "0X1.8P-2", "0x.8p1", "0x1", "0x1.p1f", "0xp1", "0x", "Infinity", "-Infinity", "+Infinity",
+                "Infinityx", "NaN", "-NaN", " 1 ", "\t1\n", "\u00a01", "1 2", "1..2", "1.2.3", "--1", "+-1", "e5",
+                "\u0661", "0x1g", "1_000", ""
+        };
+        for (String value: values) assertEquals(parses(value), Rule.isNumeric(value), value);
+        final String alphabet = "0129.+-eExXpPaAfFdDIn \t";
+        final Random random = new Random(11);
+        for (int i = 0; i<100_000; i++) {
+            final StringBuilder value = new StringBuilder();
+            final int length = random.nextInt(8);
+            for (int j = 0; j<length; j++) value.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            assertEquals(parses(value.toString()), Rule.isNumeric(value.toString()), value.toString());
+        }
+    }
+
+    private static boolean parses(String value) {
+        try {
+            return !Double.isNaN(Double.parseDouble(value));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
 }
@@ -0,0 +1,152 @@
+package com.apamatesoft.validator;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidatorProfileTest {
+
+    private static final Validator VALIDATOR = new Validator.Builder()
+            .required("Required")
+            .onlyNumbers("Numbers")
+            .maxLength(5, "Max")
+            .build();
+
+    private static List<String> values(int count) {
+        final List<String> values = new ArrayList<>();
+        for (int i = 0; i<count; i++) {
+            switch (i%4) {
+                case 0: values.add(""); break;
+                case 1: values.add("x"+i); break;
+                case 2: values.add(Integer.toString(i%1000)); break;
+                default: values.add("1234567"+i); break;
+            }
+        }
+        return values;
+    }
+
+    @Test
+    void countsFailuresPerRule() {
+        final ValidatorProfile profile = new ValidatorProfile.Builder(VALIDATOR).seed(1).build()
+                .addAll(values(1000));
+        assertEquals(1000, profile.getCount());
+        assertEquals(250, profile.getValidCount());
+        assertEquals(750, profile.getRejectedCount());
+        assertEquals(Arrays.asList("Required", "Numbers", "Max"), profile.getRuleMessages());
+        assertEquals(250, profile.getFailureCount(0));
+        assertEquals(250, profile.getFailureCount(1));
+        assertEquals(250, profile.getFailureCount(2));
+        assertEquals(0, profile.getMinLength());
+        assertEquals(10, profile.getMaxLength());
+    }
+
+    @Test
+    void histogramsUsePowerOfTwoBuckets() {
+        final ValidatorProfile profile = ValidatorProfile.of(VALIDATOR);
+        for (String value: new String[] {"", "1", "12", "123", "1234", "x", null}) profile.add(value);
+        final long[] lengths = profile.getLengthHistogram();
+        assertEquals(ValidatorProfile.LENGTH_BUCKETS, lengths.length);
+        assertEquals(1, lengths[0]);
+        assertEquals(2, lengths[1]);
+        assertEquals(2, lengths[2]);
+        assertEquals(1, lengths[3]);
+        final long[] rejected = profile.getRejectedLengthHistogram();
+        assertEquals(1, rejected[0]);
+        assertEquals(1, rejected[1]);
+        assertEquals(3, profile.getRejectedCount());
+        assertEquals(2, profile.getFailureCount(0));
+        assertEquals(11.0/6, profile.getMeanLength(), 1e-9);
+    }
+
+    @Test
+    void samplesAreBoundedAndBelongToTheirRule() {
+        final ValidatorProfile profile = new ValidatorProfile.Builder(VALIDATOR).sampleSize(8).seed(3).build()
+                .addAll(values(100_000));
+        for (int rule = 0; rule<3; rule++) {
+            final List<String> samples = profile.getSamples(rule);
+            assertEquals(8, samples.size());
+            for (String sample: samples) assertEquals(VALIDATOR.failure(sample).join().index, rule, sample);
+        }
+        final ValidatorProfile small = ValidatorProfile.of(VALIDATOR);
+        small.add("abc");
+        assertEquals(Arrays.asList("abc"), small.getSamples(1));
+        assertTrue(small.getSamples(2).isEmpty());
+    }
+
+    @Test
+    void samplingIsUniform() {
+        final int[] hits = new int[100];
+        for (int trial = 0; trial<2_000; trial++) {
+            final ValidatorProfile left = new ValidatorProfile.Builder(VALIDATOR).sampleSize(10).seed(trial).build();
+            final ValidatorProfile right = new ValidatorProfile.Builder(VALIDATOR).sampleSize(10).seed(-trial).build();
+            for (int i = 0; i<70; i++) left.add("x"+i);
+            for (int i = 70; i<100; i++) right.add("x"+i);
+            for (String sample: left.merge(right).getSamples(1)) hits[Integer.parseInt(sample.substring(1))]++;
+        }
+        // Cada valor debería aparecer en 2000*10/100 = 200 muestras.
+        for (int i = 0; i<hits.length; i++) assertTrue(hits[i]>120 && hits[i]<280, i+": "+hits[i]);
+    }
+
+    @Test
+    void estimatesDistinctRejectedValues() {
+        final ValidatorProfile profile = ValidatorProfile.of(VALIDATOR);
+        for (int round = 0; round<3; round++) {
+            for (int i = 0; i<50_000; i++) profile.add("value-"+i);
+        }
+        assertEquals(150_000, profile.getRejectedCount());
+        assertEquals(50_000, profile.getDistinctRejectedEstimate(), 50_000*0.05);
+        final ValidatorProfile few = ValidatorProfile.of(VALIDATOR);
+        for (int i = 0; i<100; i++) few.add("v"+(i%10));
+        assertEquals(10, few.getDistinctRejectedEstimate(), 1);
+    }
+
+    @Test
+    void parallelProfilesMatchSequential() {
+        final List<String> values = values(200_000);
+        final ValidatorProfile sequential = ValidatorProfile.of(VALIDATOR).addAll(values);
+        final ValidatorProfile parallel = values.parallelStream().collect(ValidatorProfile.collector(VALIDATOR));
+        assertEquals(sequential.getCount(), parallel.getCount());
+        assertEquals(sequential.getRejectedCount(), parallel.getRejectedCount());
+        for (int rule = 0; rule<3; rule++)
+            assertEquals(sequential.getFailureCount(rule), parallel.getFailureCount(rule));
+        assertArrayEquals(sequential.getLengthHistogram(), parallel.getLengthHistogram());
+        assertEquals(sequential.getMinLength(), parallel.getMinLength());
+        assertEquals(sequential.getMaxLength(), parallel.getMaxLength());
+        assertEquals(sequential.getDistinctRejectedEstimate(), parallel.getDistinctRejectedEstimate());
+        assertEquals(16, parallel.getSamples(2).size());
+    }
+
+    @Test
+    void keepsTheRulesOfItsCreation() {
+        final Validator validator = new Validator.Builder().required("Required").onlyNumbers("Numbers").build();
+        final ValidatorProfile profile = ValidatorProfile.of(validator);
+        validator.update(rules -> rules.maxLength(2, "Max").required("Required"));
+        assertFalse(profile.add("12a"));
+        assertFalse(profile.add(""));
+        assertTrue(profile.add("12345"));
+        assertEquals(List.of("Required", "Numbers"), profile.getRuleMessages());
+        assertEquals(1, profile.getFailureCount(0));
+        assertEquals(1, profile.getFailureCount(1));
+        assertEquals(List.of("12a"), profile.getSamples(1));
+        assertThrows(IllegalArgumentException.class, () -> profile.merge(ValidatorProfile.of(validator)));
+    }
+
+    @Test
+    void incompatibleProfilesAreRejected() {
+        final ValidatorProfile profile = ValidatorProfile.of(VALIDATOR);
+        assertThrows(IllegalArgumentException.class,
+                () -> profile.merge(new ValidatorProfile.Builder(VALIDATOR).sampleSize(4).build()));
+        assertThrows(IllegalArgumentException.class,
+                () -> profile.merge(ValidatorProfile.of(new Validator.Builder().required().build())));
+        final Validator copy = new Validator.Builder().required("Required").onlyNumbers("Numbers").maxLength(5, "Max")
+                .build();
+        assertThrows(IllegalArgumentException.class, () -> profile.merge(ValidatorProfile.of(copy)));
+        final List<String> all = IntStream.range(0, 10).mapToObj(Integer::toString).collect(Collectors.toList());
+        assertEquals(10, ValidatorProfile.of(VALIDATOR).addAll(all).getValidCount());
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.apamatesoft.validator;
+
+import com.apamatesoft.validator.constants.Constants;
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidatorSessionTest {
+
+    private static final Pattern EMAIL = Pattern.compile(Constants.EMAIL_RE);
+    private static final String ALPHABET = "ab0.-@_A!\r\n\u2028 \u00f1\uD83D\uDE00";
+
+    @Test
+    void emailAutomatonMatchesRegex() {
+        final String[] emails = {
+                "user@mail.com", "user.name@mail.co", "a@b.c", "a@b-c.d", "a@b.c\n", "a@b.c\r\n", "a@b.c\n\n",
+                "a@b.c\r", "a@b.c\u2028", "a@b-.c", "a@-b.c", "a@b.c-", "a@b", ".a@b.c", "a.@b.c", "a..b@c.d",
+                "User@mail.com", "a@b..c", "a@b.c.", "", "@b.c", "a@@b.c", "a_b!@x-y.z0", "a@b.c\u2028", "a@b.c\u0085", "a@b.c\u2029x"
+        };
+        for (String email: emails) assertEquals(EMAIL.matcher(email).find(), EmailAutomaton.matches(email), email);
+        final Random random = new Random(42);
+        for (int i = 0; i<20_000; i++) {
+            final String email = randomText(random, "ab.-@\r\n", 10);
+            assertEquals(EMAIL.matcher(email).find(), EmailAutomaton.matches(email), email);
+        }
+    }
+
+    @Test
+    void sessionMatchesValidator() {
+        final Validator[] validators = {
+                new Validator.Builder().required().minLength(2).maxLength(6).length(4).build(),
+                new Validator.Builder().required().email().build(),
+                new Validator.Builder().shouldOnlyContain("ab0\uD83D").notContain("-_").mustContainOne("@\uDE00").build(),
+                new Validator.Builder().numericFormat().rule("Custom", it -> !it.contains("A")).build(),
+                Validator.anyOf(new Validator.Builder().email().build(), new Validator.Builder().onlyNumbers().build())
+        };
+        final Random random = new Random(7);
+        for (Validator validator: validators) {
+            final ValidatorSession session = validator.session();
+            final StringBuilder text = new StringBuilder();
+            for (int i = 0; i<5_000; i++) {
+                if (random.nextInt(4)==0) {
+                    session.deleteLast();
+                    if (text.length()>0) text.setLength(text.length()-1);
+                } else if (random.nextInt(50)==0) {
+                    session.reset();
+                    text.setLength(0);
+                } else {
+                    final char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+                    session.append(c);
+                    text.append(c);
+                }
+                assertEquals(text.toString(), session.getText());
+                assertEquals(validator.failMessage(text.toString()), session.failMessage(), text.toString());
+            }
+        }
+    }
+
+    @Test
+    void typingUpdatesVerdict() {
+        final AtomicReference<String> message = new AtomicReference<>();
+        final Validator validator = new Validator.Builder()
+                .required("Required")
+                .email("Email")
+                .build();
+        validator.onNotPass(message::set);
+        final ValidatorSession session = validator.session();
+        assertFalse(session.isValid());
+        assertEquals("Required", message.get());
+        assertEquals("Email", session.append("user@mail").failMessage());
+        assertTrue(session.append(".com").isValid());
+        assertEquals("Email", session.append('-').failMessage());
+        assertNull(session.deleteLast().failMessage());
+        assertEquals(13, session.length());
+        assertEquals("Required", session.reset().failMessage());
+    }
+
+    @Test
+    void resetReadsUpdatedRules() {
+        final Validator validator = new Validator.Builder().maxLength(3, "Max").build();
+        final ValidatorSession session = validator.session().append("abcd");
+        assertEquals("Max", session.failMessage());
+        validator.update(rules -> rules.minLength(3, "Min"));
+        assertEquals("Max", session.failMessage());
+        assertEquals("Min", session.reset().append("ab").failMessage());
+    }
+
+    private static String randomText(Random random, String alphabet, int maxLength) {
+        final StringBuilder text = new StringBuilder();
+        for (int i = random.nextInt(maxLength+1); i>0; i--) text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        return text.toString();
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.apamatesoft.validator;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import static com.apamatesoft.validator.constants.Constants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidatorSetTest {
+
+    private static final String ALPHABET = "ab09AZ.@-+_ e\u00f1\uD83D";
+
+    private static List<Validator> formats() {
+        return Arrays.asList(
+                new Validator.Builder().required().email().build(),
+                new Validator.Builder().required().onlyNumbers().length(10).build(),
+                new Validator.Builder().required().numericFormat().build(),
+                new Validator.Builder()
+                        .length(8).shouldOnlyContain(ALPHA_NUMERIC_UPPERCASE).mustContainOne(NUMBER).build(),
+                new Validator.Builder().minLength(3).maxLength(12).shouldOnlyContain(ALPHA_LOWERCASE).build(),
+                new Validator.Builder().required().shouldOnlyContain(ALPHA_LOWERCASE_ES).build(),
+                new Validator.Builder().required().notContain("@ ").mustContainOne("\u00f1\uD83D").build(),
+                new Validator.Builder().rule("Starts with a", it -> it.startsWith("a")).maxLength(6).build(),
+                Validator.anyOf(new Validator.Builder().email().build(), new Validator.Builder().onlyNumbers().build()),
+                new Validator.Builder().required().minLength(3).build()
+                        .and(new Validator.Builder().email().build().not("Not an email"))
+        );
+    }
+
+    private static long expected(List<Validator> validators, String evaluate) {
+        long mask = 0;
+        for (int i = 0; i<validators.size(); i++) {
+            if (validators.get(i).failMessage(evaluate)==null) mask |= 1L<<i;
+        }
+        return mask;
+    }
+
+    @Test
+    void matchesEachValidator() {
+        final List<Validator> validators = formats();
+        final ValidatorSet set = ValidatorSet.of(validators.toArray(new Validator[0]));
+        final String[] values = {
+                "", "user@mail.com", "0123456789", "12.5", "AB12CD34", "abcdef", "a\u00f1o", "abc", "ABCDEFGH", "1e3",
+                "a@b.c", "123", " "
+        };
+        for (String value: values) assertEquals(expected(validators, value), set.matches(value), value);
+        final Random random = new Random(5);
+        for (int i = 0; i<20_000; i++) {
+            final StringBuilder value = new StringBuilder();
+            final int length = random.nextInt(14);
+            for (int j = 0; j<length; j++) value.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            assertEquals(expected(validators, value.toString()), set.matches(value.toString()), value.toString());
+        }
+        assertEquals(0, set.matches(null));
+    }
+
+    @Test
+    void sharesRulesBetweenValidators() {
+        final ValidatorSet set = ValidatorSet.of(
+                new Validator.Builder().required().email().build(),
+                new Validator.Builder().required("Other message").email().maxLength(40).build(),
+                new Validator.Builder().required().onlyNumbers().build());
+        assertEquals(4, set.ruleCount());
+        assertEquals(0b011, set.matches("user@mail.com"));
+        assertEquals(0b100, set.matches("123"));
+    }
+
+    @Test
+    void evaluatesSharedCustomRulesOnce() {
+        final int[] calls = new int[1];
+        final Validator custom = new Validator.Builder().rule("Custom", it -> ++calls[0]>0).build();
+        final ValidatorSet set = new ValidatorSet.Builder()
+                .add("a", custom)
+                .add("b", new Validator.Builder().required().build().and(custom))
+                .add("c", new Validator.Builder().onlyNumbers().build().and(custom))
+                .build();
+        assertEquals(Arrays.asList("a", "b"), set.matchingNames("xyz"));
+        assertEquals(1, calls[0]);
+        assertEquals(Arrays.asList("a", "b", "c"), set.getNames());
+    }
+
+    @Test
+    void supportsMoreThan64Validators() {
+        final List<Validator> validators = new ArrayList<>();
+        final ValidatorSet.Builder builder = new ValidatorSet.Builder();
+        for (int i = 0; i<100; i++) {
+            final String letter = Character.toString((char) ('a'+i%26));
+            final Validator validator = new Validator.Builder().maxLength(i).mustContainOne(letter).build();
+            validators.add(validator);
+            builder.add("v"+i, validator);
+        }
+        final ValidatorSet set = builder.build();
+        assertThrows(IllegalStateException.class, () -> set.matches("abc"));
+        final long[] result = new long[2];
+        for (String value: new String[] {"abc", "xyz", "abcdefghijklmnopqrstuvwxyz", "a\u00f1"}) {
+            set.matches(value, result);
+            for (int i = 0; i<100; i++) {
+                final boolean expected = validators.get(i).failMessage(value)==null;
+                assertEquals(expected, (result[i/64] & 1L<<i)!=0, value+" "+i);
+            }
+        }
+    }
+
+    @Test
+    void rejectsAsyncRules() {
+        final Validator async = new Validator.Builder()
+                .asyncRule("Async", it -> CompletableFuture.completedFuture(true))
+                .build();
+        assertThrows(IllegalArgumentException.class, () -> new ValidatorSet.Builder().add("async", async));
+    }
+
+}
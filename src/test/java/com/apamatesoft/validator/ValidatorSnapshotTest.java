@@ -0,0 +1,99 @@
+package com.apamatesoft.validator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import static com.apamatesoft.validator.constants.Constants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidatorSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    private Map<String, Validator> roundTrip(Map<String, Validator> validators) throws IOException {
+        final Path file = dir.resolve("validators.snapshot");
+        ValidatorSnapshot.write(validators, file);
+        return ValidatorSnapshot.load(file);
+    }
+
+    @Test
+    void loadedValidatorsBehaveAsOriginals() throws IOException {
+        final Map<String, Validator> validators = new LinkedHashMap<>();
+        validators.put("password", new Validator.Builder()
+                .required()
+                .minLength(8, "Al menos %d caracteres")
+                .maxLength(16)
+                .mustContainOne(NUMBER)
+                .notContain("ñ¿?")
+                .setNotMatchMessage("No coinciden")
+                .compile()
+                .build());
+        validators.put("email", new Validator.Builder().required().email().build());
+        validators.put("amount", new Validator.Builder().numericFormat().length(4).shouldOnlyContain(NUMBER+".").build());
+
+        final Map<String, Validator> loaded = roundTrip(validators);
+        assertEquals(validators.keySet(), loaded.keySet());
+        assertTrue(loaded.get("password").isCompiled());
+        assertFalse(loaded.get("email").isCompiled());
+        assertEquals("No coinciden", loaded.get("password").getNotMatchMessage());
+
+        final String[] evaluates = { "", "abc", "abcdefg1", "abcdefgh", "abcdefg1ñ", "abcdefghijklmnop1", "a@b.co",
+                "example@mail.com", "12.5", "1234", "12a4" };
+        for (Map.Entry<String, Validator> entry: validators.entrySet()) {
+            for (String evaluate: evaluates) {
+                assertEquals(entry.getValue().failMessage(evaluate), loaded.get(entry.getKey()).failMessage(evaluate),
+                        entry.getKey()+": "+evaluate);
+            }
+        }
+    }
+
+    @Test
+    void exceptionIsExpectedForCustomRules() {
+        final Map<String, Validator> validators = new LinkedHashMap<>();
+        validators.put("custom", new Validator.Builder().rule("Error", evaluate -> true).build());
+        assertThrows(IllegalArgumentException.class, () -> roundTrip(validators));
+    }
+
+    @Test
+    void failedWriteKeepsThePreviousFile() throws IOException {
+        final Map<String, Validator> validators = new LinkedHashMap<>();
+        validators.put("email", new Validator.Builder().required().email().build());
+        final Path file = dir.resolve("validators.snapshot");
+        ValidatorSnapshot.write(validators, file);
+        final byte[] previous = Files.readAllBytes(file);
+        validators.put("custom", new Validator.Builder().rule("Error", evaluate -> true).build());
+        assertThrows(IllegalArgumentException.class, () -> ValidatorSnapshot.write(validators, file));
+        assertArrayEquals(previous, Files.readAllBytes(file));
+        try (java.util.stream.Stream<Path> files = Files.list(dir)) {
+            assertEquals(1, files.count());
+        }
+        validators.remove("custom");
+        validators.put("code", new Validator.Builder().length(4).build());
+        ValidatorSnapshot.write(validators, file);
+        assertEquals(validators.keySet(), ValidatorSnapshot.load(file).keySet());
+    }
+
+    @Test
+    void exceptionIsExpectedForUnknownFiles() throws IOException {
+        final Path file = Files.write(dir.resolve("other.snapshot"), new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+        assertThrows(IOException.class, () -> ValidatorSnapshot.load(file));
+    }
+
+    @Test
+    void exceptionIsExpectedForTruncatedFiles() throws IOException {
+        final Map<String, Validator> validators = new LinkedHashMap<>();
+        validators.put("code", new Validator.Builder().required().shouldOnlyContain(ALPHA_NUMERIC_ES).build());
+        final Path file = dir.resolve("validators.snapshot");
+        ValidatorSnapshot.write(validators, file);
+        final byte[] bytes = Files.readAllBytes(file);
+        final Path truncated = Files.write(dir.resolve("truncated.snapshot"), Arrays.copyOf(bytes, bytes.length-3));
+        assertThrows(IOException.class, () -> ValidatorSnapshot.load(truncated));
+    }
+
+}
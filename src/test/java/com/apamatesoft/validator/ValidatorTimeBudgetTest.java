@@ -0,0 +1,199 @@
+package com.apamatesoft.validator;
+
+import com.apamatesoft.validator.exceptions.EvaluationTimeoutException;
+import com.apamatesoft.validator.exceptions.InvalidEvaluationException;
+import com.apamatesoft.validator.messages.MessagesEn;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidatorTimeBudgetTest {
+
+    private static boolean spin(long millis) {
+        final long end = System.nanoTime()+TimeUnit.MILLISECONDS.toNanos(millis);
+        while (System.nanoTime()-end<0) Validator.checkDeadline();
+        return true;
+    }
+
+    @Test
+    void slowCustomRuleTimesOut() {
+        final List<String> overruns = new ArrayList<>();
+        final AtomicReference<String> notPass = new AtomicReference<>();
+        final Validator validator = new Validator.Builder()
+                .required()
+                .rule("Slow", it -> spin(10_000))
+                .maxLength(3)
+                .timeBudget(20, TimeUnit.MILLISECONDS, "Timeout")
+                .budgetExceeded((index, message, elapsed) -> overruns.add(index+":"+message))
+                .notPass(notPass::set)
+                .build();
+        final long start = System.nanoTime();
+        assertFalse(validator.isValid("abcd"));
+        assertTrue(System.nanoTime()-start<TimeUnit.SECONDS.toNanos(5));
+        assertEquals("Timeout", notPass.get());
+        assertEquals("Timeout", validator.failMessage("abcd"));
+        assertEquals(Arrays.asList("1:Slow", "1:Slow"), overruns);
+    }
+
+    @Test
+    void nonCooperativeRuleIsReportedAfterItEnds() {
+        final List<Integer> overruns = new ArrayList<>();
+        final Validator validator = new Validator.Builder()
+                .rule("Sleep", it -> {
+                    try {
+                        Thread.sleep(30);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return true;
+                })
+                .required()
+                .timeBudget(5, TimeUnit.MILLISECONDS)
+                .budgetExceeded((index, message, elapsed) -> {
+                    assertTrue(elapsed>=TimeUnit.MILLISECONDS.toNanos(30));
+                    overruns.add(index);
+                })
+                .build();
+        assertEquals(new MessagesEn().getTimeoutMessage(), validator.failMessage("abc"));
+        assertEquals(Arrays.asList(0), overruns);
+    }
+
+    @Test
+    void isValidOrFailThrowsTimeout() {
+        final Validator validator = new Validator.Builder()
+                .rule("Slow", it -> spin(10_000))
+                .timeBudget(10, TimeUnit.MILLISECONDS, "Timeout")
+                .build();
+        final EvaluationTimeoutException e = assertThrows(EvaluationTimeoutException.class,
+                () -> validator.isValidOrFail("abc"));
+        assertEquals("Timeout", e.getMessage());
+        assertEquals("abc", e.getValue());
+    }
+
+    @Test
+    void ruleFailuresAreReportedWithinBudget() {
+        final Validator validator = new Validator.Builder()
+                .required("Required")
+                .onlyNumbers("Numbers")
+                .timeBudget(1, TimeUnit.SECONDS)
+                .compile()
+                .build();
+        assertTrue(validator.isValid("123"));
+        assertEquals("Required", validator.failMessage(""));
+        assertEquals("Numbers", validator.failMessage("12a"));
+        final InvalidEvaluationException e = assertThrows(InvalidEvaluationException.class,
+                () -> validator.isValidOrFail("12a"));
+        assertFalse(e instanceof EvaluationTimeoutException);
+    }
+
+    @Test
+    void asyncRulesAreCancelledOnTimeout() {
+        final CompletableFuture<Boolean> never = new CompletableFuture<>();
+        final List<Integer> overruns = new ArrayList<>();
+        final Validator validator = new Validator.Builder()
+                .required()
+                .asyncRule("Async", it -> never)
+                .timeBudget(20, TimeUnit.MILLISECONDS, "Timeout")
+                .budgetExceeded((index, message, elapsed) -> overruns.add(index))
+                .build();
+        assertEquals("Timeout", validator.failMessage("abc"));
+        assertEquals(Arrays.asList(1), overruns);
+    }
+
+    @Test
+    void everyEntryPointHonoursTheBudget() throws Exception {
+        final char[] chars = new char[100_000];
+        Arrays.fill(chars, 'a');
+        final String text = new String(chars);
+        final byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        final List<String> notPass = new ArrayList<>();
+        // Conjunto con un carácter desde 0x8000, que siempre se recorre sin el kernel vectorizado.
+        final Validator validator = new Validator.Builder()
+                .shouldOnlyContain("a\uffff", "Only a")
+                .rule("Slow", it -> spin(2_000))
+                .asyncRule("Async", it -> CompletableFuture.completedFuture(true))
+                .timeBudget(20, TimeUnit.MILLISECONDS, "Timeout")
+                .notPass(notPass::add)
+                .build();
+        final long start = System.nanoTime();
+        assertEquals("Timeout", validator.failMessageUtf8(utf8, 0, utf8.length));
+        assertEquals("Timeout", validator.failMessageUtf8(new ByteArrayInputStream(utf8)));
+        assertFalse(validator.isValidUtf8(ByteBuffer.wrap(utf8)));
+        assertFalse(validator.isValidAsync(text).get());
+        assertArrayEquals(new boolean[] { false, false }, validator.isValidBatch(Arrays.asList(text, "b")));
+        assertEquals(Validator.Failure.class, validator.failure(text).get().getClass());
+        assertEquals(-1, validator.failure(text).get().index);
+        assertTrue(System.nanoTime()-start<TimeUnit.SECONDS.toNanos(2), "the slow rule ran to completion");
+        assertEquals(Arrays.asList("Timeout", "Timeout", "Only a", "Timeout"), notPass);
+        assertFalse(Deadline.current().isActive());
+    }
+
+    @Test
+    void longScansCheckTheDeadline() {
+        final char[] chars = new char[100_000];
+        Arrays.fill(chars, 'a');
+        final byte[] utf8 = new String(chars).getBytes(StandardCharsets.UTF_8);
+        final List<Integer> overruns = new ArrayList<>();
+        final Validator validator = new Validator.Builder()
+                .shouldOnlyContain("a\uffff", "Only a")
+                .timeBudget(1, TimeUnit.NANOSECONDS, "Timeout")
+                .budgetExceeded((index, message, elapsed) -> overruns.add(index))
+                .build();
+        assertEquals("Timeout", validator.failMessageUtf8(utf8, 0, utf8.length));
+        assertEquals(Arrays.asList(0), overruns);
+        validator.setTimeBudget(0, TimeUnit.SECONDS);
+        assertNull(validator.failMessageUtf8(utf8, 0, utf8.length));
+    }
+
+    @Test
+    void asyncEntryPointsCancelPendingRules() throws Exception {
+        final List<CompletableFuture<Boolean>> pending = new ArrayList<>();
+        final Validator validator = new Validator.Builder()
+                .asyncRule("Async", it -> {
+                    final CompletableFuture<Boolean> never = new CompletableFuture<>();
+                    pending.add(never);
+                    return never;
+                })
+                .timeBudget(20, TimeUnit.MILLISECONDS, "Timeout")
+                .build();
+        final AtomicReference<String> message = new AtomicReference<>();
+        validator.onNotPass(message::set);
+        assertFalse(validator.isValidAsync("abc").get(5, TimeUnit.SECONDS));
+        assertEquals("Timeout", message.get());
+        assertArrayEquals(new boolean[] { false }, validator.isValidBatch(Arrays.asList("abc")));
+        assertEquals(2, pending.size());
+        for (CompletableFuture<Boolean> future: pending) assertTrue(future.isCancelled());
+    }
+
+    @Test
+    void nestedValidatorsKeepTheNearestDeadline() {
+        final Validator inner = new Validator.Builder()
+                .rule("Slow", it -> spin(10_000))
+                .timeBudget(1, TimeUnit.MINUTES, "Inner timeout")
+                .build();
+        final Validator outer = new Validator.Builder()
+                .rule("Inner", inner::isValid)
+                .timeBudget(20, TimeUnit.MILLISECONDS, "Outer timeout")
+                .build();
+        assertEquals("Outer timeout", outer.failMessage("abc"));
+        assertFalse(Deadline.current().isActive());
+    }
+
+    @Test
+    void withoutBudgetCheckDeadlineHasNoEffect() {
+        final Validator validator = new Validator.Builder().rule("Spin", it -> spin(5)).build();
+        assertTrue(validator.isValid("abc"));
+        validator.setTimeBudget(1, TimeUnit.SECONDS);
+        assertTrue(validator.isValid("abc"));
+        assertThrows(IllegalArgumentException.class, () -> validator.setTimeBudget(-1, TimeUnit.SECONDS));
+    }
+
+}
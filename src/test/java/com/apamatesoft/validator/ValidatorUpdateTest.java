@@ -0,0 +1,75 @@
+package com.apamatesoft.validator;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidatorUpdateTest {
+
+    @Test
+    void updateReplacesAllRules() {
+        final Validator validator = new Validator.Builder().required().maxLength(10).build();
+        assertTrue(validator.isValid("xxxxxxxx"));
+        validator.update(rules -> rules.required().maxLength(5, "Máximo %d"));
+        assertEquals("Máximo 5", validator.failMessage("xxxxxxxx"));
+        assertEquals(2, validator.getRules().size());
+        assertFalse(validator.isCompiled());
+    }
+
+    @Test
+    void updateKeepsCompilation() {
+        final Validator validator = new Validator.Builder().required().compile().build();
+        validator.update(rules -> rules.minLength(4));
+        assertTrue(validator.isCompiled());
+        assertFalse(validator.isValid("xxx"));
+        validator.minLength(2);
+        assertFalse(validator.isCompiled());
+    }
+
+    @Test
+    void concurrentCompileIsNotLost() throws Exception {
+        final Validator validator = new Validator.Builder().required().build();
+        for (int i = 0; i<500; i++) {
+            final CompletableFuture<Void> update = CompletableFuture.runAsync(
+                    () -> validator.update(rules -> rules.required().maxLength(5)));
+            validator.compile();
+            update.get();
+            assertTrue(validator.isCompiled());
+            validator.minLength(0);
+        }
+    }
+
+    @Test
+    void updateDoesNotAffectCopies() {
+        final Validator validator = new Validator.Builder().maxLength(10).build();
+        final Validator copy = validator.copy();
+        validator.update(rules -> rules.maxLength(5));
+        assertTrue(copy.isValid("xxxxxxxx"));
+        assertFalse(validator.isValid("xxxxxxxx"));
+    }
+
+    @Test
+    void readersAlwaysSeeConsistentRules() throws Exception {
+        final Validator validator = new Validator.Builder().required().maxLength(5, "A").compile().build();
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final List<CompletableFuture<Void>> readers = new ArrayList<>();
+        for (int i = 0; i<4; i++) {
+            readers.add(CompletableFuture.runAsync(() -> {
+                while (running.get()) {
+                    final String message = validator.failMessage("xxxxxxxx");
+                    if (!"A".equals(message) && !"B".equals(message)) throw new AssertionError(message);
+                }
+            }));
+        }
+        for (int i = 0; i<2_000; i++) {
+            if (i%2==0) validator.update(rules -> rules.minLength(20, "B"));
+            else validator.update(rules -> rules.required().maxLength(5, "A"));
+        }
+        running.set(false);
+        for (CompletableFuture<Void> reader: readers) reader.get();
+    }
+
+}
@@ -0,0 +1,172 @@
+package com.apamatesoft.validator;
+
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidatorUtf8Test {
+
+    private static final String[] INPUTS = {
+            "", "abc", "abc123", "user@mail.com", "us\u00f1er@mail.com", "-12.5", "12,5", "\u00f1and\u00fa",
+            "a\uD83D\uDE00b", "\uD83D\uDE00\uD83D\uDE00\uD83D\uDE00", "  ", "ABC_def", "caf\u00e9 123"
+    };
+
+    private static final Validator[] VALIDATORS = {
+            new Validator.Builder().required().minLength(3).maxLength(8).build(),
+            new Validator.Builder().length(3).build(),
+            new Validator.Builder().email().build(),
+            new Validator.Builder().numericFormat().build(),
+            new Validator.Builder().shouldOnlyContain("abc\u00f1\u00fand\uD83D\uDE00").build(),
+            new Validator.Builder().notContain("\u00f1\uDE00").build(),
+            new Validator.Builder().mustContainOne("\u00e9\uD83D").build(),
+            new Validator.Builder().onlyNumbers().build(),
+            new Validator.Builder().rule("Custom", it -> it.startsWith("a")).build(),
+            Validator.anyOf(new Validator.Builder().email().build(), new Validator.Builder().numericFormat().build())
+    };
+
+    @Test
+    void bytesMatchStrings() throws IOException {
+        for (Validator validator: VALIDATORS) {
+            for (String input: INPUTS) {
+                final String expected = validator.failMessage(input);
+                final byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+                assertEquals(expected, validator.failMessageUtf8(bytes, 0, bytes.length), input);
+                assertEquals(expected, validator.failMessageUtf8(ByteBuffer.wrap(bytes)), input);
+                final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+                direct.put(bytes).flip();
+                assertEquals(expected, validator.failMessageUtf8(direct), input);
+                assertEquals(expected, validator.failMessageUtf8(new ByteArrayInputStream(bytes)), input);
+            }
+        }
+    }
+
+    @Test
+    void offsetsAreHonored() {
+        final Validator validator = new Validator.Builder().length(3).shouldOnlyContain("abc").build();
+        final byte[] bytes = "xxabcxx".getBytes(StandardCharsets.UTF_8);
+        assertNull(validator.failMessageUtf8(bytes, 2, 3));
+        assertNotNull(validator.failMessageUtf8(bytes, 1, 3));
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes, 2, 3).slice();
+        assertNull(validator.failMessageUtf8(buffer));
+        assertEquals(0, buffer.position());
+        assertThrows(IndexOutOfBoundsException.class, () -> validator.failMessageUtf8(bytes, 5, 3));
+    }
+
+    @Test
+    void malformedBytesMatchDecodedStrings() {
+        final byte[][] inputs = {
+                { 'a', (byte) 0xC3 }, { (byte) 0xC0, (byte) 0x80 }, { (byte) 0xED, (byte) 0xA0, (byte) 0x80 },
+                { (byte) 0xF4, (byte) 0x90, (byte) 0x80, (byte) 0x80 }, { (byte) 0x80, 'a', 'b' }
+        };
+        for (Validator validator: VALIDATORS) {
+            for (byte[] input: inputs) {
+                final String expected = validator.failMessage(new String(input, StandardCharsets.UTF_8));
+                assertEquals(expected, validator.failMessageUtf8(input, 0, input.length));
+            }
+        }
+    }
+
+    @Test
+    void nullIsLikeNullString() throws IOException {
+        final Validator validator = new Validator.Builder().required("Required").build();
+        assertEquals("Required", validator.failMessageUtf8((byte[]) null, 0, 0));
+        assertEquals("Required", validator.failMessageUtf8((ByteBuffer) null));
+        assertEquals("Required", validator.failMessageUtf8((InputStream) null));
+    }
+
+    @Test
+    void oversizedStreamIsRejectedEarly() throws IOException {
+        final Validator validator = new Validator.Builder()
+                .required()
+                .maxLength(100, "Too long")
+                .build();
+        final AtomicInteger read = new AtomicInteger();
+        final InputStream endless = new InputStream() {
+            @Override
+            public int read() {
+                read.incrementAndGet();
+                return 'a';
+            }
+            @Override
+            public int read(byte[] b, int off, int len) {
+                read.addAndGet(len);
+                for (int i = 0; i<len; i++) b[off+i] = (byte) 0xC3;
+                return len;
+            }
+        };
+        assertEquals("Too long", validator.failMessageUtf8(endless));
+        assertTrue(read.get()<=1024, "read "+read.get()+" bytes");
+    }
+
+    @Test
+    void strayContinuationBytesCountAsCharacters() throws IOException {
+        final Validator validator = new Validator.Builder()
+                .maxLength(100, "Too long")
+                .build();
+        final AtomicInteger read = new AtomicInteger();
+        final InputStream endless = new InputStream() {
+            @Override
+            public int read() {
+                read.incrementAndGet();
+                return 0x80;
+            }
+            @Override
+            public int read(byte[] b, int off, int len) {
+                read.addAndGet(len);
+                for (int i = 0; i<len; i++) b[off+i] = (byte) 0x80;
+                return len;
+            }
+        };
+        assertEquals("Too long", validator.failMessageUtf8(endless));
+        assertTrue(read.get()<=1024, "read "+read.get()+" bytes");
+    }
+
+    @Test
+    void oversizedStreamReportsEarlierRulesDecidedOnPrefix() throws IOException {
+        final Validator validator = new Validator.Builder()
+                .required("Required")
+                .email("Email")
+                .onlyNumbers("Numbers")
+                .maxLength(5, "Too long")
+                .build();
+        for (String input: new String[] { "no-email here", "a\u00f1o@mail.com" }) {
+            final byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+            assertEquals(validator.failMessage(input), validator.failMessageUtf8(new ByteArrayInputStream(bytes)));
+        }
+        final Validator digits = new Validator.Builder()
+                .minLength(2, "Too short")
+                .onlyNumbers("Numbers")
+                .maxLength(5, "Too long")
+                .build();
+        final byte[] letters = "12a45678".getBytes(StandardCharsets.UTF_8);
+        assertEquals("Numbers", digits.failMessageUtf8(new ByteArrayInputStream(letters)));
+        // El inicio aún puede ser un email, por lo que se reporta la regla de longitud.
+        final byte[] prefix = "abcdefgh".getBytes(StandardCharsets.UTF_8);
+        assertEquals("Too long", validator.failMessageUtf8(new ByteArrayInputStream(prefix)));
+    }
+
+    @Test
+    void isValidNotifiesAndRunsAsyncRules() throws IOException {
+        final AtomicReference<String> message = new AtomicReference<>();
+        final Validator validator = new Validator.Builder()
+                .required("Required")
+                .asyncRule("Taken", it -> CompletableFuture.completedFuture(!it.equals("taken")))
+                .build();
+        validator.onNotPass(message::set);
+        final byte[] free = "free".getBytes(StandardCharsets.UTF_8);
+        final byte[] taken = "taken".getBytes(StandardCharsets.UTF_8);
+        assertTrue(validator.isValidUtf8(free, 0, free.length));
+        assertFalse(validator.isValidUtf8(ByteBuffer.wrap(taken)));
+        assertEquals("Taken", message.get());
+        assertFalse(validator.isValidUtf8(new ByteArrayInputStream(new byte[0])));
+        assertEquals("Required", message.get());
+    }
+
+}
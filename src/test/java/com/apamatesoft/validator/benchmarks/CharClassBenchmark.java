@@ -0,0 +1,80 @@
+package com.apamatesoft.validator.benchmarks;
+
+import com.apamatesoft.validator.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+import static com.apamatesoft.validator.constants.Constants.*;
+
+/**
+ * Compara el recorrido escalar de las reglas de contenido con el recorrido vectorizado de la capa de Java 17, para
+ * distintas longitudes de texto. Cada combinación de parámetros se ejecuta en una JVM propia, en la que
+ * {@code validator.vector} se establece antes de crear las reglas.
+ * <br><br>
+ * <b>Ejecución (JDK 17+):</b><br>
+ * <code>
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java --add-modules jdk.incubator.vector \
+ *     -cp target/test-classes:target/classes:target/classes/META-INF/versions/17:$(cat target/cp.txt) \
+ *     org.openjdk.jmh.Main CharClassBenchmark
+ * </pre>
+ * </code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class CharClassBenchmark {
+
+    private static final String TEXT = "Lorem ipsum dolor sit amet, consectetur adipiscing elit. Sed do eiusmod 2024. ";
+
+    @Param({ "16", "256", "4096" })
+    public int length;
+
+    @Param({ "true", "false" })
+    public String vector;
+
+    private String text;
+    private Validator shouldOnlyContain;
+    private Validator notContain;
+    private Validator mustContainOne;
+
+    @Setup
+    public void setup() {
+        System.setProperty("validator.vector", vector);
+        final StringBuilder builder = new StringBuilder();
+        while (builder.length()<length) builder.append(TEXT);
+        text = builder.substring(0, length);
+        shouldOnlyContain = new Validator.Builder().shouldOnlyContain(ALPHA_NUMERIC+" .,").build();
+        notContain = new Validator.Builder().notContain("<>{}").build();
+        mustContainOne = new Validator.Builder().mustContainOne("#@").build();
+    }
+
+    @Benchmark
+    public boolean shouldOnlyContain() {
+        return shouldOnlyContain.isValid(text);
+    }
+
+    @Benchmark
+    public boolean notContain() {
+        return notContain.isValid(text);
+    }
+
+    @Benchmark
+    public boolean mustContainOne() {
+        return mustContainOne.isValid(text);
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.apamatesoft.validator.benchmarks;
+
+import com.apamatesoft.validator.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+import static com.apamatesoft.validator.constants.Constants.*;
+
+/**
+ * Compara la evaluación interpretada de las reglas con la cadena compilada por {@link Validator#compile()}.<br>
+ * Antes de medir se evalúan Validators con todas las reglas predefinidas, para que el punto de invocación compartido
+ * del modo interpretado sea megamórfico, como en una aplicación real.
+ * <br><br>
+ * <b>Ejecución:</b><br>
+ * <code>
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main CompileBenchmark
+ * </pre>
+ * </code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompileBenchmark {
+
+    private static final String PASSWORD = "Abcdef123456";
+
+    private Validator interpreted;
+    private Validator compiled;
+
+    private static Validator.Builder password() {
+        return new Validator.Builder()
+                .required()
+                .minLength(8)
+                .maxLength(64)
+                .shouldOnlyContain(ALPHA_NUMERIC)
+                .notContain(" ")
+                .mustContainOne(NUMBER)
+                .mustContainOne(ALPHA_UPPERCASE)
+                .mustContainOne(ALPHA_LOWERCASE)
+                .rule("Not the user name", it -> !it.equalsIgnoreCase("admin"));
+    }
+
+    @Setup
+    public void setup() {
+        interpreted = password().build();
+        compiled = password().compile().build();
+        final Validator[] pollution = {
+                new Validator.Builder().required().email().build(),
+                new Validator.Builder().length(8).onlyNumbers().build(),
+                new Validator.Builder().numericFormat().build(),
+                new Validator.Builder().rule("x", it -> it.startsWith("x")).build(),
+                interpreted
+        };
+        for (int i = 0; i<200_000; i++) {
+            for (Validator validator: pollution) validator.isValid(i%2==0 ? PASSWORD : "example@mail.com");
+        }
+    }
+
+    @Benchmark
+    public boolean interpreted() {
+        return interpreted.isValid(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean compiled() {
+        return compiled.isValid(PASSWORD);
+    }
+
+}
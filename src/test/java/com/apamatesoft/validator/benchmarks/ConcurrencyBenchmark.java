@@ -0,0 +1,163 @@
+package com.apamatesoft.validator.benchmarks;
+
+import com.apamatesoft.validator.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mide cómo escala la evaluación al compartir un mismo Validator entre hilos, comparada con un Validator por hilo.<br>
+ * Un Validator compartido solo se lee durante la evaluación (la referencia volatile a sus reglas, el evento
+ * {@code notPass}), por lo que ambos deberían escalar igual; una diferencia creciente con la cantidad de hilos indica
+ * contención (escrituras compartidas, false sharing o sincronización) en el camino de evaluación.<br>
+ * {@link #main(String[])} ejecuta los benchmarks con 1, 2, 4... hasta N hilos e imprime el rendimiento por hilo y la
+ * relación entre el Validator compartido y los Validators por hilo. Con un umbral, termina con error si la relación
+ * con N hilos es menor, para detectar regresiones antes de un release.
+ * <br><br>
+ * <b>Ejecución:</b><br>
+ * <code>
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.apamatesoft.validator.benchmarks.ConcurrencyBenchmark [hilos] [umbral]
+ * </pre>
+ * </code>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrencyBenchmark {
+
+    private static final String VALID = "user.name@mail.com";
+    private static final String INVALID = "user.name@mail";
+
+    private static Validator create(LongAdder failures) {
+        return new Validator.Builder()
+                .required()
+                .minLength(6)
+                .maxLength(64)
+                .email()
+                .notContain("<>\"")
+                .notPass(message -> failures.increment())
+                .build();
+    }
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+
+        final LongAdder failures = new LongAdder();
+        Validator validator;
+
+        @Setup
+        public void setup() {
+            validator = create(failures);
+        }
+
+    }
+
+    @State(Scope.Thread)
+    public static class PerThread {
+
+        final LongAdder failures = new LongAdder();
+        Validator validator;
+
+        @Setup
+        public void setup() {
+            validator = create(failures);
+        }
+
+    }
+
+    @Benchmark
+    public boolean shared(Shared state) {
+        return state.validator.isValid(VALID);
+    }
+
+    @Benchmark
+    public boolean perThread(PerThread state) {
+        return state.validator.isValid(VALID);
+    }
+
+    /**
+     * Evaluaciones que fallan e invocan el evento {@code notPass}.
+     */
+    @Benchmark
+    public boolean sharedInvalid(Shared state) {
+        return state.validator.isValid(INVALID);
+    }
+
+    @Benchmark
+    public boolean perThreadInvalid(PerThread state) {
+        return state.validator.isValid(INVALID);
+    }
+
+    /**
+     * @param args Cantidad máxima de hilos (por defecto, los procesadores disponibles) y, opcionalmente, la relación
+     * mínima entre el rendimiento del Validator compartido y el de los Validators por hilo.
+     */
+    public static void main(String[] args) throws RunnerException {
+        final int maxThreads = args.length>0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        final double threshold = args.length>1 ? Double.parseDouble(args[1]) : 0;
+        final List<Integer> counts = new ArrayList<>();
+        for (int threads = 1; threads<maxThreads; threads *= 2) counts.add(threads);
+        counts.add(maxThreads);
+
+        double lowestRatio = Double.MAX_VALUE;
+        final List<String> table = new ArrayList<>();
+        table.add(String.format("%8s %-18s %14s %14s %8s", "threads", "benchmark", "ops/us", "ops/us/thread",
+                "shared"));
+        for (int threads: counts) {
+            final Options options = new OptionsBuilder()
+                    .include(ConcurrencyBenchmark.class.getName()+".*")
+                    .threads(threads)
+                    .build();
+            final Collection<RunResult> results = new Runner(options).run();
+            final double shared = score(results, "shared"), perThread = score(results, "perThread");
+            final double sharedInvalid = score(results, "sharedInvalid");
+            final double perThreadInvalid = score(results, "perThreadInvalid");
+            table.add(row(threads, "shared", shared, shared/perThread));
+            table.add(row(threads, "perThread", perThread, 1));
+            table.add(row(threads, "sharedInvalid", sharedInvalid, sharedInvalid/perThreadInvalid));
+            table.add(row(threads, "perThreadInvalid", perThreadInvalid, 1));
+            if (threads==maxThreads) lowestRatio = Math.min(shared/perThread, sharedInvalid/perThreadInvalid);
+        }
+        System.out.println();
+        for (String line: table) System.out.println(line);
+        if (lowestRatio<threshold) {
+            System.err.printf("Shared/per-thread throughput ratio %.2f is below %.2f%n", lowestRatio, threshold);
+            System.exit(1);
+        }
+    }
+
+    private static double score(Collection<RunResult> results, String benchmark) {
+        for (RunResult result: results) {
+            final String label = result.getParams().getBenchmark();
+            if (label.endsWith("."+benchmark)) return result.getPrimaryResult().getScore();
+        }
+        throw new IllegalStateException("Missing result: "+benchmark);
+    }
+
+    private static String row(int threads, String benchmark, double score, double ratio) {
+        return String.format("%8d %-18s %14.2f %14.2f %8.2f", threads, benchmark, score, score/threads, ratio);
+    }
+
+}
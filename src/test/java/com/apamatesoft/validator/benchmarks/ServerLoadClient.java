@@ -0,0 +1,132 @@
+package com.apamatesoft.validator.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Cliente de carga para {@link com.apamatesoft.validator.server.ValidatorServer}. Cada hilo envía solicitudes
+ * consecutivas sobre conexiones persistentes durante el tiempo indicado, y al final se reportan el rendimiento y la
+ * latencia (p50, p99 y máxima) de las solicitudes.<br>
+ * Con un tamaño de lote mayor a 1 se usa {@code /batch}, enviando ese número de textos por solicitud.
+ * <br><br>
+ * <b>Ejecución:</b><br>
+ * <code>
+ * <pre>
+ * java -cp target/classes com.apamatesoft.validator.server.ValidatorServer validators/ 8080
+ * java -cp target/test-classes com.apamatesoft.validator.benchmarks.ServerLoadClient \
+ *     http://localhost:8080 email 8 10 1
+ * </pre>
+ * </code>
+ */
+public class ServerLoadClient {
+
+    private static final String[] VALUES = { "user@mail.com", "user.name@mail.co", "invalid", "", "a@b" };
+
+    private static long errors;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length<2) {
+            System.err.println("Usage: ServerLoadClient <base url> <validator> [threads] [seconds] [batch size]");
+            System.exit(2);
+        }
+        final int threads = args.length>2 ? Integer.parseInt(args[2]) : 4;
+        final long seconds = args.length>3 ? Long.parseLong(args[3]) : 10;
+        final int batchSize = args.length>4 ? Integer.parseInt(args[4]) : 1;
+        final URL url = new URL(args[0]+(batchSize>1 ? "/batch/" : "/validate/")+args[1]);
+        final byte[] body = body(batchSize);
+
+        // Calentamiento, para no medir la compilación del servidor ni el establecimiento de las conexiones.
+        run(url, body, threads, Math.max(1, seconds/5));
+        final long start = System.nanoTime();
+        final long[] latencies = run(url, body, threads, seconds);
+        final double elapsed = (System.nanoTime()-start)/1e9;
+
+        Arrays.sort(latencies);
+        System.out.printf("requests: %d, values: %d, errors: %d%n", latencies.length, (long) latencies.length*batchSize,
+                errors);
+        System.out.printf("throughput: %.0f requests/s, %.0f values/s%n", latencies.length/elapsed,
+                latencies.length*batchSize/elapsed);
+        System.out.printf("latency: p50 %.1f us, p99 %.1f us, max %.1f us%n", percentile(latencies, 0.50)/1e3,
+                percentile(latencies, 0.99)/1e3, latencies.length==0 ? 0 : latencies[latencies.length-1]/1e3);
+    }
+
+    private static long[] run(URL url, byte[] body, int threads, long seconds) throws InterruptedException {
+        final long deadline = System.nanoTime()+seconds*1_000_000_000L;
+        final List<long[]> results = new ArrayList<>();
+        final CountDownLatch done = new CountDownLatch(threads);
+        errors = 0;
+        for (int i = 0; i<threads; i++) {
+            final Thread thread = new Thread(() -> {
+                long[] latencies = new long[1024];
+                int count = 0;
+                long failed = 0;
+                final byte[] buffer = new byte[8192];
+                while (System.nanoTime()<deadline) {
+                    final long start = System.nanoTime();
+                    try {
+                        send(url, body, buffer);
+                    } catch (IOException e) {
+                        failed++;
+                        continue;
+                    }
+                    if (count==latencies.length) latencies = Arrays.copyOf(latencies, count*2);
+                    latencies[count++] = System.nanoTime()-start;
+                }
+                synchronized (results) {
+                    results.add(Arrays.copyOf(latencies, count));
+                    errors += failed;
+                }
+                done.countDown();
+            });
+            thread.start();
+        }
+        done.await();
+        int size = 0;
+        for (long[] result: results) size += result.length;
+        final long[] latencies = new long[size];
+        int position = 0;
+        for (long[] result: results) {
+            System.arraycopy(result, 0, latencies, position, result.length);
+            position += result.length;
+        }
+        return latencies;
+    }
+
+    /**
+     * Envía una solicitud y lee la respuesta completa, para que la conexión vuelva al grupo de conexiones persistentes.
+     */
+    private static void send(URL url, byte[] body, byte[] buffer) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body);
+        }
+        if (connection.getResponseCode()!=200) throw new IOException("HTTP "+connection.getResponseCode());
+        try (InputStream in = connection.getInputStream()) {
+            while (in.read(buffer)>=0) { }
+        }
+    }
+
+    private static byte[] body(int batchSize) {
+        if (batchSize<=1) return VALUES[0].getBytes(StandardCharsets.UTF_8);
+        final StringBuilder body = new StringBuilder();
+        for (int i = 0; i<batchSize; i++) body.append(VALUES[i%VALUES.length]).append('\n');
+        return body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length==0) return 0;
+        return sorted[Math.min(sorted.length-1, (int) Math.ceil(percentile*sorted.length)-1)];
+    }
+
+}
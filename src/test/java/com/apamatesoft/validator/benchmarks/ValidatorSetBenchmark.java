@@ -0,0 +1,80 @@
+package com.apamatesoft.validator.benchmarks;
+
+import com.apamatesoft.validator.Validator;
+import com.apamatesoft.validator.ValidatorSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import static com.apamatesoft.validator.constants.Constants.*;
+
+/**
+ * Compara la clasificación de un valor entre 50 formatos invocando {@link Validator#isValid(String)} por cada formato
+ * con la evaluación combinada de {@link ValidatorSet}.
+ * <br><br>
+ * <b>Ejecución:</b><br>
+ * <code>
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main ValidatorSetBenchmark
+ * </pre>
+ * </code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidatorSetBenchmark {
+
+    @Param({ "user.name@mail.com", "04141234567", "AB12345678", "-12.5" })
+    public String value;
+
+    private Validator[] validators;
+    private ValidatorSet set;
+
+    @Setup
+    public void setup() {
+        final List<Validator> formats = new ArrayList<>();
+        formats.add(new Validator.Builder().required().email().build());
+        formats.add(new Validator.Builder().required().numericFormat().build());
+        for (int length = 6; length<=16; length++) {
+            formats.add(new Validator.Builder().required().onlyNumbers().length(length).build());
+            formats.add(new Validator.Builder().length(length).shouldOnlyContain(ALPHA_NUMERIC_UPPERCASE)
+                    .mustContainOne(NUMBER).build());
+            formats.add(new Validator.Builder().minLength(length).maxLength(length+4)
+                    .shouldOnlyContain(NUMBER+"-").mustContainOne("-").build());
+            formats.add(new Validator.Builder().length(length).shouldOnlyContain(ALPHA_UPPERCASE+NUMBER+" ")
+                    .notContain("@").build());
+        }
+        while (formats.size()<50) formats.add(new Validator.Builder().required().maxLength(formats.size()).build());
+        validators = formats.toArray(new Validator[0]);
+        set = ValidatorSet.of(validators);
+    }
+
+    @Benchmark
+    public long sequential() {
+        long mask = 0;
+        for (int i = 0; i<validators.length; i++) {
+            if (validators[i].isValid(value)) mask |= 1L<<i;
+        }
+        return mask;
+    }
+
+    @Benchmark
+    public long fused() {
+        return set.matches(value);
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.apamatesoft.validator.processor;
+
+import com.apamatesoft.validator.Validator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.File;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidatorProcessorTest {
+
+    private static final String SIGN_UP = String.join("\n",
+            "package com.example;",
+            "import com.apamatesoft.validator.annotations.*;",
+            "import static com.apamatesoft.validator.constants.Constants.ALPHA_NUMERIC;",
+            "public class SignUp {",
+            "    @Required @Email public String email;",
+            "    @Required(message = \"Password \\\"required\\\"\") @MinLength(8) @ShouldOnlyContain(ALPHA_NUMERIC)",
+            "    private String password;",
+            "    public SignUp(String email, String password) { this.email = email; this.password = password; }",
+            "    public String getPassword() { return password; }",
+            "}");
+
+    @TempDir
+    Path dir;
+
+    private boolean compile(String name, String source, DiagnosticCollector<JavaFileObject> diagnostics)
+            throws Exception {
+        final Path file = dir.resolve(name+".java");
+        Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final String classpath = new File(Validator.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                .getPath();
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            final JavaCompiler.CompilationTask task = compiler.getTask(null, files, diagnostics,
+                    Arrays.asList("-d", dir.toString(), "-s", dir.toString(), "-classpath", classpath),
+                    null, files.getJavaFileObjects(file.toFile()));
+            task.setProcessors(Collections.singletonList(new ValidatorProcessor()));
+            return task.call();
+        }
+    }
+
+    @Test
+    void generatesValidatorWithoutReflection() throws Exception {
+        assertTrue(compile("SignUp", SIGN_UP, new DiagnosticCollector<>()));
+        final String generated = new String(Files.readAllBytes(dir.resolve("com/example/SignUpValidator.java")),
+                StandardCharsets.UTF_8);
+        assertTrue(generated.contains(".minLength(8)"));
+        assertTrue(generated.contains(".required(\"Password \\\"required\\\"\")"));
+        assertTrue(generated.contains("$evaluate.getPassword()"));
+        assertFalse(generated.contains("reflect"));
+        assertFalse(generated.contains("->"));
+    }
+
+    @Test
+    void generatedValidatorAppliesRules() throws Exception {
+        assertTrue(compile("SignUp", SIGN_UP, new DiagnosticCollector<>()));
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { dir.toUri().toURL() }, getClass().getClassLoader())) {
+            final Class<?> type = loader.loadClass("com.example.SignUp");
+            final Class<?> validatorType = loader.loadClass("com.example.SignUpValidator");
+            final Object validator = validatorType.getConstructor().newInstance();
+            final Method isValid = validatorType.getMethod("isValid", type);
+            final Object valid = type.getConstructor(String.class, String.class)
+                    .newInstance("example@mail.com", "abcd1234");
+            final Object invalid = type.getConstructor(String.class, String.class)
+                    .newInstance("example@mail.com", "abcd-1234");
+            assertEquals(true, isValid.invoke(validator, valid));
+            assertEquals(false, isValid.invoke(validator, invalid));
+        }
+    }
+
+    @Test
+    void fieldNamesDoNotClashWithGeneratedCode() throws Exception {
+        assertTrue(compile("Clash", String.join("\n",
+                "package com.example;",
+                "import com.apamatesoft.validator.annotations.*;",
+                "public class Clash {",
+                "    @Required public String message;",
+                "    @Required public String value;",
+                "    @Required public String valid;",
+                "    @Required public String notPass;",
+                "    @Required @Email public String evaluate;",
+                "    public Clash(String value) {",
+                "        message = value; this.value = value; valid = value; notPass = value; evaluate = value;",
+                "    }",
+                "}"), new DiagnosticCollector<>()));
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { dir.toUri().toURL() }, getClass().getClassLoader())) {
+            final Class<?> type = loader.loadClass("com.example.Clash");
+            final Class<?> validatorType = loader.loadClass("com.example.ClashValidator");
+            final Object validator = validatorType.getConstructor().newInstance();
+            final Method isValid = validatorType.getMethod("isValid", type);
+            assertEquals(true, isValid.invoke(validator, type.getConstructor(String.class)
+                    .newInstance("example@mail.com")));
+            assertEquals(false, isValid.invoke(validator, type.getConstructor(String.class).newInstance("example")));
+        }
+    }
+
+    @Test
+    void reportsErrorForInaccessibleField() throws Exception {
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        assertFalse(compile("Login", String.join("\n",
+                "package com.example;",
+                "public class Login {",
+                "    @com.apamatesoft.validator.annotations.Required private String user;",
+                "}"), diagnostics));
+        assertTrue(diagnostics.getDiagnostics().stream()
+                .anyMatch(it -> it.getMessage(null).contains("non-private getter")));
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.apamatesoft.validator.server;
+
+import com.apamatesoft.validator.spec.ValidatorRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidatorServerTest {
+
+    @TempDir
+    Path dir;
+
+    private ValidatorServer server;
+
+    @BeforeEach
+    void start() throws IOException {
+        final Path specs = dir.resolve("validators.properties");
+        Files.write(specs, ("email = required, email\n"
+                +"code = required, shouldOnlyContain(NUMBER), length(4)\n"
+                +"code.message.length = Se requieren %d d\\u00edgitos").getBytes(StandardCharsets.UTF_8));
+        server = new ValidatorServer.Builder(ValidatorRegistry.load(specs))
+                .port(0)
+                .threads(2)
+                .maxBodySize(64)
+                .start();
+    }
+
+    @AfterEach
+    void stop() {
+        server.close();
+    }
+
+    @Test
+    void validatesSingleValues() throws IOException {
+        assertEquals("1\n", post("/validate/email", "user@mail.com").body);
+        assertEquals("0\tEmail invalid\n", post("/validate/email", "user").body);
+        assertEquals("0\tSe requieren 4 d\u00edgitos\n", post("/validate/code", "123").body);
+        assertEquals("0\tRequired\n", post("/validate/code", "").body);
+    }
+
+    @Test
+    void validatesBatches() throws IOException {
+        final Response response = post("/batch/code", "1234\r\n12\n\nabcd\n"+repeat('1', 100)+"\n5678");
+        assertEquals(200, response.status);
+        assertEquals("1\n0\tSe requieren 4 d\u00edgitos\n0\tRequired\n"
+                +"0\tThey are just admitted the following characters 0123456789\n!\tLine too large\n1\n", response.body);
+        assertEquals("", post("/batch/code", "").body);
+    }
+
+    @Test
+    void batchLinesOfMaxSizeAcceptAnyLineEnding() throws IOException {
+        final String max = repeat('a', 59)+"@b.co";
+        final String body = "x\r\n"+max+"\r\n"+max+"\n"+max+"a\r\n"+max+"\r";
+        assertEquals("0\tEmail invalid\n1\n1\n!\tLine too large\n1\n", post("/batch/email", body).body);
+    }
+
+    @Test
+    void listsValidators() throws IOException {
+        final HttpURLConnection connection = open("/validators");
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("code\nemail\n", read(connection.getInputStream()));
+    }
+
+    @Test
+    void reportsErrors() throws IOException {
+        assertEquals(404, post("/validate/phone", "x").status);
+        assertEquals(413, post("/validate/email", repeat('a', 65)).status);
+        assertEquals(405, open("/validate/email").getResponseCode());
+    }
+
+    private Response post(String path, String body) throws IOException {
+        final HttpURLConnection connection = open(path);
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        final int status = connection.getResponseCode();
+        final InputStream in = status<400 ? connection.getInputStream() : connection.getErrorStream();
+        return new Response(status, in==null ? "" : read(in));
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        return (HttpURLConnection) new URL("http://localhost:"+server.getPort()+path).openConnection();
+    }
+
+    private static String read(InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1024];
+        for (int read; (read = in.read(buffer))>=0; ) out.write(buffer, 0, read);
+        in.close();
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static String repeat(char c, int count) {
+        final char[] chars = new char[count];
+        java.util.Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    private static final class Response {
+
+        private final int status;
+        private final String body;
+
+        private Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+    }
+
+}
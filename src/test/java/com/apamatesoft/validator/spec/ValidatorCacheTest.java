@@ -0,0 +1,70 @@
+package com.apamatesoft.validator.spec;
+
+import com.apamatesoft.validator.Validator;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidatorCacheTest {
+
+    @Test
+    void equivalentSpecsShareValidator() {
+        final ValidatorCache cache = new ValidatorCache(1_000_000);
+        final Validator validator = cache.get("required, minLength(8)");
+        assertSame(validator, cache.get(" required ,minLength( 8 )"));
+        assertNotSame(validator, cache.get("required, minLength(9)"));
+        assertEquals(1, cache.stats().getHitCount());
+        assertEquals(2, cache.stats().getMissCount());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void messagesArePartOfTheKey() {
+        final ValidatorSpec first = ValidatorSpec.parse("a", "minLength(8)");
+        assertNotEquals(first.getKey(), ValidatorSpec.parse("b", "minLength(8), required").getKey());
+        assertEquals(first.getKey(), ValidatorSpec.parse("b", "minLength(8)").getKey());
+    }
+
+    @Test
+    void leastRecentlyUsedValidatorsAreEvictedByWeight() {
+        final long weight = ValidatorCache.estimateWeight(ValidatorSpec.parse("", "minLength(10)"));
+        final ValidatorCache cache = new ValidatorCache(weight*2);
+        final Validator first = cache.get("minLength(10)");
+        cache.get("minLength(11)");
+        cache.get("minLength(10)");
+        cache.get("minLength(12)");
+        assertEquals(2, cache.size());
+        assertTrue(cache.weight()<=weight*2);
+        assertEquals(1, cache.stats().getEvictionCount());
+        assertSame(first, cache.get("minLength(10)"));
+    }
+
+    @Test
+    void concurrentMissesCompileOnce() throws Exception {
+        final ValidatorCache cache = new ValidatorCache(1_000_000);
+        final ExecutorService executor = Executors.newFixedThreadPool(16);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<CompletableFuture<Validator>> futures = new ArrayList<>();
+        for (int i = 0; i<16; i++) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return cache.get("required, shouldOnlyContain(ALPHA_NUMERIC_ES), maxLength(20)");
+            }, executor));
+        }
+        start.countDown();
+        final Validator validator = futures.get(0).get();
+        for (CompletableFuture<Validator> future: futures) assertSame(validator, future.get());
+        executor.shutdown();
+        assertEquals(1, cache.stats().getLoadCount());
+    }
+
+}
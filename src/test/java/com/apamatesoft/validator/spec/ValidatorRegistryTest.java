@@ -0,0 +1,136 @@
+package com.apamatesoft.validator.spec;
+
+import com.apamatesoft.validator.Validator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidatorRegistryTest {
+
+    @TempDir
+    Path dir;
+
+    private Path write(String name, String content) throws IOException {
+        // Se escribe en un archivo temporal y se mueve, para que el registro no lea el archivo a medio escribir.
+        final Path temp = Files.write(dir.resolve(name+".tmp"), content.getBytes(StandardCharsets.UTF_8));
+        return Files.move(temp, dir.resolve(name), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void await(Runnable assertion) throws InterruptedException {
+        final long deadline = System.currentTimeMillis()+20_000;
+        while (true) {
+            try {
+                assertion.run();
+                return;
+            } catch (AssertionError e) {
+                if (System.currentTimeMillis()>deadline) throw e;
+                Thread.sleep(50);
+            }
+        }
+    }
+
+    @Test
+    void loadsAllFilesOfDirectory() throws IOException {
+        write("users.properties", "email = required, email");
+        write("payments.properties", "amount = required, numericFormat");
+        final ValidatorRegistry registry = ValidatorRegistry.load(dir);
+        assertEquals(2, registry.names().size());
+        assertTrue(registry.get("email").isValid("example@mail.com"));
+        assertFalse(registry.get("amount").isValid("x"));
+        assertThrows(IllegalArgumentException.class, () -> registry.get("phone"));
+    }
+
+    @Test
+    void exceptionIsExpectedForDuplicatedNames() throws IOException {
+        write("a.properties", "email = required");
+        write("b.properties", "email = email");
+        assertThrows(IllegalArgumentException.class, () -> ValidatorRegistry.load(dir));
+    }
+
+    @Test
+    void loadsSnapshots() throws IOException {
+        write("users.properties", "email = required, email\ncode = required, shouldOnlyContain(NUMBER), length(4)");
+        final Path snapshot = dir.resolve("validators.snapshot");
+        ValidatorRegistry.main(new String[] { dir.resolve("users.properties").toString(), snapshot.toString() });
+        final ValidatorRegistry registry = ValidatorRegistry.loadSnapshot(snapshot);
+        assertEquals(2, registry.names().size());
+        assertTrue(registry.get("code").isValid("1234"));
+        assertFalse(registry.get("code").isValid("12a4"));
+        assertFalse(registry.get("email").isValid("xxx"));
+        assertThrows(IllegalStateException.class, registry::watch);
+    }
+
+    @Test
+    void reloadsModifiedFiles() throws Exception {
+        final Path file = write("users.properties", "code = required, maxLength(4)");
+        try (ValidatorRegistry registry = ValidatorRegistry.load(file)) {
+            registry.watch();
+            final Validator before = registry.get("code");
+            assertTrue(before.isValid("abcd"));
+            write("users.properties", "code = required, maxLength(2)");
+            await(() -> assertFalse(registry.get("code").isValid("abcd")));
+            assertTrue(before.isValid("abcd"));
+        }
+    }
+
+    @Test
+    void toleratesNonAtomicWrites() throws Exception {
+        final Path file = write("users.properties", "code = required, maxLength(4)");
+        try (ValidatorRegistry registry = ValidatorRegistry.load(dir)) {
+            final AtomicReference<Exception> error = new AtomicReference<>();
+            registry.onReloadError(error::set);
+            registry.watch();
+            final AtomicBoolean running = new AtomicBoolean(true);
+            final AtomicReference<RuntimeException> missing = new AtomicReference<>();
+            final Thread reader = new Thread(() -> {
+                while (running.get()) {
+                    try {
+                        registry.get("code");
+                        Thread.sleep(1);
+                    } catch (IllegalArgumentException e) {
+                        missing.set(e);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+            reader.start();
+            try (OutputStream output = Files.newOutputStream(file)) {
+                // El archivo queda vacío el tiempo suficiente para recargarse.
+                Thread.sleep(500);
+                output.write("code = required, ".getBytes(StandardCharsets.UTF_8));
+                output.flush();
+                Thread.sleep(10);
+                output.write("maxLength(2)".getBytes(StandardCharsets.UTF_8));
+            }
+            await(() -> assertFalse(registry.get("code").isValid("abcd")));
+            running.set(false);
+            reader.join();
+            assertNull(missing.get());
+            assertNull(error.get());
+        }
+    }
+
+    @Test
+    void keepsPreviousValidatorsIfReloadFails() throws Exception {
+        write("users.properties", "code = required");
+        try (ValidatorRegistry registry = ValidatorRegistry.load(dir)) {
+            final AtomicReference<Exception> error = new AtomicReference<>();
+            registry.onReloadError(error::set);
+            registry.watch();
+            write("users.properties", "code = unknown");
+            await(() -> assertNotNull(error.get()));
+            assertTrue(registry.get("code").isValid("x"));
+        }
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.apamatesoft.validator.spec;
+
+import com.apamatesoft.validator.Validator;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.Properties;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidatorSpecTest {
+
+    private static Map<String, ValidatorSpec> parse(String properties) throws IOException {
+        final Properties result = new Properties();
+        result.load(new StringReader(properties));
+        return ValidatorSpec.parse(result);
+    }
+
+    @Test
+    void buildsChainOfBuiltInRules() {
+        final Validator validator = ValidatorSpec.parse("password", "required, minLength(8), mustContainOne(NUMBER)")
+                .build();
+        assertFalse(validator.isValid(""));
+        assertEquals("It requires at least 8 characters", validator.failMessage("abc"));
+        assertFalse(validator.isValid("abcdefgh"));
+        assertTrue(validator.isValid("abcdefg1"));
+    }
+
+    @Test
+    void quotedArgumentsAreSupported() {
+        final ValidatorSpec spec = ValidatorSpec.parse("code", "notContain(\" ,\\\"\")");
+        assertEquals(" ,\"", spec.getRules().get(0).getArgument());
+        assertFalse(spec.build().isValid("a\"b"));
+        assertTrue(spec.build().isValid("ab"));
+    }
+
+    @Test
+    void toStringIsCanonical() {
+        assertEquals("required,minLength(8),notContain(\" \")",
+                ValidatorSpec.parse("x", "  required ,minLength( 8 ),  notContain(\" \")").toString());
+    }
+
+    @Test
+    void messagesAreReadFromProperties() throws IOException {
+        final Map<String, ValidatorSpec> specs = parse(String.join("\n",
+                "password = required, minLength(8)",
+                "password.message.minLength = Min %d",
+                "password.notMatchMessage = Different",
+                "email = required, email"));
+        assertEquals(2, specs.size());
+        final Validator password = specs.get("password").build();
+        assertEquals("Min 8", password.failMessage("abc"));
+        password.onNotPass(message -> assertEquals("Different", message));
+        assertFalse(password.compare("abcdefgh", "abcdefgi"));
+        assertEquals("Email invalid", specs.get("email").build().failMessage("xxx"));
+    }
+
+    @Test
+    void exceptionIsExpectedForInvalidSpecs() {
+        assertThrows(IllegalArgumentException.class, () -> ValidatorSpec.parse("x", "unknown"));
+        assertThrows(IllegalArgumentException.class, () -> ValidatorSpec.parse("x", "minLength"));
+        assertThrows(IllegalArgumentException.class, () -> ValidatorSpec.parse("x", "minLength(NUMBER)"));
+        assertThrows(IllegalArgumentException.class, () -> ValidatorSpec.parse("x", "required(1)"));
+        assertThrows(IllegalArgumentException.class, () -> ValidatorSpec.parse("x", "notContain(\"abc)"));
+        assertThrows(IllegalArgumentException.class, () -> ValidatorSpec.parse("x", "required email"));
+        assertThrows(IllegalArgumentException.class, () -> parse("x = required\nx.message.email = Email"));
+    }
+
+}
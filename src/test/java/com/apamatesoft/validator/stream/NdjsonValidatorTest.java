@@ -0,0 +1,137 @@
+package com.apamatesoft.validator.stream;
+
+import com.apamatesoft.validator.Validator;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import static com.apamatesoft.validator.constants.Constants.NUMBER;
+import static org.junit.jupiter.api.Assertions.*;
+
+class NdjsonValidatorTest {
+
+    private final List<String> failures = new ArrayList<>();
+    private final NdjsonValidator validator = new NdjsonValidator.Builder()
+            .field("email", new Validator.Builder().required("Email required").email("Email invalid").build())
+            .field("user.code", new Validator.Builder().shouldOnlyContain(NUMBER, "Digits").length(4, "Four").build())
+            .field("amount", new Validator.Builder().numericFormat("Number").build())
+            .maxRecordSize(256)
+            .notPass((field, message) -> failures.add(field+": "+message))
+            .build();
+
+    @Test
+    void routesRecords() throws IOException {
+        final String input = "{\"email\":\"a@b.co\",\"user\":{\"code\":\"1234\",\"x\":[1,{\"code\":\"x\"}]},\"amount\":12.5}\n"
+                +"{\"amount\":\"7\",\"user\":{\"code\":\"12a4\"},\"email\":\"a@b.co\"}\r\n"
+                +"\n"
+                +"{\"email\":\"bad\",\"user\":{\"code\":\"1234\"},\"amount\":1}\n"
+                +"{\"user\":{\"code\":\"1234\"},\"amount\":1}\n"
+                +"{\"email\":\"a@b.co\",\"user\":{\"code\":\"1234\"},\"amount\":1,\"extra\":{\"a\":[true,false,null,\"}\"]}}";
+        final Result result = validate(input);
+        assertEquals(2, result.stats.getAcceptedCount());
+        assertEquals(3, result.stats.getRejectedCount());
+        assertTrue(result.accepted.startsWith("{\"email\":\"a@b.co\",\"user\":{\"code\":\"1234\",\"x\""));
+        assertTrue(result.accepted.endsWith("\"}\"]}}\n"));
+        assertEquals(3, result.rejected.split("\n").length);
+        assertEquals("[user.code: Digits, email: Email invalid, email: Email required]", failures.toString());
+    }
+
+    @Test
+    void unescapesConfiguredFields() throws IOException {
+        final String input = "{\"em\\u0061il\":\"a\\u0040b.co\",\"user\":{\"code\":\"12\\/4\"},\"amount\":\"1e3\"}\n"
+                +"{\"email\":\"a@b.co\",\"user\":{\"code\":\"\\u0031\\u0032\\u0033\\u0034\"},\"amount\":null}\n";
+        final Result result = validate(input);
+        assertEquals(0, result.stats.getAcceptedCount());
+        assertEquals("[user.code: Digits, amount: Number]", failures.toString());
+    }
+
+    @Test
+    void rejectsMalformedAndOversizedRecords() throws IOException {
+        final StringBuilder large = new StringBuilder("{\"email\":\"");
+        for (int i = 0; i<300; i++) large.append('a');
+        large.append("@b.co\"}");
+        final String valid = "{\"email\":\"a@b.co\",\"user\":{\"code\":\"1234\"},\"amount\":0}";
+        final String input = "{\"email\":\"a@b.co\"\n[1]\n{\"email\":tru}\n"+large+"\n"+valid+"\n"+large;
+        final Result result = validate(input);
+        assertEquals(1, result.stats.getAcceptedCount());
+        assertEquals(5, result.stats.getRejectedCount());
+        assertEquals(valid+"\n", result.accepted);
+        assertEquals("{\"email\":\"a@b.co\"\n[1]\n{\"email\":tru}\n", result.rejected);
+        assertEquals("[null: Malformed JSON record, null: Malformed JSON record, null: Malformed JSON record, "
+                +"null: Record too large, null: Record too large]", failures.toString());
+    }
+
+    @Test
+    void recordsOfMaxSizeAcceptAnyLineEnding() throws IOException {
+        final String prefix = "{\"email\":\"a@b.co\",\"user\":{\"code\":\"1234\"},\"amount\":1";
+        final StringBuilder record = new StringBuilder(prefix).append(",\"pad\":\"");
+        while (record.length()<254) record.append('x');
+        record.append("\"}");
+        // El primer registro desplaza los siguientes, para que el '\r' quede al final del buffer.
+        final String input = prefix+"}\r\n"+record+"\r\n"+record+"\n"+record+" \r\n"+record+"\r";
+        final Result result = validate(input);
+        assertEquals(4, result.stats.getAcceptedCount());
+        assertEquals(1, result.stats.getRejectedCount());
+        assertEquals("[null: Record too large]", failures.toString());
+    }
+
+    @Test
+    void memoryIsBoundedByRecordSize() throws IOException {
+        final byte[] record = "{\"email\":\"a@b.co\",\"user\":{\"code\":\"1234\"},\"amount\":1}\n"
+                .getBytes(StandardCharsets.UTF_8);
+        final long count = 200_000;
+        final InputStream input = new InputStream() {
+            private long position;
+
+            @Override
+            public int read() {
+                if (position==count*record.length) return -1;
+                return record[(int) (position++%record.length)];
+            }
+        };
+        final NdjsonValidator.Stats stats = validator.validate(input, new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(byte[] b, int off, int len) { }
+        }, new ByteArrayOutputStream());
+        assertEquals(count, stats.getAcceptedCount());
+        assertEquals(0, stats.getRejectedCount());
+    }
+
+    @Test
+    void overlappingPathsAreRejected() {
+        final Validator any = new Validator.Builder().build();
+        assertThrows(IllegalArgumentException.class, () -> new NdjsonValidator.Builder()
+                .field("user", any).field("user.email", any).build());
+        assertThrows(IllegalArgumentException.class, () -> new NdjsonValidator.Builder()
+                .field("user.email", any).field("user", any).build());
+        assertThrows(IllegalArgumentException.class, () -> new NdjsonValidator.Builder().field("a..b", any).build());
+    }
+
+    private Result validate(String input) throws IOException {
+        final ByteArrayOutputStream accepted = new ByteArrayOutputStream();
+        final ByteArrayOutputStream rejected = new ByteArrayOutputStream();
+        final NdjsonValidator.Stats stats = validator.validate(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), accepted, rejected);
+        return new Result(stats, new String(accepted.toByteArray(), StandardCharsets.UTF_8),
+                new String(rejected.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private static final class Result {
+
+        private final NdjsonValidator.Stats stats;
+        private final String accepted;
+        private final String rejected;
+
+        private Result(NdjsonValidator.Stats stats, String accepted, String rejected) {
+            this.stats = stats;
+            this.accepted = accepted;
+            this.rejected = rejected;
+        }
+
+    }
+
+}
@@ -0,0 +1,274 @@
+package com.apamatesoft.validator;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlowValidatorTest {
+
+    private static final Validator CODE = new Validator.Builder()
+            .required("Required")
+            .onlyNumbers("Numbers")
+            .length(3, "Length")
+            .build();
+
+    @Test
+    void routesRejectsWithRuleIndex() throws InterruptedException {
+        final List<FlowValidator.Rejection<String>> rejects = Collections.synchronizedList(new ArrayList<>());
+        final FlowValidator<String> processor = new FlowValidator.Builder<String>(CODE, it -> it)
+                .onReject(rejects::add)
+                .build();
+        final Collector collector = new Collector(Long.MAX_VALUE);
+        processor.subscribe(collector);
+        publish(processor, "123", "", "12a", "1234", "456");
+        collector.await();
+        assertEquals(List.of("123", "456"), collector.items);
+        assertEquals(3, rejects.size());
+        assertEquals("", rejects.get(0).getItem());
+        assertEquals(0, rejects.get(0).getRuleIndex());
+        assertEquals("Numbers", rejects.get(1).getMessage());
+        assertEquals(1, rejects.get(1).getRuleIndex());
+        assertEquals(2, rejects.get(2).getRuleIndex());
+    }
+
+    @Test
+    void respectsDemand() throws InterruptedException {
+        final FlowValidator<String> processor = new FlowValidator.Builder<String>(CODE, it -> it)
+                .window(4)
+                .build();
+        final List<Long> upstreamRequests = Collections.synchronizedList(new ArrayList<>());
+        final Collector collector = new Collector(2);
+        processor.subscribe(collector);
+        processor.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                upstreamRequests.add(n);
+            }
+
+            @Override
+            public void cancel() { }
+        });
+        assertEquals(List.of(4L), upstreamRequests);
+        for (int i = 0; i<4; i++) processor.onNext("00"+i);
+        assertEquals(List.of("000", "001"), collector.items);
+        // Los dos elementos pendientes ocupan la ventana: solo se solicitan los dos ya publicados.
+        assertEquals(List.of(4L, 2L), upstreamRequests);
+        collector.subscription.request(10);
+        assertEquals(List.of("000", "001", "002", "003"), collector.items);
+        assertEquals(List.of(4L, 2L, 2L), upstreamRequests);
+    }
+
+    @Test
+    void parallelValidationPreservesOrder() throws InterruptedException {
+        final Validator slow = new Validator.Builder()
+                .rule("Even", it -> {
+                    sleep(ThreadLocalRandom.current().nextInt(3));
+                    return Integer.parseInt(it)%2==0;
+                })
+                .build();
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Integer> rejects = Collections.synchronizedList(new ArrayList<>());
+            final FlowValidator<Integer> processor = new FlowValidator.Builder<Integer>(slow, String::valueOf)
+                    .executor(executor)
+                    .window(16)
+                    .onReject(it -> rejects.add(it.getItem()))
+                    .build();
+            final Collector collector = new Collector(Long.MAX_VALUE);
+            processor.subscribe(collector);
+            final List<Integer> expected = new ArrayList<>();
+            final List<Integer> expectedRejects = new ArrayList<>();
+            try (SubmissionPublisher<Integer> publisher = new SubmissionPublisher<>()) {
+                publisher.subscribe(processor);
+                for (int i = 0; i<200; i++) {
+                    publisher.submit(i);
+                    (i%2==0 ? expected : expectedRejects).add(i);
+                }
+            }
+            collector.await();
+            assertEquals(expected.toString(), collector.items.toString());
+            assertEquals(expectedRejects, rejects);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void asyncRulesAndErrors() throws InterruptedException {
+        final Validator validator = new Validator.Builder()
+                .required("Required")
+                .asyncRule("Taken", it -> CompletableFuture.supplyAsync(() -> {
+                    if (it.equals("boom")) throw new IllegalStateException("boom");
+                    return !it.equals("taken");
+                }))
+                .build();
+        final List<FlowValidator.Rejection<String>> rejects = Collections.synchronizedList(new ArrayList<>());
+        final FlowValidator<String> processor = new FlowValidator.Builder<String>(validator, it -> it)
+                .onReject(rejects::add)
+                .build();
+        final Collector collector = new Collector(Long.MAX_VALUE);
+        processor.subscribe(collector);
+        publish(processor, "free", "taken", "boom", "later");
+        collector.await();
+        assertEquals(List.of("free"), collector.items);
+        assertEquals(1, rejects.get(0).getRuleIndex());
+        assertEquals("Taken", rejects.get(0).getMessage());
+        assertNotNull(collector.error);
+    }
+
+    @Test
+    void secondSubscriberIsRejected() throws InterruptedException {
+        final FlowValidator<String> processor = new FlowValidator.Builder<String>(CODE, it -> it).build();
+        processor.subscribe(new Collector(1));
+        final Collector second = new Collector(1);
+        processor.subscribe(second);
+        second.await();
+        assertTrue(second.error instanceof IllegalStateException);
+    }
+
+    @Test
+    void nonPositiveRequestIsSignalledAfterOnNext() throws InterruptedException {
+        final FlowValidator<String> processor = new FlowValidator.Builder<String>(CODE, it -> it).build();
+        final Upstream upstream = new Upstream();
+        final boolean[] nested = new boolean[1];
+        final Collector collector = new Collector(1) {
+            private boolean inOnNext;
+
+            @Override
+            public void onNext(Object item) {
+                inOnNext = true;
+                super.onNext(item);
+                subscription.request(0);
+                inOnNext = false;
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                nested[0] = inOnNext;
+                super.onError(throwable);
+            }
+        };
+        processor.subscribe(collector);
+        processor.onSubscribe(upstream);
+        processor.onNext("123");
+        collector.await();
+        assertTrue(collector.error instanceof IllegalArgumentException);
+        assertFalse(nested[0]);
+        assertTrue(upstream.cancelled);
+    }
+
+    @Test
+    void throwingConsumersCancelUpstream() throws InterruptedException {
+        final IllegalStateException thrown = new IllegalStateException("consumer");
+        final FlowValidator<String> rejecting = new FlowValidator.Builder<String>(CODE, it -> it)
+                .onReject(it -> {
+                    throw thrown;
+                })
+                .build();
+        final Upstream upstream = new Upstream();
+        final Collector collector = new Collector(Long.MAX_VALUE);
+        rejecting.subscribe(collector);
+        rejecting.onSubscribe(upstream);
+        rejecting.onNext("12a");
+        rejecting.onNext("456");
+        collector.await();
+        assertSame(thrown, collector.error);
+        assertTrue(upstream.cancelled);
+        assertEquals(List.of(), collector.items);
+
+        final FlowValidator<String> processor = new FlowValidator.Builder<String>(CODE, it -> it).build();
+        final Upstream second = new Upstream();
+        final Collector throwing = new Collector(Long.MAX_VALUE) {
+            @Override
+            public void onNext(Object item) {
+                throw thrown;
+            }
+        };
+        processor.subscribe(throwing);
+        processor.onSubscribe(second);
+        processor.onNext("123");
+        throwing.await();
+        assertSame(thrown, throwing.error);
+        assertTrue(second.cancelled);
+    }
+
+    private static void publish(Flow.Processor<String, String> processor, String... items) {
+        try (SubmissionPublisher<String> publisher = new SubmissionPublisher<>()) {
+            publisher.subscribe(processor);
+            for (String item: items) publisher.submit(item);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Upstream implements Flow.Subscription {
+
+        private volatile boolean cancelled;
+
+        @Override
+        public void request(long n) { }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+    }
+
+    private static class Collector implements Flow.Subscriber<Object> {
+
+        private final List<Object> items = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch terminated = new CountDownLatch(1);
+        private final long initialRequest;
+        Flow.Subscription subscription;
+        private volatile Throwable error;
+
+        private Collector(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialRequest);
+        }
+
+        @Override
+        public void onNext(Object item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            terminated.countDown();
+        }
+
+        private void await() throws InterruptedException {
+            assertTrue(terminated.await(10, TimeUnit.SECONDS));
+        }
+
+    }
+
+}